@@ -0,0 +1,66 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тестовые данные бенчмарков. Заголовок пользователя уникален, как того требует схема.
+ */
+public final class BenchmarkData {
+    public static final int BOOKS_PER_USER = 3;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private BenchmarkData() {
+    }
+
+    public static UserDto userDto() {
+        long n = SEQUENCE.incrementAndGet();
+        return new UserDto(null, "Benchmark User " + n, "reader " + n, 30);
+    }
+
+    public static Person person() {
+        long n = SEQUENCE.incrementAndGet();
+        Person person = new Person();
+        person.setFullName("Benchmark User " + n);
+        person.setTitle("reader " + n);
+        person.setAge(30);
+        person.setRating(1);
+        return person;
+    }
+
+    public static BookDto bookDto(Long userId) {
+        long n = SEQUENCE.incrementAndGet();
+        return new BookDto(null, userId, "Book " + n, "Author " + n, 320L);
+    }
+
+    public static UserBookRequest userBookRequest() {
+        long n = SEQUENCE.incrementAndGet();
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Benchmark User " + n);
+        userRequest.setTitle("reader " + n);
+        userRequest.setAge(30);
+
+        List<BookRequest> bookRequests = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            BookRequest bookRequest = new BookRequest();
+            bookRequest.setTitle("Book " + n + "-" + i);
+            bookRequest.setAuthor("Author " + n);
+            bookRequest.setPageCount(320L);
+            bookRequests.add(bookRequest);
+        }
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(bookRequests);
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение реализаций {@link BookService}: JPA, JdbcTemplate и хранилище в памяти.
+ * Книги создаются пакетом для отдельного пользователя и удаляются в той же операции.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"BookServiceImpl", "BookServiceImplTemplate", "BookServiceImplStorage"})
+    public String implementation;
+
+    private BookService bookService;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+    private Long writerId;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        bookService = application.getBean(BookService.class, implementation);
+        UserService userService = application.getBean(UserService.class,
+                implementation.replace("BookService", "UserService"));
+        transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+
+        userId = transactionTemplate.execute(status -> {
+            Long id = userService.createUser(BenchmarkData.userDto()).getId();
+            for (int i = 0; i < BenchmarkData.BOOKS_PER_USER; i++) {
+                bookService.createBook(BenchmarkData.bookDto(id));
+            }
+            return id;
+        });
+        writerId = transactionTemplate.execute(status -> userService.createUser(BenchmarkData.userDto()).getId());
+    }
+
+    @Benchmark
+    public List<BookDto> getBooksByUserId() {
+        return transactionTemplate.execute(status -> bookService.getBooksByUserId(userId));
+    }
+
+    @Benchmark
+    public List<Long> getBooksIdsByUserId() {
+        return transactionTemplate.execute(status -> bookService.getBooksIdsByUserId(userId));
+    }
+
+    @Benchmark
+    public List<BookDto> createThenDeleteBooks() {
+        List<BookDto> books = new ArrayList<>(BenchmarkData.BOOKS_PER_USER);
+        for (int i = 0; i < BenchmarkData.BOOKS_PER_USER; i++) {
+            books.add(BenchmarkData.bookDto(writerId));
+        }
+        List<BookDto> created = transactionTemplate.execute(status -> bookService.createBooks(books));
+        transactionTemplate.executeWithoutResult(status -> bookService.deleteBooksByUserId(writerId));
+        return created;
+    }
+}
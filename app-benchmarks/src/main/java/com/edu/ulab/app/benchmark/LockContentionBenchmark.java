@@ -0,0 +1,89 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.locking.LockMode;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конкурентные изменения небольшого набора «горячих» пользователей через {@link UserServiceImpl}
+ * при пессимистической и оптимистической блокировке. Режим {@code SampleTime} печатает
+ * перцентили задержки (в том числе p0.99), {@code Throughput} - изменения в миллисекунду.
+ * Сервис собирается здесь же из бинов контекста, чтобы режим не зависел от конфигурации профиля.
+ * Изменения, исчерпавшие попытки при оптимистической блокировке, не прерывают замер, а считаются
+ * отдельно в {@link Failures#givenUp}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LockContentionBenchmark {
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC"})
+    public LockMode lockMode;
+
+    @Param({"1", "16"})
+    public int hotUsers;
+
+    private UserService userService;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        TransactionTemplate transactions = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        UpdateRetryTemplate updateRetryTemplate = new UpdateRetryTemplate(lockMode, transactions,
+                10, Duration.ofMillis(1), Duration.ofMillis(20));
+        userService = new UserServiceImpl(application.getBean(UserRepository.class),
+                application.getBean(UserMapper.class), updateRetryTemplate);
+
+        userIds = new long[hotUsers];
+        for (int i = 0; i < hotUsers; i++) {
+            userIds[i] = transactions.execute(status -> userService.createUser(BenchmarkData.userDto()).getId());
+        }
+    }
+
+    @Benchmark
+    public UserDto updateHotUser(Failures failures) {
+        UserDto update = BenchmarkData.userDto();
+        update.setId(userIds[ThreadLocalRandom.current().nextInt(userIds.length)]);
+        try {
+            return userService.updateUser(update);
+        } catch (OptimisticLockingFailureException e) {
+            failures.givenUp++;
+            return null;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long givenUp;
+    }
+}
@@ -0,0 +1,128 @@
+package com.edu.ulab.app.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.logging.PayloadLogger;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость логирования создания пользователя с книгами: прежняя схема (каждая книга дважды
+ * и весь ответ на INFO) против итоговой строки со счётчиками и выборочного тела ответа.
+ * Вывод уходит в пустой поток, поэтому измеряется форматирование и передача события,
+ * а не диск; {@code gc.alloc.rate.norm} показывает выделения на запрос.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%X{requestId:-}] --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"10", "1000"})
+    private int bookCount;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private final Logger log = (Logger) LoggerFactory.getLogger(LoggingBenchmark.class);
+    private final Logger payloadLog = (Logger) LoggerFactory.getLogger(PayloadLogger.LOGGER_NAME);
+    private final PayloadLogger payloadLogger = new PayloadLogger(true, 0.01, Map.of());
+
+    private Appender<ILoggingEvent> target;
+    private List<BookDto> books;
+    private UserBookResponse response;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1638);
+            async.setNeverBlock(true);
+            async.addAppender(output);
+            async.start();
+            target = async;
+        } else {
+            target = output;
+        }
+        for (Logger logger : List.of(log, payloadLog)) {
+            logger.detachAndStopAllAppenders();
+            logger.setAdditive(false);
+            logger.setLevel(Level.INFO);
+            logger.addAppender(target);
+        }
+
+        books = new ArrayList<>(bookCount);
+        List<Long> ids = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            BookDto book = BenchmarkData.bookDto(1L);
+            book.setId((long) i);
+            books.add(book);
+            ids.add((long) i);
+        }
+        response = UserBookResponse.builder().userId(1L).booksIdList(ids).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.detachAppender(target);
+        payloadLog.detachAppender(target);
+        target.stop();
+    }
+
+    @Benchmark
+    public void perBookPayload() {
+        for (BookDto book : books) {
+            log.info("Mapped book: {}", book);
+        }
+        for (BookDto book : books) {
+            log.info("Created book: {}", book);
+        }
+        log.info("Response with created user and his books: {}", response);
+    }
+
+    @Benchmark
+    public void summaryWithSampledPayload() {
+        log.info("Created user id:{} with {} books", response.getUserId(), books.size());
+        payloadLogger.log("create", response);
+    }
+}
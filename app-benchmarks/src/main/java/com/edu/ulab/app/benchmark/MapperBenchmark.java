@@ -0,0 +1,106 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.UserResponse;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость преобразований MapStruct на пути запроса: отдельные шаги {@link UserMapper}/{@link BookMapper}
+ * и полная цепочка request - dto - entity - dto - response, которую проходит создание пользователя с книгами.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+
+    private UserBookRequest request;
+    private UserDto userDto;
+    private Person person;
+    private BookDto bookDto;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkData.userBookRequest();
+        userDto = userMapper.userRequestToUserDto(request.getUserRequest());
+        userDto.setId(1L);
+        person = userMapper.userDtoToPerson(userDto);
+        bookDto = bookMapper.bookRequestToBookDto(request.getBookRequests().get(0));
+        bookDto.setId(2L);
+        bookDto.setUserId(1L);
+        book = bookMapper.bookDtoToBook(bookDto);
+    }
+
+    @Benchmark
+    public UserDto userRequestToUserDto() {
+        return userMapper.userRequestToUserDto(request.getUserRequest());
+    }
+
+    @Benchmark
+    public Person userDtoToPerson() {
+        return userMapper.userDtoToPerson(userDto);
+    }
+
+    @Benchmark
+    public UserDto personToUserDto() {
+        return userMapper.personToUserDto(person);
+    }
+
+    @Benchmark
+    public UserResponse userDtoToUserResponse() {
+        return userMapper.userDtoToUserResponse(userDto);
+    }
+
+    @Benchmark
+    public BookDto bookRequestToBookDto() {
+        return bookMapper.bookRequestToBookDto(request.getBookRequests().get(0));
+    }
+
+    @Benchmark
+    public Book bookDtoToBook() {
+        return bookMapper.bookDtoToBook(bookDto);
+    }
+
+    @Benchmark
+    public BookResponse bookToBookResponse() {
+        return bookMapper.bookDtoToBookResponse(bookMapper.bookToBookDto(book));
+    }
+
+    @Benchmark
+    public void userWithBooksRoundTrip(Blackhole blackhole) {
+        UserDto dto = userMapper.userRequestToUserDto(request.getUserRequest());
+        Person entity = userMapper.userDtoToPerson(dto);
+        blackhole.consume(userMapper.userDtoToUserResponse(userMapper.personToUserDto(entity)));
+        for (BookRequest bookRequest : request.getBookRequests()) {
+            BookDto mapped = bookMapper.bookRequestToBookDto(bookRequest);
+            Book bookEntity = bookMapper.bookDtoToBook(mapped);
+            blackhole.consume(bookMapper.bookDtoToBookResponse(bookMapper.bookToBookDto(bookEntity)));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пути {@link UserDataFacade}: создание пользователя с книгами, чтение и удаление,
+ * вместе с маппингом, кешем и транзакцией фасада.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDataFacadeBenchmark {
+    private UserDataFacade userDataFacade;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        userDataFacade = application.getBean(UserDataFacade.class);
+        userId = userDataFacade.createUserWithBooks(BenchmarkData.userBookRequest()).getUserId();
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks() {
+        return userDataFacade.getUserWithBooks(userId);
+    }
+
+    @Benchmark
+    public UserBookResponse createThenDeleteUserWithBooks() {
+        UserBookResponse response = userDataFacade.createUserWithBooks(BenchmarkData.userBookRequest());
+        userDataFacade.deleteUserWithBooks(response.getUserId());
+        return response;
+    }
+}
@@ -0,0 +1,91 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение реализаций {@link UserService}: JPA, JdbcTemplate и хранилище в памяти.
+ * Каждый вызов выполняется в своей транзакции, как его вызывает фасад. Создание измеряется
+ * вместе с удалением, чтобы объём базы не рос от итерации к итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"UserServiceImpl", "UserServiceImplTemplate", "UserServiceImplStorage"})
+    public String implementation;
+
+    private UserService userService;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        userService = application.getBean(UserService.class, implementation);
+        BookService bookService = application.getBean(BookService.class,
+                implementation.replace("UserService", "BookService"));
+        transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+
+        userId = transactionTemplate.execute(status -> {
+            Long id = userService.createUser(BenchmarkData.userDto()).getId();
+            for (int i = 0; i < BenchmarkData.BOOKS_PER_USER; i++) {
+                bookService.createBook(BenchmarkData.bookDto(id));
+            }
+            return id;
+        });
+    }
+
+    @Benchmark
+    public UserDto getUserById() {
+        return transactionTemplate.execute(status -> userService.getUserById(userId));
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> userService.existsById(userId)));
+    }
+
+    @Benchmark
+    public Optional<List<Long>> findBooksIdsByUserId() {
+        return transactionTemplate.execute(status -> userService.findBooksIdsByUserId(userId));
+    }
+
+    @Benchmark
+    public UserDto updateUser() {
+        return transactionTemplate.execute(status -> {
+            UserDto update = BenchmarkData.userDto();
+            update.setId(userId);
+            return userService.updateUser(update);
+        });
+    }
+
+    @Benchmark
+    public Long createThenDeleteUser() {
+        Long id = transactionTemplate.execute(status -> userService.createUser(BenchmarkData.userDto()).getId());
+        transactionTemplate.executeWithoutResult(status -> userService.deleteUserById(id));
+        return id;
+    }
+}
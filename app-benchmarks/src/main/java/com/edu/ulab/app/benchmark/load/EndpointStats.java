@@ -0,0 +1,43 @@
+package com.edu.ulab.app.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки одного вызова. Задержка считается от запланированного момента отправки,
+ * а не от фактического, поэтому очередь на стороне генератора тоже попадает в результат.
+ */
+class EndpointStats {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void recordSuccess(long latencyNanos) {
+        latency.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    }
+
+    void recordError(long latencyNanos) {
+        recordSuccess(latencyNanos);
+        errors.increment();
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    double maxMillis() {
+        return latency.getMaxValue() / 1_000_000.0;
+    }
+}
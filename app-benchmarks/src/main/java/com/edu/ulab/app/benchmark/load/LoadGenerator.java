@@ -0,0 +1,261 @@
+package com.edu.ulab.app.benchmark.load;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.benchmark.BenchmarkData;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор HTTP-нагрузки на {@code UserController} с постоянной интенсивностью (открытая модель).
+ * <p>
+ * Запросы отправляются по расписанию {@code start + i / rate} независимо от того, ответил ли сервер
+ * на предыдущие, а задержка отсчитывается от запланированного момента. Так медленные ответы не
+ * снижают нагрузку и не прячутся в результатах (coordinated omission).
+ * <p>
+ * Чтение и обновление идут по пользователям, созданным до замера; удаляются только пользователи,
+ * созданные генератором, поэтому удаление не приводит к ошибкам чтения.
+ * Запуск: {@code java -cp target/benchmarks.jar com.edu.ulab.app.benchmark.load.LoadGenerator --rate=500}.
+ */
+public class LoadGenerator {
+    private static final String USER_PATH = "/app/api/v1/user";
+    private static final int SEED_PARALLELISM = 32;
+
+    private final LoadOptions options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] schedule;
+    private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+    /**
+     * Префикс rqid этого запуска: иначе повторный прогон против того же стенда получил бы
+     * сохранённые ответы идемпотентности вместо реальных вставок.
+     */
+    private final String runId = UUID.randomUUID().toString();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder skippedDeletes = new LongAdder();
+    private final SplittableRandom random = new SplittableRandom();
+    private long[] readIds;
+
+    LoadGenerator(LoadOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .build();
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            stats.put(operation, new EndpointStats());
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.schedule = weighted.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(AppApplication.class)
+                    .profiles("benchmark")
+                    .run("--spring.main.web-application-type=servlet", "--server.port=0");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            new LoadGenerator(options, baseUrl + USER_PATH).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void run() throws InterruptedException {
+        seed();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long warmupNanos = options.warmup().toNanos();
+        long totalNanos = warmupNanos + options.duration().toNanos();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+
+        System.out.printf("Load: %d req/s for %s after %s warmup against %s%n",
+                options.rate(), options.duration(), options.warmup(), baseUrl);
+        for (long i = 0; i * intervalNanos < totalNanos; i++) {
+            long intended = start + i * intervalNanos;
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            send(schedule[random.nextInt(schedule.length)], intended, intended >= measureFrom);
+        }
+        awaitInFlight();
+        report();
+    }
+
+    /**
+     * Создаёт пользователей для чтения и обновления и столько же для удаления.
+     */
+    private void seed() {
+        List<Long> ids = new ArrayList<>(options.users() * 2);
+        List<CompletableFuture<HttpResponse<String>>> batch = new ArrayList<>(SEED_PARALLELISM);
+        for (int i = 0; i < options.users() * 2; i++) {
+            batch.add(client.sendAsync(createRequest(), HttpResponse.BodyHandlers.ofString()));
+            if (batch.size() == SEED_PARALLELISM || i == options.users() * 2 - 1) {
+                for (CompletableFuture<HttpResponse<String>> future : batch) {
+                    HttpResponse<String> response = future.join();
+                    if (response.statusCode() >= 400) {
+                        throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+                    }
+                    ids.add(userId(response));
+                }
+                batch.clear();
+            }
+        }
+        readIds = ids.subList(0, options.users()).stream().mapToLong(Long::longValue).toArray();
+        deletableIds.addAll(ids.subList(options.users(), ids.size()));
+    }
+
+    private void send(Operation operation, long intended, boolean recorded) {
+        HttpRequest request = switch (operation) {
+            case CREATE -> createRequest();
+            case UPDATE -> {
+                UserBookRequest body = BenchmarkData.userBookRequest();
+                body.setBookRequests(List.of());
+                yield jsonRequest("/update/" + readId()).PUT(publisher(body)).build();
+            }
+            case GET_WITH_BOOKS -> get("/getWithBooks/" + readId());
+            case GET_USER_BOOKS -> get("/getUserBooks/" + readId());
+            case DELETE -> {
+                Long id = deletableIds.poll();
+                if (id == null) {
+                    yield null;
+                }
+                yield HttpRequest.newBuilder(uri("/delete/" + id)).timeout(options.timeout()).DELETE().build();
+            }
+        };
+        if (request == null) {
+            skippedDeletes.increment();
+            return;
+        }
+
+        EndpointStats endpointStats = stats.get(operation);
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - intended;
+                    try {
+                        boolean failed = failure != null || response.statusCode() >= 400;
+                        if (!failed && operation == Operation.CREATE) {
+                            deletableIds.add(userId(response));
+                        }
+                        if (recorded) {
+                            if (failed) {
+                                endpointStats.recordError(latency);
+                            } else {
+                                endpointStats.recordSuccess(latency);
+                            }
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + options.timeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private void report() {
+        System.out.printf("%-14s %10s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "error%", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, endpointStats) -> {
+            long count = endpointStats.count();
+            System.out.printf("%-14s %10d %8d %8.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    operation.getEndpoint(),
+                    count,
+                    endpointStats.errors(),
+                    count == 0 ? 0.0 : 100.0 * endpointStats.errors() / count,
+                    endpointStats.percentileMillis(50),
+                    endpointStats.percentileMillis(99),
+                    endpointStats.percentileMillis(99.9),
+                    endpointStats.maxMillis());
+        });
+        if (skippedDeletes.sum() > 0) {
+            System.out.printf("Skipped deletes (no user to delete): %d%n", skippedDeletes.sum());
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("Requests still in flight after timeout: %d%n", inFlight.get());
+        }
+    }
+
+    private HttpRequest createRequest() {
+        UserBookRequest body = BenchmarkData.userBookRequest();
+        return jsonRequest("/create")
+                .header("rqid", "load-" + runId + "-" + requestIds.incrementAndGet())
+                .POST(publisher(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(options.timeout()).GET().build();
+    }
+
+    private HttpRequest.Builder jsonRequest(String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(options.timeout())
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher publisher(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long readId() {
+        return readIds[random.nextInt(readIds.length)];
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private long userId(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body()).get("userId").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected create response: " + response.body(), e);
+        }
+    }
+}
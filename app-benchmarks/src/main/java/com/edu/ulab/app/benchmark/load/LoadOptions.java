@@ -0,0 +1,79 @@
+package com.edu.ulab.app.benchmark.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузки из аргументов вида {@code --name=value}:
+ * <ul>
+ *     <li>{@code rate} - запросов в секунду, по умолчанию 200;</li>
+ *     <li>{@code duration}, {@code warmup} - длительность замера и прогрева в формате ISO-8601, по умолчанию PT60S и PT10S;</li>
+ *     <li>{@code mix} - доли вызовов, по умолчанию {@code create:20,update:10,getWithBooks:40,getUserBooks:20,delete:10};</li>
+ *     <li>{@code users} - число пользователей, создаваемых до начала замера, по умолчанию 1000;</li>
+ *     <li>{@code base-url} - адрес уже запущенного приложения; если не задан, приложение поднимается в процессе на H2;</li>
+ *     <li>{@code timeout} - таймаут одного запроса, по умолчанию PT10S.</li>
+ * </ul>
+ */
+record LoadOptions(int rate,
+                   Duration duration,
+                   Duration warmup,
+                   Map<Operation, Integer> mix,
+                   int users,
+                   String baseUrl,
+                   Duration timeout) {
+
+    static LoadOptions parse(String[] args) {
+        int rate = 200;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Map<Operation, Integer> mix = parseMix("create:20,update:10,getWithBooks:40,getUserBooks:20,delete:10");
+        int users = 1000;
+        String baseUrl = null;
+        Duration timeout = Duration.ofSeconds(10);
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "rate" -> rate = Integer.parseInt(value);
+                case "duration" -> duration = Duration.parse(value);
+                case "warmup" -> warmup = Duration.parse(value);
+                case "mix" -> mix = parseMix(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "base-url" -> baseUrl = value;
+                case "timeout" -> timeout = Duration.parse(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        if (users <= 0) {
+            throw new IllegalArgumentException("Users must be positive: " + users);
+        }
+        return new LoadOptions(rate, duration, warmup, mix, users, baseUrl, timeout);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint:weight, got: " + part);
+            }
+            int share = Integer.parseInt(weight[1]);
+            if (share < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + part);
+            }
+            mix.merge(Operation.ofEndpoint(weight[0]), share, Integer::sum);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must contain a positive weight: " + value);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,31 @@
+package com.edu.ulab.app.benchmark.load;
+
+/**
+ * Вызовы {@code UserController}, из которых составляется нагрузка.
+ */
+enum Operation {
+    CREATE("create"),
+    UPDATE("update"),
+    GET_WITH_BOOKS("getWithBooks"),
+    GET_USER_BOOKS("getUserBooks"),
+    DELETE("delete");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    static Operation ofEndpoint(String endpoint) {
+        for (Operation operation : values()) {
+            if (operation.endpoint.equals(endpoint)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+    }
+}
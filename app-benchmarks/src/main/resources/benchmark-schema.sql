@@ -0,0 +1,25 @@
+-- Схема ulab_edu для H2: таблицы общие для JPA и JdbcTemplate.
+-- Идентификаторы JdbcTemplate берутся из identity и не пересекаются с hi/lo-последовательностью Hibernate.
+CREATE SEQUENCE IF NOT EXISTS sequence;
+
+CREATE TABLE IF NOT EXISTS person
+(
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1000000000) PRIMARY KEY,
+    full_name VARCHAR(255) NOT NULL,
+    title     VARCHAR(255) NOT NULL,
+    age       INTEGER      NOT NULL,
+    rating    INTEGER,
+    version   BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS book
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1000000000) PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    title      VARCHAR(255) NOT NULL,
+    author     VARCHAR(255) NOT NULL,
+    page_count INTEGER      NOT NULL,
+    version    BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_ulab_edu_book_user_id_id ON book (user_id, id);
@@ -0,0 +1,162 @@
+package com.edu.ulab.app.batching;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Микробатчинг чтений по ключу (в духе DataLoader).
+ * <p>
+ * Первый вызов открывает пакет и ждёт {@code window}, вызовы с другими ключами за это время
+ * добавляются в тот же пакет. Пакет уходит одним запросом по окончании окна или сразу по достижении
+ * {@code maxBatchSize} ключей; запрос выполняет тот поток, который закрыл пакет, остальные ждут
+ * свой результат. Ключа, которого нет в ответе загрузчика, нет и в хранилище: вызов получает {@code null}.
+ * <p>
+ * Вызов внутри транзакции в пакет не попадает и загружает свой ключ сразу: иначе запрос за чужие ключи
+ * выполнился бы в его транзакции и контексте персистентности, а он сам мог бы не увидеть своих
+ * незакоммиченных изменений, если пакет закроет другой поток.
+ */
+public class MicroBatcher<K, V> implements MeterBinder {
+    private final String name;
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+
+    private Batch<K, V> pending;
+    private volatile DistributionSummary batchSizes;
+
+    public MicroBatcher(String name, Function<Set<K>, Map<K, V>> batchLoader, Duration window, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        this.name = name;
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V load(K key) {
+        if (maxBatchSize == 1 || windowNanos <= 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            record(1);
+            return batchLoader.apply(Set.of(key)).get(key);
+        }
+        Batch<K, V> batch;
+        CompletableFuture<V> result;
+        boolean opened;
+        boolean filled;
+        synchronized (lock) {
+            opened = pending == null;
+            if (opened) {
+                pending = new Batch<>();
+            }
+            batch = pending;
+            result = batch.results.computeIfAbsent(key, ignored -> new CompletableFuture<>());
+            filled = batch.results.size() >= maxBatchSize;
+            if (filled) {
+                pending = null;
+            }
+        }
+        if (filled) {
+            batch.filled.countDown();
+            dispatch(batch);
+        } else if (opened) {
+            awaitWindow(batch);
+            synchronized (lock) {
+                if (pending == batch) {
+                    pending = null;
+                }
+            }
+            dispatch(batch);
+        }
+        return await(result);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("microbatch.size")
+                .description("Keys loaded by one batched query")
+                .tag("batcher", name)
+                .register(registry);
+    }
+
+    /**
+     * Пакет закрыт (окно истекло или набран размер), поэтому набор ключей больше не меняется.
+     * Отправляет тот, кто первым его забрал.
+     */
+    private void dispatch(Batch<K, V> batch) {
+        if (!batch.dispatched.compareAndSet(false, true)) {
+            return;
+        }
+        Map<K, CompletableFuture<V>> results;
+        synchronized (lock) {
+            results = batch.results;
+        }
+        record(results.size());
+        try {
+            Map<K, V> loaded = batchLoader.apply(Set.copyOf(results.keySet()));
+            results.forEach((key, result) -> result.complete(loaded.get(key)));
+        } catch (RuntimeException | Error e) {
+            results.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        try {
+            batch.filled.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private V await(CompletableFuture<V> result) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    // результат придёт в пределах одного запроса, бросать его нельзя: его ждут и другие
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void record(int size) {
+        DistributionSummary summary = batchSizes;
+        if (summary != null) {
+            summary.record(size);
+        }
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> results = new LinkedHashMap<>();
+        private final CountDownLatch filled = new CountDownLatch(1);
+        private final AtomicBoolean dispatched = new AtomicBoolean();
+    }
+}
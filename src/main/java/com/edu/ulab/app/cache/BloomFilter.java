@@ -0,0 +1,83 @@
+package com.edu.ulab.app.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для идентификаторов {@code long}.
+ * <p>
+ * Биты лежат в {@link AtomicLongArray}, поэтому добавление и проверка безопасны из разных потоков
+ * без блокировок. Число бит округляется вверх до степени двойки, позиции считаются двойным
+ * хешированием от одного 64-битного хеша. Ложноотрицательных ответов нет, удаление не поддерживается.
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashCount;
+
+    private BloomFilter(long bits, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact(bits >>> 6));
+        this.bitMask = bits - 1;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Фильтр на {@code expectedInsertions} элементов с долей ложноположительных ответов
+     * не больше {@code falsePositiveRate}.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long bits = Math.max(Long.SIZE, Long.highestOneBit((long) Math.ceil(optimalBits) - 1) << 1);
+        int hashCount = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashCount);
+    }
+
+    public void put(long value) {
+        long hash = mix(value);
+        long step = mix(hash) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash + i * step) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                long witness = words.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        long step = mix(hash) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash + i * step) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitMask + 1;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 32)) * 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+}
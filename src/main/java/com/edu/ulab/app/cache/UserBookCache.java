@@ -0,0 +1,114 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кеш пользователей и списков книг пользователя.
+ * <p>
+ * Кеши ограничены по размеру (Caffeine, вытеснение W-TinyLFU) и по времени жизни записи.
+ * Отсутствие пользователя тоже кешируется ({@link Optional#empty()}) с более коротким временем жизни.
+ * Записи только удаляются, новое значение всегда читается из БД: при изменении внутри транзакции
+ * запись удаляется сразу и ещё раз после завершения транзакции, чтобы чтение, успевшее между ними
+ * положить старое значение, не пережило коммит. Наружу отдаются копии DTO.
+ */
+public class UserBookCache implements MeterBinder {
+    private final Cache<Long, Optional<UserDto>> users;
+    private final Cache<Long, List<BookDto>> booksByUserId;
+
+    public UserBookCache(long maximumUsers, Duration userTtl, Duration missingUserTtl,
+                         long maximumBookLists, Duration booksTtl) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfter(new UserExpiry(userTtl.toNanos(), missingUserTtl.toNanos()))
+                .recordStats()
+                .build();
+        this.booksByUserId = Caffeine.newBuilder()
+                .maximumSize(maximumBookLists)
+                .expireAfterWrite(booksTtl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<UserDto> getUser(long id, Function<Long, Optional<UserDto>> loader) {
+        return users.get(id, loader).map(UserBookCache::copyOf);
+    }
+
+    /**
+     * {@code true}, если в кеше записано, что пользователя нет. Промах кеша даёт {@code false}.
+     */
+    public boolean isKnownMissing(long id) {
+        Optional<UserDto> user = users.getIfPresent(id);
+        return user != null && user.isEmpty();
+    }
+
+    public List<BookDto> getBooks(long userId, Function<Long, List<BookDto>> loader) {
+        return booksByUserId.get(userId, key -> List.copyOf(loader.apply(key))).stream()
+                .map(UserBookCache::copyOf)
+                .toList();
+    }
+
+    public void evictUser(long id) {
+        evict(users, id);
+    }
+
+    public void evictBooks(long userId) {
+        evict(booksByUserId, userId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+        CaffeineCacheMetrics.monitor(registry, booksByUserId, "booksByUserId");
+    }
+
+    private static <V> void evict(Cache<Long, V> cache, long key) {
+        cache.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(key);
+                }
+            });
+        }
+    }
+
+    private static UserDto copyOf(UserDto user) {
+        return new UserDto(user.getId(), user.getFullName(), user.getTitle(), user.getAge());
+    }
+
+    private static BookDto copyOf(BookDto book) {
+        return new BookDto(book.getId(), book.getUserId(), book.getTitle(), book.getAuthor(), book.getPageCount());
+    }
+
+    private record UserExpiry(long ttlNanos, long missingTtlNanos) implements Expiry<Long, Optional<UserDto>> {
+        @Override
+        public long expireAfterCreate(Long key, Optional<UserDto> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : missingTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<UserDto> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<UserDto> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
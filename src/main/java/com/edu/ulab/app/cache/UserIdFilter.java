@@ -0,0 +1,231 @@
+package com.edu.ulab.app.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Индекс существования пользователей на фильтре Блума.
+ * <p>
+ * Ответ {@code false} от {@link #mightContain(long)} означает, что пользователя точно нет, и БД можно
+ * не спрашивать. До первой сборки фильтр отвечает {@code true} на всё. Удалённые пользователи остаются
+ * в фильтре до следующей пересборки, их число видно в метрике {@code user.filter.stale}.
+ * <p>
+ * Фильтр знает о чужих пользователях только по последней пересборке: созданных другим экземпляром
+ * приложения после неё в нём нет. Поэтому отрицательный ответ даётся лишь для идентификаторов не больше
+ * наибольшего, прочитанного пересборкой; на идентификаторы выше фильтр отвечает {@code true}, и их
+ * проверяет БД. Строку другого экземпляра, которая закоммитилась уже после снимка пересборки с меньшим
+ * идентификатором, фильтр не увидит до следующей пересборки.
+ * <p>
+ * Пересборка идёт рядом с рабочим фильтром: идентификаторы, добавленные за время чтения из БД,
+ * запоминаются и переносятся в новый фильтр перед подменой. Кроме того, в новый фильтр переносятся
+ * идентификаторы, добавленные за {@code grace} до начала пересборки: их строки могли закоммититься уже после
+ * снимка, по которому читает пересборка.
+ */
+@Slf4j
+public class UserIdFilter implements MeterBinder {
+    private final double falsePositiveRate;
+    private final long minimumExpectedInsertions;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder uncovered = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final AtomicLong staleIds = new AtomicLong();
+    private final AtomicLong insertedIds = new AtomicLong();
+    private final Deque<Added> recentlyAdded = new ArrayDeque<>();
+    private final long graceNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile Generation generation;
+    private List<Long> addedDuringRebuild;
+
+    public UserIdFilter(long minimumExpectedInsertions, double falsePositiveRate, Duration grace) {
+        this(minimumExpectedInsertions, falsePositiveRate, grace, System::nanoTime);
+    }
+
+    UserIdFilter(long minimumExpectedInsertions, double falsePositiveRate, Duration grace, LongSupplier nanoClock) {
+        this.minimumExpectedInsertions = minimumExpectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.graceNanos = grace.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean mightContain(long id) {
+        Generation current = generation;
+        if (current != null && !current.covers(id)) {
+            uncovered.increment();
+            return true;
+        }
+        if (current == null || current.filter().mightContain(id)) {
+            positives.increment();
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * Вызывать после коммита строки пользователя: иначе пересборка может прочитать БД раньше коммита.
+     */
+    public void add(long id) {
+        remember(id);
+        swapLock.readLock().lock();
+        try {
+            Generation current = generation;
+            if (current != null) {
+                current.filter().put(id);
+                insertedIds.incrementAndGet();
+            }
+            List<Long> pending = addedDuringRebuild;
+            if (pending != null) {
+                synchronized (pending) {
+                    pending.add(id);
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void markDeleted(int count) {
+        staleIds.addAndGet(count);
+    }
+
+    /**
+     * Фильтр пропустил идентификатор, которого в БД не оказалось. Идентификаторы выше прочитанных
+     * пересборкой фильтр пропускает не проверяя, и ошибкой фильтра их отсутствие не считается.
+     */
+    public void recordFalsePositive(long id) {
+        Generation current = generation;
+        if (current != null && current.covers(id)) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Собирает новый фильтр по всем идентификаторам из {@code source} и подменяет им текущий.
+     */
+    public void rebuild(long expectedIds, Consumer<LongConsumer> source) {
+        long startedAt = nanoClock.getAsLong();
+        List<Long> pending = new ArrayList<>();
+        swapLock.writeLock().lock();
+        try {
+            addedDuringRebuild = pending;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        long expectedInsertions = Math.max(minimumExpectedInsertions, expectedIds + expectedIds / 2);
+        BloomFilter next = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        long[] loaded = new long[1];
+        long[] maxId = {Long.MIN_VALUE};
+        try {
+            source.accept(id -> {
+                next.put(id);
+                loaded[0]++;
+                maxId[0] = Math.max(maxId[0], id);
+            });
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            pending.forEach(next::put);
+            List<Long> recent = addedSince(startedAt - graceNanos);
+            recent.forEach(next::put);
+            generation = new Generation(next, maxId[0]);
+            addedDuringRebuild = null;
+            insertedIds.set(loaded[0] + pending.size() + recent.size());
+            staleIds.set(0);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("User id filter rebuilt: {} ids up to id {}, {} bits, {} hashes",
+                loaded[0] + pending.size(), maxId[0], next.bitSize(), next.hashCount());
+    }
+
+    private void remember(long id) {
+        long now = nanoClock.getAsLong();
+        synchronized (recentlyAdded) {
+            while (!recentlyAdded.isEmpty() && now - recentlyAdded.peekFirst().addedAt() > graceNanos) {
+                recentlyAdded.pollFirst();
+            }
+            if (graceNanos > 0) {
+                recentlyAdded.addLast(new Added(id, now));
+            }
+        }
+    }
+
+    private List<Long> addedSince(long since) {
+        synchronized (recentlyAdded) {
+            return recentlyAdded.stream()
+                    .filter(added -> added.addedAt() - since >= 0)
+                    .map(Added::id)
+                    .toList();
+        }
+    }
+
+    public boolean isReady() {
+        return generation != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.filter.checks", negatives, LongAdder::doubleValue)
+                .description("User id checks answered by the filter")
+                .tag("result", "negative")
+                .register(registry);
+        FunctionCounter.builder("user.filter.checks", positives, LongAdder::doubleValue)
+                .description("User id checks answered by the filter")
+                .tag("result", "positive")
+                .register(registry);
+        FunctionCounter.builder("user.filter.checks", uncovered, LongAdder::doubleValue)
+                .description("User id checks answered by the filter")
+                .tag("result", "above-rebuild")
+                .register(registry);
+        FunctionCounter.builder("user.filter.false.positives", falsePositives, LongAdder::doubleValue)
+                .description("Ids passed by the filter but missing in the database")
+                .register(registry);
+        Gauge.builder("user.filter.stale", staleIds, AtomicLong::get)
+                .description("Deleted ids still present in the filter")
+                .register(registry);
+        Gauge.builder("user.filter.ids", insertedIds, AtomicLong::get)
+                .description("Ids inserted into the filter")
+                .register(registry);
+    }
+
+    private record Added(long id, long addedAt) {
+    }
+
+    /**
+     * Фильтр вместе с наибольшим идентификатором, прочитанным при его сборке: подменяются они одной записью,
+     * чтобы читатель не увидел новый фильтр со старой границей или наоборот.
+     */
+    private record Generation(BloomFilter filter, long maxId) {
+        boolean covers(long id) {
+            return id <= maxId;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Собирает {@link UserIdFilter} при старте и пересобирает его по расписанию, чтобы убрать удалённых
+ * пользователей и подогнать размер фильтра под число пользователей.
+ */
+@Slf4j
+public class UserIdFilterRefresher {
+    private final UserIdFilter userIdFilter;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public UserIdFilterRefresher(UserIdFilter userIdFilter,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.userIdFilter = userIdFilter;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${user-filter.rebuild-interval}")
+    public void rebuild() {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> userIdFilter.rebuild(userRepository.count(), sink -> {
+                try (Stream<Long> ids = userRepository.streamAllIds()) {
+                    ids.forEach(sink::accept);
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("User id filter rebuild failed, keeping the previous filter", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.edu.ulab.app.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых параллельных чтений (single-flight).
+ * <p>
+ * Первый вызов с ключом (операция, идентификатор) выполняет загрузку, вызовы с тем же ключом,
+ * пришедшие до её окончания, ждут и получают тот же результат или ту же ошибку. Запись удаляется
+ * сразу после загрузки, поэтому результат не переживает запрос и устаревшим быть не может.
+ * Кто не дождался загрузки за {@code maxWait}, выполняет её сам.
+ */
+public class SingleFlight implements MeterBinder {
+    private final ConcurrentMap<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, OperationMeters> meters = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    private volatile MeterRegistry registry;
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public <T> T execute(String operation, Object id, Supplier<T> loader) {
+        Key key = new Key(operation, id);
+        Flight flight = new Flight();
+        Flight inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight == null) {
+            return lead(key, flight, loader);
+        }
+        inFlight.followers.incrementAndGet();
+        return join(operation, inFlight, loader);
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    int followers(String operation, Object id) {
+        Flight flight = flights.get(new Key(operation, id));
+        return flight == null ? 0 : flight.followers.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("singleflight.in.flight", flights, ConcurrentMap::size)
+                .description("Loads currently shared by concurrent callers")
+                .register(registry);
+    }
+
+    /**
+     * Ключ удаляется до завершения future: пришедшие после загрузки начинают новую,
+     * а уже присоединившиеся получают результат из future.
+     */
+    private <T> T lead(Key key, Flight flight, Supplier<T> loader) {
+        OperationMeters operationMeters = meters(key.operation());
+        increment(operationMeters == null ? null : operationMeters.leaders);
+        try {
+            T result = loader.get();
+            flights.remove(key, flight);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (operationMeters != null) {
+                operationMeters.followersPerLoad.record(flight.followers.get());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T join(String operation, Flight inFlight, Supplier<T> loader) {
+        OperationMeters operationMeters = meters(operation);
+        try {
+            T result = (T) inFlight.result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            increment(operationMeters == null ? null : operationMeters.joined);
+            return result;
+        } catch (ExecutionException e) {
+            increment(operationMeters == null ? null : operationMeters.joined);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            increment(operationMeters == null ? null : operationMeters.timedOut);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            increment(operationMeters == null ? null : operationMeters.timedOut);
+            return loader.get();
+        }
+    }
+
+    private OperationMeters meters(String operation) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return null;
+        }
+        return meters.computeIfAbsent(operation, name -> new OperationMeters(meterRegistry, name));
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record Key(String operation, Object id) {
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+    }
+
+    /**
+     * Доля объединённых чтений: {@code joined / (leader + joined)} по счётчику {@code singleflight.calls}.
+     */
+    private static final class OperationMeters {
+        private final Counter leaders;
+        private final Counter joined;
+        private final Counter timedOut;
+        private final DistributionSummary followersPerLoad;
+
+        OperationMeters(MeterRegistry registry, String operation) {
+            this.leaders = calls(registry, operation, "leader");
+            this.joined = calls(registry, operation, "joined");
+            this.timedOut = calls(registry, operation, "timeout");
+            this.followersPerLoad = DistributionSummary.builder("singleflight.followers")
+                    .description("Callers that joined a single load")
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+
+        private static Counter calls(MeterRegistry registry, String operation, String result) {
+            return Counter.builder("singleflight.calls")
+                    .tag("operation", operation)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.cache.UserIdFilter;
+import com.edu.ulab.app.cache.UserIdFilterRefresher;
+import com.edu.ulab.app.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({CachingProperties.class, UserIdFilterProperties.class})
+public class CacheConfig {
+
+    @Bean
+    public UserBookCache userBookCache(CachingProperties properties) {
+        CachingProperties.Users users = properties.getUsers();
+        CachingProperties.Books books = properties.getBooks();
+        return new UserBookCache(users.getMaximumSize(), users.getTtl(), users.getNegativeTtl(),
+                books.getMaximumSize(), books.getTtl());
+    }
+
+    @Bean
+    public UserIdFilter userIdFilter(UserIdFilterProperties properties) {
+        return new UserIdFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate(),
+                properties.getRebuildGrace());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user-filter", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public UserIdFilterRefresher userIdFilterRefresher(UserIdFilter userIdFilter,
+                                                       UserRepository userRepository,
+                                                       PlatformTransactionManager transactionManager) {
+        return new UserIdFilterRefresher(userIdFilter, userRepository, transactionManager);
+    }
+}
@@ -0,0 +1,26 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CachingProperties {
+    private Users users = new Users();
+    private Books books = new Books();
+
+    @Data
+    public static class Users {
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+        private Duration negativeTtl = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Books {
+        private long maximumSize = 50_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
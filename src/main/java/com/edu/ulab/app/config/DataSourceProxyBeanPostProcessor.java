@@ -0,0 +1,67 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Оборачивает источники данных в datasource-proxy и подключает к ним все бины
+ * {@link QueryExecutionListener}. Слушатели достаются при первом запросе, а не при создании
+ * источника данных, чтобы не тянуть их зависимости в раннюю инициализацию.
+ */
+public class DataSourceProxyBeanPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<QueryExecutionListener> listeners;
+
+    public DataSourceProxyBeanPostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder
+                .create(dataSource)
+                .name(beanName)
+                .listener(new LazyChainListener(listeners))
+                .build();
+    }
+
+    private static final class LazyChainListener implements QueryExecutionListener {
+        private final ObjectProvider<QueryExecutionListener> listeners;
+        private volatile ChainListener chain;
+
+        private LazyChainListener(ObjectProvider<QueryExecutionListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            chain().beforeQuery(execInfo, queryInfoList);
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            chain().afterQuery(execInfo, queryInfoList);
+        }
+
+        private ChainListener chain() {
+            ChainListener current = chain;
+            if (current == null) {
+                current = new ChainListener();
+                listeners.orderedStream().forEach(current::addListener);
+                chain = current;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+    /**
+     * Статический, чтобы постпроцессор создавался раньше остальных бинов конфигурации.
+     */
+    @Bean
+    public static DataSourceProxyBeanPostProcessor dataSourceProxyBeanPostProcessor(
+            ObjectProvider<QueryExecutionListener> listeners) {
+        return new DataSourceProxyBeanPostProcessor(listeners);
+    }
+}
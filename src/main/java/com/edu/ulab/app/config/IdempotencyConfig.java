@@ -0,0 +1,40 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.idempotency.IdempotencyStore;
+import com.edu.ulab.app.idempotency.JdbcIdempotencyRepository;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "idempotency", name = "persistent", havingValue = "true")
+    public JdbcIdempotencyRepository<UserBookResponse> userBookIdempotencyRepository(IdempotencyProperties properties,
+                                                                                    JdbcTemplate jdbcTemplate,
+                                                                                    ObjectMapper objectMapper) {
+        return new JdbcIdempotencyRepository<>(jdbcTemplate, objectMapper, UserBookResponse.class, properties.getTtl(),
+                properties.getClaimTimeout());
+    }
+
+    @Bean
+    public IdempotencyStore<UserBookResponse> userBookIdempotencyStore(
+            IdempotencyProperties properties,
+            ObjectProvider<JdbcIdempotencyRepository<UserBookResponse>> repository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        return new IdempotencyStore<>("userBook", properties.getMaximumSize(), properties.getTtl(),
+                properties.getWaitTimeout(), repository.getIfAvailable(), new TransactionTemplate(transactionManager),
+                objectMapper);
+    }
+}
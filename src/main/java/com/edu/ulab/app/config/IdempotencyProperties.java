@@ -0,0 +1,32 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    private long maximumSize = 100_000;
+    /**
+     * Сколько хранится результат: повтор с тем же {@code rqid} позже этого срока выполняется заново.
+     */
+    private Duration ttl = Duration.ofHours(1);
+    /**
+     * Сколько параллельный дубль ждёт первое выполнение, после этого отвечает 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(30);
+    /**
+     * Захватывать ключи и хранить результаты в таблице {@code ulab_edu.idempotency_key}:
+     * дубли распознаются на всех экземплярах и после рестарта. Результат записывается в транзакции
+     * создания, поэтому таблица должна быть в той же БД, что и пользователи.
+     */
+    private boolean persistent = false;
+    /**
+     * Через сколько захват без результата считается брошенным (экземпляр упал) и может быть перехвачен.
+     */
+    private Duration claimTimeout = Duration.ofMinutes(5);
+    private Duration purgeInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,42 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.jfr.ContinuousRecording;
+import com.edu.ulab.app.jfr.JfrEndpoint;
+import com.edu.ulab.app.jfr.JfrEventsAspect;
+import com.edu.ulab.app.jfr.JfrStatementListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+@ConditionalOnProperty(prefix = "jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfig {
+
+    @Bean
+    public JfrEventsAspect jfrEventsAspect() {
+        return new JfrEventsAspect();
+    }
+
+    @Bean
+    public JfrStatementListener jfrStatementListener() {
+        return new JfrStatementListener();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ContinuousRecording continuousRecording(JfrProperties properties) throws IOException, ParseException {
+        return new ContinuousRecording(properties.getSettings(), properties.getMaxAge(),
+                properties.getMaxSize().toBytes(), properties.getJdbcThreshold(),
+                Path.of(properties.getDumpDirectory()));
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(ContinuousRecording continuousRecording) {
+        return new JfrEndpoint(continuousRecording);
+    }
+}
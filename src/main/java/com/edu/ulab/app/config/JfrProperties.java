@@ -0,0 +1,24 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "jfr")
+public class JfrProperties {
+    private boolean enabled = true;
+    /**
+     * Встроенная конфигурация JFR: {@code default} (около 1% накладных расходов) или {@code profile}.
+     */
+    private String settings = "default";
+    private Duration maxAge = Duration.ofMinutes(30);
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+    /**
+     * SQL-запросы быстрее порога не записываются.
+     */
+    private Duration jdbcThreshold = Duration.ofMillis(1);
+    private String dumpDirectory = "data/jfr";
+}
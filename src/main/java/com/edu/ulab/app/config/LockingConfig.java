@@ -0,0 +1,20 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(LockingProperties.class)
+public class LockingConfig {
+
+    @Bean
+    public UpdateRetryTemplate updateRetryTemplate(LockingProperties properties,
+                                                   PlatformTransactionManager transactionManager) {
+        return new UpdateRetryTemplate(properties.getMode(), new TransactionTemplate(transactionManager),
+                properties.getMaxAttempts(), properties.getInitialBackoff(), properties.getMaxBackoff());
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.locking.LockMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "locking")
+public class LockingProperties {
+    private LockMode mode = LockMode.PESSIMISTIC;
+    /**
+     * Сколько раз выполняется изменение при конфликте версий, включая первую попытку.
+     */
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(5);
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,36 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.batching.MicroBatcher;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(MicroBatchProperties.class)
+public class MicroBatchConfig {
+
+    @Bean
+    public MicroBatcher<Long, UserDto> userByIdBatcher(MicroBatchProperties properties,
+                                                       @Qualifier("UserServiceImpl") UserService userService) {
+        return new MicroBatcher<>("userById", userService::getUsersByIds,
+                properties.getWindow(), maxBatchSize(properties));
+    }
+
+    @Bean
+    public MicroBatcher<Long, List<BookDto>> booksByUserIdBatcher(MicroBatchProperties properties,
+                                                                  @Qualifier("BookServiceImpl") BookService bookService) {
+        return new MicroBatcher<>("booksByUserId", bookService::getBooksByUserIds,
+                properties.getWindow(), maxBatchSize(properties));
+    }
+
+    private static int maxBatchSize(MicroBatchProperties properties) {
+        return properties.isEnabled() ? properties.getMaxBatchSize() : 1;
+    }
+}
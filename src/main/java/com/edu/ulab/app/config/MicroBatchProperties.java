@@ -0,0 +1,20 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "micro-batch")
+public class MicroBatchProperties {
+    /**
+     * Без батчинга каждый вызов сразу уходит отдельным запросом.
+     */
+    private boolean enabled = true;
+    /**
+     * Сколько первый вызов пакета ждёт остальные ключи.
+     */
+    private Duration window = Duration.ofNanos(200_000);
+    private int maxBatchSize = 64;
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.logging.PayloadLogger;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PayloadLoggingProperties.class)
+public class PayloadLoggingConfig {
+
+    @Bean
+    public PayloadLogger payloadLogger(PayloadLoggingProperties properties) {
+        return new PayloadLogger(properties.isEnabled(), properties.getDefaultRate(), properties.getRates());
+    }
+}
@@ -0,0 +1,21 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "payload-logging")
+public class PayloadLoggingProperties {
+    private boolean enabled = true;
+    /**
+     * Доля запросов, тело ответа которых попадает в лог, для точек без своей настройки.
+     */
+    private double defaultRate = 0.01;
+    /**
+     * Доля по точкам: ключ - имя точки из {@link com.edu.ulab.app.logging.PayloadLogger#log}, значение от 0 до 1.
+     */
+    private Map<String, Double> rates = new HashMap<>();
+}
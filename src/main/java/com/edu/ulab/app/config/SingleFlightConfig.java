@@ -0,0 +1,18 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.coalescing.SingleFlight;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SingleFlightProperties.class)
+@ConditionalOnProperty(prefix = "single-flight", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight userReadSingleFlight(SingleFlightProperties properties) {
+        return new SingleFlight(properties.getMaxWait());
+    }
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "single-flight")
+public class SingleFlightProperties {
+    private boolean enabled = true;
+    /**
+     * Сколько параллельное чтение ждёт общую загрузку, после этого читает само.
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+}
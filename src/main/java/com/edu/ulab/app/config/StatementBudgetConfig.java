@@ -0,0 +1,36 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.jdbc.StatementBudgetListener;
+import com.edu.ulab.app.web.interceptor.StatementBudgetInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+@ConditionalOnProperty(prefix = "statement-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementBudgetConfig implements WebMvcConfigurer {
+    private final StatementBudgetProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StatementBudgetConfig(StatementBudgetProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public StatementBudgetListener statementBudgetListener() {
+        return new StatementBudgetListener(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StatementBudgetInterceptor(properties, meterRegistry.getObject()))
+                .excludePathPatterns(properties.getExcludedPaths());
+    }
+}
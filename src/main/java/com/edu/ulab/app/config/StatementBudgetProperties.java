@@ -0,0 +1,37 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "statement-budget")
+public class StatementBudgetProperties {
+    private boolean enabled = true;
+    /**
+     * Сколько SQL-запросов допускается на один HTTP-запрос.
+     */
+    private int maxStatements = 50;
+    /**
+     * Сколько раз один и тот же запрос может повториться за HTTP-запрос, прежде чем это считается N+1.
+     */
+    private int maxRepeats = 10;
+    private Mode mode = Mode.LOG;
+    /**
+     * Пути без учёта context-path, которые не учитываются (массовые загрузки и выгрузки).
+     */
+    private List<String> excludedPaths = new ArrayList<>();
+
+    public enum Mode {
+        /**
+         * Превышение только журналируется.
+         */
+        LOG,
+        /**
+         * Запрос, превысивший лимит, прерывается до выполнения лишнего SQL.
+         */
+        REJECT
+    }
+}
@@ -0,0 +1,38 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.storage.InMemoryStorage;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.journal.JournaledStorage;
+import com.edu.ulab.app.storage.mapped.MappedStorage;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfig {
+
+    @Bean
+    public Storage storage(StorageProperties properties) throws IOException {
+        if (properties.getMode() == StorageProperties.Mode.MAPPED) {
+            if (properties.getWal().isEnabled()) {
+                throw new IllegalStateException("storage.wal.enabled is not supported with storage.mode=mapped: "
+                        + "mapped files are already the durable copy, disable the journal or use storage.mode=memory");
+            }
+            StorageProperties.Mapped mapped = properties.getMapped();
+            return MappedStorage.open(Path.of(mapped.getDirectory()), Math.toIntExact(mapped.getChunkSize().toBytes()));
+        }
+        InMemoryStorage storage = new InMemoryStorage();
+        StorageProperties.Wal wal = properties.getWal();
+        if (!wal.isEnabled()) {
+            return storage;
+        }
+        return JournaledStorage.open(storage,
+                Path.of(wal.getDirectory()),
+                wal.getSyncMode(),
+                wal.getCheckpointInterval());
+    }
+}
@@ -0,0 +1,35 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.storage.journal.SyncMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+    private Mode mode = Mode.MEMORY;
+    private Wal wal = new Wal();
+    private Mapped mapped = new Mapped();
+
+    public enum Mode {
+        MEMORY,
+        MAPPED
+    }
+
+    @Data
+    public static class Wal {
+        private boolean enabled = false;
+        private String directory = "data/storage";
+        private SyncMode syncMode = SyncMode.GROUP;
+        private Duration checkpointInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Mapped {
+        private String directory = "data/mapped";
+        private DataSize chunkSize = DataSize.ofMegabytes(64);
+    }
+}
@@ -0,0 +1,37 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.trace.TraceRingBuffer;
+import com.edu.ulab.app.trace.Tracer;
+import com.edu.ulab.app.trace.TracesEndpoint;
+import com.edu.ulab.app.trace.TracingAspect;
+import com.edu.ulab.app.trace.TracingQueryListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public Tracer tracer(TracingProperties properties) {
+        return new Tracer(new TraceRingBuffer(properties.getBufferSize()), properties.getMaxSpans());
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+
+    @Bean
+    public TracingQueryListener tracingQueryListener(Tracer tracer) {
+        return new TracingQueryListener(tracer);
+    }
+
+    @Bean
+    public TracesEndpoint tracesEndpoint(Tracer tracer) {
+        return new TracesEndpoint(tracer);
+    }
+}
@@ -0,0 +1,18 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+    private boolean enabled = true;
+    /**
+     * Сколько последних запросов хранит буфер, округляется вверх до степени двойки.
+     */
+    private int bufferSize = 1024;
+    /**
+     * Сколько участков сохраняется на запрос, остальные только подсчитываются.
+     */
+    private int maxSpans = 256;
+}
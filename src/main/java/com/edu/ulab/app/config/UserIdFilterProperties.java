@@ -0,0 +1,23 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user-filter")
+public class UserIdFilterProperties {
+    /**
+     * Пользователей, созданных другим экземпляром или в обход приложения, фильтр узнаёт только при
+     * пересборке; идентификаторы выше прочитанных пересборкой он не отсекает и отдаёт на проверку в БД.
+     */
+    private boolean enabled = true;
+    private long expectedInsertions = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private Duration rebuildInterval = Duration.ofHours(1);
+    /**
+     * Сколько помнить недавно созданных пользователей, чтобы перенести их в пересобранный фильтр.
+     */
+    private Duration rebuildGrace = Duration.ofMinutes(1);
+}
@@ -12,5 +12,5 @@ public class BookDto {
     private Long userId;
     private String title;
     private String author;
-    private long pageCount;
+    private Long pageCount;
 }
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Фильтр страницы книг пользователя. {@code author} и {@code titlePrefix} необязательны,
+ * диапазон страниц включает границы.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookFilter {
+    private String author;
+    private String titlePrefix;
+    private long minPages;
+    private long maxPages;
+}
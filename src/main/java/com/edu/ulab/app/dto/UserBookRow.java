@@ -0,0 +1,23 @@
+package com.edu.ulab.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка выгрузки: пользователь и одна его книга. Для пользователя без книг поля книги равны {@code null}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBookRow {
+    private Long userId;
+    private String fullName;
+    private String title;
+    private Integer age;
+    private Integer rating;
+    private Long bookId;
+    private String bookTitle;
+    private String bookAuthor;
+    private Long bookPageCount;
+}
@@ -29,5 +29,8 @@ public class Book {
     @Column(nullable = false)
     private long pageCount;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
 }
@@ -31,4 +31,8 @@ public class Person {
 
     @Column(nullable = false)
     private Integer rating;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,132 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BatchSizeExceededException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserBatchDeleteResponse;
+import com.edu.ulab.app.web.response.UserBatchGetResponse;
+import com.edu.ulab.app.web.response.UserWithBooksResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Чтение многих пользователей с книгами за один вызов.
+ * <p>
+ * Вместо запроса на каждый идентификатор выполняются два: все пользователи одним запросом, затем
+ * книги всех найденных пользователей одним запросом, группировка по пользователю - в памяти.
+ * Ненайденные идентификаторы не прерывают чтение остальных и возвращаются в {@code missingIds}.
+ * <p>
+ * Удаление идёт порциями по {@code batch-delete.chunk-size} идентификаторов: на порцию два запроса
+ * ({@code DELETE} книг по {@code user_id in (...)} и пользователей по {@code id in (...)}) в своей транзакции,
+ * чтобы большой список не держал блокировки на всех строках до конца и не упирался в размер списка параметров.
+ */
+@Slf4j
+@Component
+public class UserBatchFacade {
+    private final UserService userService;
+    private final BookService bookService;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final int maxIds;
+    private final TransactionOperations transactionOperations;
+    private final int deleteMaxIds;
+    private final int deleteChunkSize;
+
+    public UserBatchFacade(@Qualifier("UserServiceImplCached") UserService userService,
+                           @Qualifier("BookServiceImplCached") BookService bookService,
+                           UserMapper userMapper,
+                           BookMapper bookMapper,
+                           @Value("${batch-get.max-ids}") int maxIds,
+                           TransactionOperations transactionOperations,
+                           @Value("${batch-delete.max-ids}") int deleteMaxIds,
+                           @Value("${batch-delete.chunk-size}") int deleteChunkSize) {
+        if (maxIds <= 0) {
+            throw new IllegalArgumentException("Batch get max ids must be positive: " + maxIds);
+        }
+        if (deleteMaxIds <= 0) {
+            throw new IllegalArgumentException("Batch delete max ids must be positive: " + deleteMaxIds);
+        }
+        if (deleteChunkSize <= 0) {
+            throw new IllegalArgumentException("Batch delete chunk size must be positive: " + deleteChunkSize);
+        }
+        this.userService = userService;
+        this.bookService = bookService;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.maxIds = maxIds;
+        this.transactionOperations = transactionOperations;
+        this.deleteMaxIds = deleteMaxIds;
+        this.deleteChunkSize = deleteChunkSize;
+    }
+
+    public UserBatchGetResponse getUsersWithBooks(List<Long> userIds) {
+        List<Long> ids = distinctIds(userIds, maxIds);
+        Map<Long, UserDto> users = ids.isEmpty() ? Map.of() : userService.getUsersByIds(ids);
+        Map<Long, List<BookDto>> booksByUserId = users.isEmpty() ? Map.of() : bookService.getBooksByUserIds(users.keySet());
+
+        List<UserWithBooksResponse> found = new ArrayList<>(users.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            UserDto user = users.get(id);
+            if (user == null) {
+                missingIds.add(id);
+                continue;
+            }
+            UserWithBooksResponse response = userMapper.userDtoToUserWithBooksResponse(user);
+            response.setBooks(booksByUserId.getOrDefault(id, List.of()).stream()
+                    .map(bookMapper::bookDtoToBookResponse)
+                    .toList());
+            found.add(response);
+        }
+        log.info("Batch get of {} user ids: {} found, {} missing", ids.size(), found.size(), missingIds.size());
+        return UserBatchGetResponse.builder()
+                .users(found)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    public UserBatchDeleteResponse deleteUsersWithBooks(List<Long> userIds) {
+        List<Long> ids = distinctIds(userIds, deleteMaxIds);
+        int deletedUsers = 0;
+        int deletedBooks = 0;
+        for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + deleteChunkSize, ids.size()));
+            int[] deleted = transactionOperations.execute(status -> new int[]{
+                    bookService.deleteBooksByUserIds(chunk),
+                    userService.deleteUsersByIds(chunk)});
+            deletedBooks += deleted[0];
+            deletedUsers += deleted[1];
+        }
+        log.info("Batch delete of {} user ids: {} users and {} books deleted", ids.size(), deletedUsers, deletedBooks);
+        return UserBatchDeleteResponse.builder()
+                .deletedUsers(deletedUsers)
+                .deletedBooks(deletedBooks)
+                .build();
+    }
+
+    private static List<Long> distinctIds(List<Long> userIds, int limit) {
+        List<Long> ids = Stream.ofNullable(userIds)
+                .flatMap(Collection::stream)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.size() > limit) {
+            throw new BatchSizeExceededException("Requested " + ids.size() + " user ids, at most " + limit + " allowed");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,276 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.handler.ExceptionHandlerUtils;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBulkLineResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая загрузка пользователей с книгами в формате NDJSON: одна строка - один {@link UserBookRequest}.
+ * <p>
+ * Тело читается построчно и копится пачками по {@code bulk.chunk-size} строк. Каждая пачка
+ * сохраняется в своей транзакции пакетными insert'ами, после фиксации результат по каждой строке
+ * сразу уходит клиенту. В памяти держится только одна пачка, поэтому расход памяти не зависит от
+ * размера загрузки. Строка длиннее {@code bulk.max-line-length} символов не буферизуется: её остаток
+ * пропускается, а клиент получает ошибку по этой строке. Если пачка не сохранилась целиком, её строки повторяются по одной, чтобы
+ * ошибка досталась только виновной строке.
+ */
+@Slf4j
+@Component
+public class UserBulkFacade {
+    private final UserService userService;
+    private final BookService bookService;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final int chunkSize;
+    private final int maxLineLength;
+
+    public UserBulkFacade(@Qualifier("UserServiceImplCached") UserService userService,
+                          @Qualifier("BookServiceImplCached") BookService bookService,
+                          UserMapper userMapper,
+                          BookMapper bookMapper,
+                          TransactionTemplate transactionTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${bulk.chunk-size}") int chunkSize,
+                          @Value("${bulk.max-line-length}") int maxLineLength) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Bulk chunk size must be positive: " + chunkSize);
+        }
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("Bulk max line length must be positive: " + maxLineLength);
+        }
+        this.userService = userService;
+        this.bookService = bookService;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(UserBookRequest.class);
+        this.responseWriter = objectMapper.writerFor(UserBulkLineResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    public void importUsers(InputStream input, OutputStream output) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxLineLength);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            List<Line> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (reader.truncated()) {
+                    chunk.add(new Line(lineNumber, null, "Line is longer than " + maxLineLength + " characters"));
+                } else if (text.isBlank()) {
+                    continue;
+                } else {
+                    chunk.add(parse(lineNumber, text));
+                }
+                if (chunk.size() == chunkSize) {
+                    write(generator, importChunk(chunk));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(generator, importChunk(chunk));
+            }
+            log.info("Bulk import finished, read {} lines", lineNumber);
+        }
+    }
+
+    private Line parse(long number, String text) {
+        try {
+            UserBookRequest request = requestReader.readValue(text);
+            if (request == null || request.getUserRequest() == null) {
+                return new Line(number, null, "userRequest is required");
+            }
+            return new Line(number, request, null);
+        } catch (JsonProcessingException e) {
+            return new Line(number, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<UserBulkLineResponse> importChunk(List<Line> chunk) {
+        List<Line> valid = chunk.stream()
+                .filter(line -> line.request() != null)
+                .toList();
+        List<UserBulkLineResponse> saved;
+        try {
+            saved = valid.isEmpty() ? List.of() : transactionTemplate.execute(status -> save(valid));
+        } catch (RuntimeException e) {
+            log.warn("Bulk chunk of {} lines failed, retrying line by line: {}",
+                    valid.size(), ExceptionHandlerUtils.buildErrorMessage(e));
+            saved = valid.stream()
+                    .map(this::saveLine)
+                    .toList();
+        }
+
+        List<UserBulkLineResponse> responses = new ArrayList<>(chunk.size());
+        int next = 0;
+        for (Line line : chunk) {
+            responses.add(line.request() != null
+                    ? saved.get(next++)
+                    : error(line.number(), line.errorMessage()));
+        }
+        log.info("Bulk chunk imported: {} of {} lines", valid.size(), chunk.size());
+        return responses;
+    }
+
+    private UserBulkLineResponse saveLine(Line line) {
+        try {
+            return transactionTemplate.execute(status -> save(List.of(line))).get(0);
+        } catch (RuntimeException e) {
+            return error(line.number(), ExceptionHandlerUtils.buildErrorMessage(e));
+        }
+    }
+
+    private List<UserBulkLineResponse> save(List<Line> lines) {
+        List<UserDto> users = userService.createUsers(lines.stream()
+                .map(line -> userMapper.userRequestToUserDto(line.request().getUserRequest()))
+                .toList());
+
+        List<BookDto> books = new ArrayList<>();
+        int[] booksEnd = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            Long userId = users.get(i).getId();
+            Stream.ofNullable(lines.get(i).request().getBookRequests())
+                    .flatMap(Collection::stream)
+                    .filter(Objects::nonNull)
+                    .map(bookMapper::bookRequestToBookDto)
+                    .peek(bookDto -> bookDto.setUserId(userId))
+                    .forEach(books::add);
+            booksEnd[i] = books.size();
+        }
+        List<BookDto> createdBooks = books.isEmpty() ? List.of() : bookService.createBooks(books);
+
+        List<UserBulkLineResponse> responses = new ArrayList<>(lines.size());
+        int booksStart = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            responses.add(UserBulkLineResponse.builder()
+                    .line(lines.get(i).number())
+                    .userId(users.get(i).getId())
+                    .booksIdList(createdBooks.subList(booksStart, booksEnd[i]).stream()
+                            .map(BookDto::getId)
+                            .toList())
+                    .build());
+            booksStart = booksEnd[i];
+        }
+        return responses;
+    }
+
+    private void write(JsonGenerator generator, List<UserBulkLineResponse> responses) throws IOException {
+        for (UserBulkLineResponse response : responses) {
+            responseWriter.writeValue(generator, response);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private static UserBulkLineResponse error(long line, String errorMessage) {
+        return UserBulkLineResponse.builder()
+                .line(line)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    private record Line(long number, UserBookRequest request, String errorMessage) {
+    }
+
+    /**
+     * Построчное чтение с ограничением длины: у слишком длинной строки в памяти остаются только первые
+     * {@code maxLength} символов, остальное пропускается до перевода строки.
+     */
+    private static final class BoundedLineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        private BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Следующая строка без перевода строки или {@code null} в конце потока.
+         */
+        private String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read ? text() : null;
+                    }
+                }
+                read = true;
+                int end = position;
+                while (end < limit && buffer[end] != '\n') {
+                    end++;
+                }
+                int room = maxLength - line.length();
+                if (end - position > room) {
+                    truncated = true;
+                }
+                line.append(buffer, position, Math.min(end - position, Math.max(room, 0)));
+                if (end < limit) {
+                    position = end + 1;
+                    return text();
+                }
+                position = limit;
+            }
+        }
+
+        /**
+         * Была ли последняя прочитанная строка длиннее {@code maxLength}.
+         */
+        private boolean truncated() {
+            return truncated;
+        }
+
+        private String text() {
+            int length = line.length();
+            return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+        }
+    }
+}
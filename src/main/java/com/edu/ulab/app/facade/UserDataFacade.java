@@ -1,8 +1,11 @@
 package com.edu.ulab.app.facade;
 
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.coalescing.SingleFlight;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 
@@ -12,10 +15,12 @@ import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
 import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
 import com.edu.ulab.app.web.request.BookRequest;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
 import com.edu.ulab.app.web.response.BookResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import com.edu.ulab.app.web.response.UserResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
@@ -23,37 +28,45 @@ import javax.transaction.Transactional;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 @Slf4j
 @Component
 public class UserDataFacade {
     private final UserService userService;
+    private final UserService userPatchService;
     private final BookService bookService;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final UpdateRetryTemplate updateRetryTemplate;
+    private final UserBookCache userBookCache;
+    private final SingleFlight singleFlight;
 
-    public UserDataFacade(@Qualifier("UserServiceImpl") UserService userService,
-                          @Qualifier("BookServiceImpl") BookService bookService,
+    public UserDataFacade(@Qualifier("UserServiceImplCached") UserService userService,
+                          @Qualifier("UserServiceImplTemplate") UserService userPatchService,
+                          @Qualifier("BookServiceImplCached") BookService bookService,
                           UserMapper userMapper,
-                          BookMapper bookMapper) {
+                          BookMapper bookMapper,
+                          UpdateRetryTemplate updateRetryTemplate,
+                          UserBookCache userBookCache,
+                          ObjectProvider<SingleFlight> singleFlight) {
         this.userService = userService;
+        this.userPatchService = userPatchService;
         this.bookService = bookService;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
+        this.updateRetryTemplate = updateRetryTemplate;
+        this.userBookCache = userBookCache;
+        this.singleFlight = singleFlight.getIfAvailable();
     }
 
     @Transactional
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
-        log.info("Got user book create request: {}", userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
-
         UserDto createdUser = userService.createUser(userDto);
-        log.info("Created user: {}", createdUser);
-
         List<Long> bookIdList = createBooks(createdUser.getId(), userBookRequest.getBookRequests());
-        log.info("Collected book ids: {}", bookIdList);
+        log.info("Created user id:{} with {} books", createdUser.getId(), bookIdList.size());
 
         return UserBookResponse.builder()
                 .userId(createdUser.getId())
@@ -61,20 +74,20 @@ public class UserDataFacade {
                 .build();
     }
 
-    @Transactional
+    /**
+     * Транзакцию открывает {@link UpdateRetryTemplate}: при оптимистической блокировке конфликт версий
+     * откатывает изменение пользователя вместе с книгами, и оно повторяется целиком. Отсутствие пользователя
+     * проверяет сам {@code updateUser}: предварительная загрузка положила бы в контекст персистентности копию,
+     * которую затем вернул бы блокирующий запрос вместо свежей строки.
+     */
     public UserBookResponse updateUserWithBooks(Long userId, UserBookRequest userBookRequest) {
-        if (!userService.existsById(userId)) {
-            throw new NotFoundException("User with id: " + userId + " was not found");
-        }
-
-        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        userDto.setId(userId);
-        log.info("Update: {}", userDto);
-        UserDto updatedUser = userService.updateUser(userDto);
-        log.info("Updated user: {}", updatedUser);
-
-        List<Long> booksIds = createBooks(userId, userBookRequest.getBookRequests());
-        log.info("Created books ids: {}", booksIds);
+        List<Long> booksIds = updateRetryTemplate.execute(() -> {
+            UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+            userDto.setId(userId);
+            userService.updateUser(userDto);
+            return createBooks(userId, userBookRequest.getBookRequests());
+        });
+        log.info("Updated user id:{}, added {} books", userId, booksIds.size());
 
         return UserBookResponse.builder()
                 .userId(userId)
@@ -82,34 +95,50 @@ public class UserDataFacade {
                 .build();
     }
 
-    @Transactional
+    /**
+     * Частичное изменение пользователя: поля, которых нет в запросе, остаются прежними.
+     * {@link UserServiceImplTemplate} делает это одним {@code UPDATE} и возвращает итоговую строку,
+     * поэтому кеш пользователя достаточно сбросить.
+     */
+    public UserResponse patchUser(Long userId, UserRequest userRequest) {
+        UserDto patch = userMapper.userRequestToUserDto(userRequest);
+        patch.setId(userId);
+        UserDto patchedUser = userPatchService.updateUser(patch);
+        userBookCache.evictUser(userId);
+        log.info("Patched user id:{}", userId);
+        return userMapper.userDtoToUserResponse(patchedUser);
+    }
+
+    /**
+     * Параллельные чтения одного пользователя объединяются в одну загрузку, поэтому транзакции
+     * на уровне фасада нет: ожидающие не должны держать соединения из пула.
+     */
     public UserBookResponse getUserWithBooks(Long userId) {
-        log.info("Got request for retrieving user id:{} and his books", userId);
-        if (!userService.existsById(userId)) {
-            throw new NotFoundException("User with id: " + userId + " was not found");
-        }
-        List<Long> bookIds = bookService.getBooksIdsByUserId(userId);
-        log.info("Retrieved books ids: {} for user id:{}", bookIds, userId);
-        return UserBookResponse.builder()
-                .userId(userId)
-                .booksIdList(bookIds)
-                .build();
+        return coalesce("getWithBooks", userId, () -> {
+            List<Long> bookIds = userService.findBooksIdsByUserId(userId)
+                    .orElseThrow(() -> new NotFoundException("User with id: " + userId + " was not found"));
+            log.debug("Retrieved {} books ids for user id:{}", bookIds.size(), userId);
+            return UserBookResponse.builder()
+                    .userId(userId)
+                    .booksIdList(bookIds)
+                    .build();
+        });
     }
 
     public UserResponse getUser(Long userId) {
         UserDto userDto = userService.getUserById(userId);
-        log.info("Retrieved user: {}", userDto);
         return userMapper.userDtoToUserResponse(userDto);
     }
 
     public List<BookResponse> getUserBooks(Long userId) {
-        List<BookDto> userBooks = bookService.getBooksByUserId(userId);
-        log.info("Retrieved books with userId:{} :{}", userId, userBooks);
-        return Stream.ofNullable(userBooks)
-                .flatMap(Collection::stream)
-                .filter(Objects::nonNull)
-                .map(bookMapper::bookDtoToBookResponse)
-                .toList();
+        return coalesce("getUserBooks", userId, () -> {
+            List<BookDto> userBooks = bookService.getBooksByUserId(userId);
+            return Stream.ofNullable(userBooks)
+                    .flatMap(Collection::stream)
+                    .filter(Objects::nonNull)
+                    .map(bookMapper::bookDtoToBookResponse)
+                    .toList();
+        });
     }
 
     @Transactional
@@ -119,15 +148,21 @@ public class UserDataFacade {
         log.info("Deleted user with id:{} and his books", userId);
     }
 
+    private <T> T coalesce(String operation, Long userId, Supplier<T> loader) {
+        return singleFlight == null ? loader.get() : singleFlight.execute(operation, userId, loader);
+    }
+
     private List<Long> createBooks(Long userId, List<BookRequest> bookRequests) {
-        return Stream.ofNullable(bookRequests)
+        List<BookDto> books = Stream.ofNullable(bookRequests)
                 .flatMap(Collection::stream)
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestToBookDto)
                 .peek(bookDto -> bookDto.setUserId(userId))
-                .peek(bookDto -> log.info("Mapped book: {}", bookDto))
-                .map(bookService::createBook)
-                .peek(bookDto -> log.info("Created book: {}", bookDto))
+                .toList();
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        return bookService.createBooks(books).stream()
                 .map(BookDto::getId)
                 .toList();
     }
@@ -0,0 +1,112 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.UserBookRow;
+import com.edu.ulab.app.repository.UserExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка всех пользователей с книгами в формате NDJSON: одна строка - один пользователь.
+ * <p>
+ * Строки запроса упорядочены по пользователю, поэтому объект пользователя открывается на его первой
+ * строке и закрывается, как только пришёл следующий пользователь. Ни результат запроса, ни список
+ * книг одного пользователя целиком в памяти не собираются.
+ */
+@Slf4j
+@Component
+public class UserExportFacade {
+    private final UserExportRepository userExportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public UserExportFacade(UserExportRepository userExportRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper) {
+        this.userExportRepository = userExportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportUsers(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            Long exported = readOnlyTransaction.execute(status -> {
+                try (Stream<UserBookRow> rows = userExportRepository.streamUsersWithBooks()) {
+                    return writeUsers(rows.iterator(), generator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} users", exported);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeUsers(Iterator<UserBookRow> rows, JsonGenerator generator) throws IOException {
+        long users = 0;
+        Long currentUserId = null;
+        while (rows.hasNext()) {
+            UserBookRow row = rows.next();
+            if (!row.getUserId().equals(currentUserId)) {
+                if (currentUserId != null) {
+                    endUser(generator);
+                }
+                startUser(generator, row);
+                currentUserId = row.getUserId();
+                users++;
+            }
+            if (row.getBookId() != null) {
+                writeBook(generator, row);
+            }
+        }
+        if (currentUserId != null) {
+            endUser(generator);
+        }
+        return users;
+    }
+
+    private static void startUser(JsonGenerator generator, UserBookRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getUserId());
+        generator.writeStringField("fullName", row.getFullName());
+        generator.writeStringField("title", row.getTitle());
+        writeNumberField(generator, "age", row.getAge());
+        writeNumberField(generator, "rating", row.getRating());
+        generator.writeArrayFieldStart("books");
+    }
+
+    private static void writeBook(JsonGenerator generator, UserBookRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getBookId());
+        generator.writeStringField("title", row.getBookTitle());
+        generator.writeStringField("author", row.getBookAuthor());
+        generator.writeNumberField("pageCount", row.getBookPageCount());
+        generator.writeEndObject();
+    }
+
+    private static void endUser(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.BookPageRequest;
+import com.edu.ulab.app.web.request.UserPageRequest;
+import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.PageResponse;
+import com.edu.ulab.app.web.response.UserResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Постраничные списки пользователей и книг пользователя.
+ * <p>
+ * Страницы строятся по ключу (keyset), а не по смещению: клиент передаёт в {@code after} последний id
+ * предыдущей страницы, и запрос продолжает чтение индекса с этого места. Время ответа поэтому не растёт
+ * с номером страницы. Читается на одну строку больше, чем {@code limit}, - по ней понятно, есть ли
+ * следующая страница, без отдельного подсчёта.
+ * <p>
+ * Страницы читаются через сервисы, как и остальные операции фасадов; существование пользователя
+ * при пустой странице книг проверяется через кеш и фильтр идентификаторов {@code UserServiceImplCached}.
+ */
+@Component
+public class UserListingFacade {
+    private final UserService userService;
+    private final BookService bookService;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public UserListingFacade(@Qualifier("UserServiceImplCached") UserService userService,
+                             @Qualifier("BookServiceImplCached") BookService bookService,
+                             UserMapper userMapper,
+                             BookMapper bookMapper,
+                             @Value("${listing.default-limit}") int defaultLimit,
+                             @Value("${listing.max-limit}") int maxLimit) {
+        if (defaultLimit <= 0 || maxLimit < defaultLimit) {
+            throw new IllegalArgumentException("Listing limits must satisfy 0 < default-limit <= max-limit: "
+                    + defaultLimit + ", " + maxLimit);
+        }
+        this.userService = userService;
+        this.bookService = bookService;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public PageResponse<UserResponse> listUsers(UserPageRequest request) {
+        int limit = limit(request.getLimit());
+        long after = after(request.getAfter());
+        List<UserDto> users = userService.getUsersPage(request.getRating(), after, limit + 1);
+        return page(users, limit, UserDto::getId, userMapper::userDtoToUserResponse);
+    }
+
+    /**
+     * Пустая страница может означать и отсутствие пользователя: только в этом случае
+     * его существование проверяется отдельным запросом.
+     */
+    public PageResponse<BookResponse> listUserBooks(Long userId, BookPageRequest request) {
+        int limit = limit(request.getLimit());
+        long after = after(request.getAfter());
+        BookFilter filter = new BookFilter(request.getAuthor(), request.getTitlePrefix(),
+                Objects.requireNonNullElse(request.getMinPages(), 0L),
+                Objects.requireNonNullElse(request.getMaxPages(), Long.MAX_VALUE));
+        List<BookDto> books = bookService.getBooksPage(userId, filter, after, limit + 1);
+        if (books.isEmpty() && !userService.existsById(userId)) {
+            throw new NotFoundException("User with id: " + userId + " was not found");
+        }
+        return page(books, limit, BookDto::getId, bookMapper::bookDtoToBookResponse);
+    }
+
+    private int limit(Integer requested) {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        return Math.max(1, Math.min(requested, maxLimit));
+    }
+
+    private static long after(Long requested) {
+        return requested == null ? 0L : requested;
+    }
+
+    private static <E, R> PageResponse<R> page(List<E> rows, int limit, ToLongFunction<E> id, Function<E, R> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> items = hasMore ? rows.subList(0, limit) : rows;
+        return PageResponse.<R>builder()
+                .items(items.stream().map(mapper).toList())
+                .nextCursor(hasMore ? id.applyAsLong(items.get(items.size() - 1)) : null)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.edu.ulab.app.idempotency;
+
+/**
+ * Долговременное хранилище ключей для {@link IdempotencyStore}: переживает рестарт и
+ * общее для всех экземпляров приложения.
+ * <p>
+ * Ключ сначала захватывается, и только захвативший выполняет запрос: так дубли, пришедшие
+ * одновременно на разные экземпляры, не выполняются дважды.
+ */
+public interface IdempotencyRepository<T> {
+
+    /**
+     * Захватывает ключ, если его ещё нет, он устарел или брошен выполнявшим его экземпляром.
+     * Иначе возвращает состояние того, кто ключ держит.
+     */
+    Claim<T> claim(String key, String fingerprint);
+
+    /**
+     * Сохраняет результат захваченного ключа.
+     */
+    void complete(String key, T result);
+
+    /**
+     * Освобождает захваченный ключ, для которого результата нет: следующий повтор выполнится заново.
+     */
+    void release(String key);
+
+    enum Status {
+        CLAIMED,
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /**
+     * Состояние ключа. {@code fingerprint} может быть {@code null} у записей, сохранённых без отпечатка запроса.
+     */
+    record Claim<T>(Status status, String fingerprint, T result) {
+
+        public static <T> Claim<T> claimed() {
+            return new Claim<>(Status.CLAIMED, null, null);
+        }
+
+        public static <T> Claim<T> inProgress(String fingerprint) {
+            return new Claim<>(Status.IN_PROGRESS, fingerprint, null);
+        }
+
+        public static <T> Claim<T> completed(String fingerprint, T result) {
+            return new Claim<>(Status.COMPLETED, fingerprint, result);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.exception.IdempotencyKeyReusedException;
+import com.edu.ulab.app.exception.RequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Идемпотентное выполнение по ключу запроса ({@code rqid}).
+ * <p>
+ * Для каждого ключа хранится {@link CompletableFuture} с результатом первого выполнения в кеше Caffeine,
+ * ограниченном по размеру и времени жизни. Повтор после завершения получает сохранённый результат,
+ * параллельный дубль ждёт выполняющийся запрос, а не запускает его второй раз. Ошибка не запоминается:
+ * ключ освобождается, и следующий повтор выполняется заново. Вместе с ключом запоминается SHA-256 тела
+ * запроса: повтор ключа с другим телом отклоняется {@link IdempotencyKeyReusedException}.
+ * <p>
+ * Если задан {@link IdempotencyRepository}, ключ перед выполнением захватывается в нём, поэтому дубли
+ * распознаются и на другом экземпляре, и после рестарта, в том числе пока первый запрос ещё выполняется:
+ * дубль опрашивает хранилище до {@code waitTimeout}, затем получает {@link RequestInProgressException}.
+ * Действие и запись его результата выполняются в одной транзакции {@code transaction}: иначе падение между
+ * коммитом действия и записью результата оставило бы захват без результата, и после {@code claimTimeout}
+ * повтор выполнил бы действие второй раз.
+ */
+@Slf4j
+public class IdempotencyStore<T> implements MeterBinder {
+    private static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final Cache<String, Entry<T>> results;
+    private final ConcurrentMap<String, Entry<T>> resultsByKey;
+    private final IdempotencyRepository<T> repository;
+    private final TransactionOperations transaction;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutNanos;
+    private final String name;
+
+    private volatile Counter executed;
+    private volatile Counter replayed;
+
+    public IdempotencyStore(String name, long maximumSize, Duration ttl, Duration waitTimeout,
+                            IdempotencyRepository<T> repository, TransactionOperations transaction,
+                            ObjectMapper objectMapper) {
+        this.name = name;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.resultsByKey = results.asMap();
+        this.repository = repository;
+        this.transaction = transaction;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * Выполняет {@code action} для ключа не больше одного раза за время жизни записи
+     * и возвращает его результат всем повторам. Без ключа действие просто выполняется.
+     */
+    public T execute(String key, Supplier<T> action) {
+        return execute(key, null, action);
+    }
+
+    /**
+     * То же, что {@link #execute(String, Supplier)}, но повтор ключа с другим {@code request} отклоняется.
+     */
+    public T execute(String key, Object request, Supplier<T> action) {
+        if (key == null || key.isEmpty()) {
+            return action.get();
+        }
+        String fingerprint = fingerprint(request);
+        Entry<T> started = new Entry<>(fingerprint, new CompletableFuture<>());
+        Entry<T> existing = resultsByKey.putIfAbsent(key, started);
+        if (existing != null) {
+            checkFingerprint(key, existing.fingerprint(), fingerprint);
+            increment(replayed);
+            return await(key, existing.result());
+        }
+        boolean claimed = false;
+        try {
+            if (repository != null) {
+                IdempotencyRepository.Claim<T> claim = claimOrWait(key, fingerprint);
+                if (claim.status() == IdempotencyRepository.Status.COMPLETED) {
+                    increment(replayed);
+                    started.result().complete(claim.result());
+                    return claim.result();
+                }
+                claimed = true;
+            }
+            increment(executed);
+            T result = repository == null ? action.get() : transaction.execute(status -> {
+                T completed = action.get();
+                repository.complete(key, completed);
+                return completed;
+            });
+            started.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            resultsByKey.remove(key, started);
+            started.result().completeExceptionally(e);
+            if (claimed) {
+                release(key);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, results, name + "Idempotency");
+        executed = Counter.builder("idempotency.requests")
+                .tag("store", name)
+                .tag("result", "executed")
+                .register(registry);
+        replayed = Counter.builder("idempotency.requests")
+                .tag("store", name)
+                .tag("result", "replayed")
+                .register(registry);
+    }
+
+    /**
+     * Захватывает ключ или дожидается результата того, кто его держит.
+     */
+    private IdempotencyRepository.Claim<T> claimOrWait(String key, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        long pause = MIN_POLL_NANOS;
+        while (true) {
+            IdempotencyRepository.Claim<T> claim = repository.claim(key, fingerprint);
+            if (claim.status() == IdempotencyRepository.Status.CLAIMED) {
+                return claim;
+            }
+            checkFingerprint(key, claim.fingerprint(), fingerprint);
+            if (claim.status() == IdempotencyRepository.Status.COMPLETED) {
+                return claim;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new RequestInProgressException("Request with id: " + key + " is still in progress");
+            }
+            LockSupport.parkNanos(Math.min(pause, remaining));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RequestInProgressException("Interrupted while waiting for request with id: " + key);
+            }
+            pause = Math.min(pause * 2, MAX_POLL_NANOS);
+        }
+    }
+
+    private void release(String key) {
+        try {
+            repository.release(key);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency key for request id: {} was not released: {}", key, e.getMessage());
+        }
+    }
+
+    private T await(String key, CompletableFuture<T> inFlight) {
+        try {
+            return inFlight.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("Request with id: " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for request with id: " + key);
+        }
+    }
+
+    /**
+     * Отпечаток {@code null} (запрос без тела или запись, сохранённая без отпечатка) ни с чем не сравнивается.
+     */
+    private static void checkFingerprint(String key, String stored, String actual) {
+        if (stored != null && actual != null && !Objects.equals(stored, actual)) {
+            throw new IdempotencyKeyReusedException("Request id: " + key + " was already used with a different body");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        if (request == null) {
+            return null;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request cannot be serialized for idempotency check", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record Entry<T>(String fingerprint, CompletableFuture<T> result) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.edu.ulab.app.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link IdempotencyRepository} в таблице {@code ulab_edu.idempotency_key}, результат хранится в JSON.
+ * <p>
+ * Захват - {@code INSERT ... ON CONFLICT DO UPDATE ... WHERE}: строка вставляется, если ключа нет,
+ * и перезаписывается, если она старше {@code ttl} или это захват без результата старше {@code claimTimeout}
+ * (экземпляр упал, не завершив запрос). Ровно один из одновременных захватов меняет строку.
+ * Записи старше {@code ttl} захватываются заново и периодически удаляются.
+ */
+@Slf4j
+public class JdbcIdempotencyRepository<T> implements IdempotencyRepository<T> {
+    private static final String CLAIM_QUERY =
+            "INSERT INTO ulab_edu.idempotency_key AS k (key, request_hash, response, created_at) VALUES (?, ?, NULL, ?) "
+                    + "ON CONFLICT (key) DO UPDATE SET request_hash = EXCLUDED.request_hash, response = NULL, "
+                    + "created_at = EXCLUDED.created_at "
+                    + "WHERE k.created_at <= ? OR (k.response IS NULL AND k.created_at <= ?)";
+    private static final String SELECT_QUERY =
+            "SELECT request_hash, response FROM ulab_edu.idempotency_key WHERE key = ?";
+    private static final String COMPLETE_QUERY =
+            "UPDATE ulab_edu.idempotency_key SET response = ? WHERE key = ? AND response IS NULL";
+    private static final String RELEASE_QUERY =
+            "DELETE FROM ulab_edu.idempotency_key WHERE key = ? AND response IS NULL";
+    private static final String DELETE_EXPIRED_QUERY =
+            "DELETE FROM ulab_edu.idempotency_key WHERE created_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public JdbcIdempotencyRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, Class<T> type,
+                                     Duration ttl, Duration claimTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    public Claim<T> claim(String key, String fingerprint) {
+        Instant now = Instant.now();
+        int claimed = jdbcTemplate.update(CLAIM_QUERY, key, fingerprint, Timestamp.from(now),
+                Timestamp.from(now.minus(ttl)), Timestamp.from(now.minus(claimTimeout)));
+        if (claimed > 0) {
+            return Claim.claimed();
+        }
+        return jdbcTemplate.query(SELECT_QUERY, (rs, rowNum) -> {
+                    String response = rs.getString("response");
+                    String storedFingerprint = rs.getString("request_hash");
+                    return response == null
+                            ? Claim.<T>inProgress(storedFingerprint)
+                            : Claim.completed(storedFingerprint, read(response));
+                }, key)
+                .stream()
+                .findFirst()
+                // строку только что освободили: для вызывающего это тот же незавершённый запрос
+                .orElseGet(() -> Claim.inProgress(fingerprint));
+    }
+
+    @Override
+    public void complete(String key, T result) {
+        jdbcTemplate.update(COMPLETE_QUERY, write(result), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE_QUERY, key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_QUERY, Timestamp.from(Instant.now().minus(ttl)));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private T read(String json) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not a valid " + type.getSimpleName(), e);
+        }
+    }
+
+    private String write(T result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Idempotent response cannot be serialized", e);
+        }
+    }
+}
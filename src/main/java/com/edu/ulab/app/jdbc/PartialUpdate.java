@@ -0,0 +1,111 @@
+package com.edu.ulab.app.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Частичное изменение строки по идентификатору одним запросом:
+ * {@code UPDATE t SET col = COALESCE(?, col), ... WHERE id = ?}. Параметр {@code null} оставляет столбец как есть.
+ * <p>
+ * Изменённая строка возвращается через generated keys: драйвер PostgreSQL дописывает к запросу
+ * {@code RETURNING} перечисленных столбцов, H2 отдаёт их сам. Предварительное чтение не нужно,
+ * поэтому нет ни второго обращения к базе, ни гонки между чтением и записью.
+ */
+public final class PartialUpdate<T> {
+    private final String sql;
+    private final int[] sqlTypes;
+    private final String[] returnedColumns;
+    private final RowMapper<T> rowMapper;
+
+    private PartialUpdate(String sql, int[] sqlTypes, String[] returnedColumns, RowMapper<T> rowMapper) {
+        this.sql = sql;
+        this.sqlTypes = sqlTypes;
+        this.returnedColumns = returnedColumns;
+        this.rowMapper = rowMapper;
+    }
+
+    public static Builder table(String table) {
+        return new Builder(table);
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    /**
+     * Изменяет строку и возвращает её новое состояние или {@link Optional#empty()}, если строки нет.
+     * Значения передаются в порядке объявления столбцов.
+     */
+    public Optional<T> execute(JdbcTemplate jdbcTemplate, long id, Object... values) {
+        if (values.length != sqlTypes.length) {
+            throw new IllegalArgumentException("Expected " + sqlTypes.length + " values, got " + values.length);
+        }
+        return jdbcTemplate.execute(
+                connection -> connection.prepareStatement(sql, returnedColumns),
+                (PreparedStatement ps) -> {
+                    for (int i = 0; i < values.length; i++) {
+                        ps.setObject(i + 1, values[i], sqlTypes[i]);
+                    }
+                    ps.setLong(values.length + 1, id);
+                    if (ps.executeUpdate() == 0) {
+                        return Optional.<T>empty();
+                    }
+                    try (ResultSet row = ps.getGeneratedKeys()) {
+                        return row.next() ? Optional.of(rowMapper.mapRow(row, 0)) : Optional.<T>empty();
+                    }
+                });
+    }
+
+    public static final class Builder {
+        private final String table;
+        private final List<String> columns = new ArrayList<>();
+        private final List<Integer> sqlTypes = new ArrayList<>();
+        private final List<String> increments = new ArrayList<>();
+        private String idColumn = "id";
+
+        private Builder(String table) {
+            this.table = table;
+        }
+
+        /**
+         * Столбец, который меняется, если передано значение; {@code sqlType} - из {@link java.sql.Types}.
+         */
+        public Builder column(String column, int sqlType) {
+            columns.add(column);
+            sqlTypes.add(sqlType);
+            return this;
+        }
+
+        /**
+         * Столбец, который увеличивается на единицу при каждом изменении, например версия строки.
+         */
+        public Builder increment(String column) {
+            increments.add(column);
+            return this;
+        }
+
+        public Builder idColumn(String idColumn) {
+            this.idColumn = idColumn;
+            return this;
+        }
+
+        public <T> PartialUpdate<T> returning(RowMapper<T> rowMapper, String... returnedColumns) {
+            if (columns.isEmpty()) {
+                throw new IllegalStateException("Partial update of " + table + " has no columns");
+            }
+            StringJoiner assignments = new StringJoiner(", ");
+            columns.forEach(column -> assignments.add(column + " = COALESCE(?, " + column + ")"));
+            increments.forEach(column -> assignments.add(column + " = " + column + " + 1"));
+            String sql = "UPDATE " + table + " SET " + assignments + " WHERE " + idColumn + " = ?";
+            return new PartialUpdate<>(sql, sqlTypes.stream().mapToInt(Integer::intValue).toArray(),
+                    returnedColumns.clone(), rowMapper);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.edu.ulab.app.jdbc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL-запросы, выполненные в рамках одного HTTP-запроса.
+ * <p>
+ * Счётчик привязан к потоку обработки запроса: его открывает interceptor, а пополняет
+ * {@link StatementBudgetListener} на том же потоке, поэтому синхронизация не нужна.
+ */
+public class RequestStatements {
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final String requestId;
+    private final Map<String, Integer> repeats = new HashMap<>();
+    private int count;
+    private String repeatedStatement;
+    private int maxRepeats;
+
+    private RequestStatements(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public static RequestStatements open(String requestId) {
+        RequestStatements statements = new RequestStatements(requestId);
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    public static RequestStatements close() {
+        RequestStatements statements = CURRENT.get();
+        CURRENT.remove();
+        return statements;
+    }
+
+    /**
+     * Учитывает запрос и возвращает, сколько раз запрос с таким текстом уже выполнялся.
+     * Параметры в подготовленных запросах не входят в текст, поэтому одинаковые обращения
+     * с разными значениями имеют одну форму.
+     */
+    int record(String sql) {
+        count++;
+        int times = repeats.merge(sql, 1, Integer::sum);
+        if (times > maxRepeats) {
+            maxRepeats = times;
+            repeatedStatement = sql;
+        }
+        return times;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Запрос, повторявшийся чаще всех.
+     */
+    public String getRepeatedStatement() {
+        return repeatedStatement;
+    }
+
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+}
@@ -0,0 +1,8 @@
+package com.edu.ulab.app.jdbc;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
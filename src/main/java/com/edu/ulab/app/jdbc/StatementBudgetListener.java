@@ -0,0 +1,55 @@
+package com.edu.ulab.app.jdbc;
+
+import com.edu.ulab.app.config.StatementBudgetProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Считает SQL-запросы текущего HTTP-запроса и ищет повторы одной формы (N+1).
+ * <p>
+ * В режиме {@link StatementBudgetProperties.Mode#REJECT} запрос сверх лимита не выполняется:
+ * исключение бросается до обращения к БД, и транзакция откатывается. Слушатель стоит первым
+ * в цепочке, чтобы отклонённый запрос не видели остальные.
+ */
+@Slf4j
+public class StatementBudgetListener implements QueryExecutionListener, Ordered {
+    private final StatementBudgetProperties properties;
+
+    public StatementBudgetListener(StatementBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            int times = statements.record(queryInfo.getQuery());
+            if (times == properties.getMaxRepeats() + 1) {
+                log.warn("Possible N+1 in request {}: statement repeated {} times: {}",
+                        statements.getRequestId(), times, queryInfo.getQuery());
+            }
+        }
+        if (properties.getMode() == StatementBudgetProperties.Mode.REJECT
+                && statements.getCount() > properties.getMaxStatements()) {
+            throw new StatementBudgetExceededException("Request " + statements.getRequestId()
+                    + " exceeded the budget of " + properties.getMaxStatements() + " SQL statements");
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.edu.ulab.app.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Непрерывная запись JFR с ограничением по возрасту и размеру. Хранит последние события
+ * на диске и по запросу сбрасывает их в файл, не останавливая запись.
+ */
+@Slf4j
+public class ContinuousRecording implements AutoCloseable {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Recording recording;
+    private final Path dumpDirectory;
+
+    public ContinuousRecording(String settings, Duration maxAge, long maxSizeBytes,
+                               Duration jdbcThreshold, Path dumpDirectory) throws IOException, ParseException {
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        this.dumpDirectory = dumpDirectory;
+        recording.setName("ulab-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable(UserFacadeOperationEvent.class);
+        recording.enable(ServiceCallEvent.class);
+        recording.enable(JdbcStatementEvent.class).withThreshold(jdbcThreshold);
+    }
+
+    public void start() {
+        recording.start();
+        log.info("JFR continuous recording started, max age {}, max size {} bytes",
+                recording.getMaxAge(), recording.getMaxSize());
+    }
+
+    /**
+     * Сбрасывает накопленные события в новый файл и возвращает его путь.
+     */
+    public Path dump() throws IOException {
+        Files.createDirectories(dumpDirectory);
+        Path file = dumpDirectory.resolve("ulab-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        recording.dump(file);
+        log.info("JFR recording dumped to {}", file);
+        return file;
+    }
+
+    public String getState() {
+        return recording.getState().name();
+    }
+
+    public Duration getMaxAge() {
+        return recording.getMaxAge();
+    }
+
+    public long getMaxSize() {
+        return recording.getMaxSize();
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
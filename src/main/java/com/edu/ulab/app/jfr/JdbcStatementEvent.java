@@ -0,0 +1,25 @@
+package com.edu.ulab.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.edu.ulab.JdbcStatement")
+@Label("JDBC Statement")
+@Description("Выполнение SQL через прокси источника данных")
+@Category({"ULab", "JDBC"})
+@StackTrace(false)
+public class JdbcStatementEvent extends Event {
+    @Label("Fingerprint")
+    @Description("Текст запроса без литералов и лишних пробелов")
+    String fingerprint;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Success")
+    boolean success;
+}
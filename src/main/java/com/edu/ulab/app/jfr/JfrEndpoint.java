@@ -0,0 +1,40 @@
+package com.edu.ulab.app.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/jfr} на порту управления - состояние непрерывной записи,
+ * {@code POST /actuator/jfr} - сброс записи в файл на сервере.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+    private final ContinuousRecording recording;
+
+    public JfrEndpoint(ContinuousRecording recording) {
+        this.recording = recording;
+    }
+
+    @ReadOperation
+    public RecordingStatus status() {
+        return new RecordingStatus(recording.getState(), recording.getMaxAge(), recording.getMaxSize());
+    }
+
+    @WriteOperation
+    public DumpResult dump() throws IOException {
+        Path file = recording.dump();
+        return new DumpResult(file.toAbsolutePath().toString(), Files.size(file));
+    }
+
+    public record RecordingStatus(String state, Duration maxAge, long maxSizeBytes) {
+    }
+
+    public record DumpResult(String file, long sizeBytes) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.edu.ulab.app.jfr;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.metrics.ImplementationNames;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * События JFR на вызовы фасада и сервисов. Пока запись не включена, событие не заполняется
+ * и не сохраняется; поля вычисляются только для событий, прошедших порог.
+ */
+@Aspect
+public class JfrEventsAspect {
+    private static final long UNKNOWN_USER = 0L;
+
+    @Around("execution(* com.edu.ulab.app.facade.UserDataFacade.*(..))")
+    public Object recordFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        UserFacadeOperationEvent event = new UserFacadeOperationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean success = false;
+        try {
+            result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.facade = ImplementationNames.of(joinPoint.getThis());
+                event.operation = joinPoint.getSignature().getName();
+                event.userId = userId(joinPoint.getArgs(), result);
+                event.bookCount = bookCount(joinPoint.getArgs(), result);
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.service()")
+    public Object recordService(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean success = false;
+        try {
+            result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.implementation = ImplementationNames.of(joinPoint.getThis());
+                event.method = joinPoint.getSignature().getName();
+                event.userId = userId(joinPoint.getArgs(), result);
+                event.bookCount = bookCount(joinPoint.getArgs(), result);
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Идентификатор пользователя: из ответа фасада или DTO, иначе первый аргумент типа {@link Long}.
+     */
+    private static long userId(Object[] args, Object result) {
+        if (result instanceof UserBookResponse response && response.getUserId() != null) {
+            return response.getUserId();
+        }
+        if (result instanceof UserDto user && user.getId() != null) {
+            return user.getId();
+        }
+        for (Object arg : args) {
+            if (arg instanceof Long id) {
+                return id;
+            }
+            if (arg instanceof UserDto user && user.getId() != null) {
+                return user.getId();
+            }
+            if (arg instanceof BookDto book && book.getUserId() != null) {
+                return book.getUserId();
+            }
+        }
+        return UNKNOWN_USER;
+    }
+
+    private static int bookCount(Object[] args, Object result) {
+        if (result instanceof UserBookResponse response && response.getBooksIdList() != null) {
+            return response.getBooksIdList().size();
+        }
+        if (result instanceof Optional<?> optional && optional.orElse(null) instanceof Collection<?> ids) {
+            return ids.size();
+        }
+        if (result instanceof Collection<?> books) {
+            return books.size();
+        }
+        for (Object arg : args) {
+            if (arg instanceof UserBookRequest request && request.getBookRequests() != null) {
+                return request.getBookRequests().size();
+            }
+            if (arg instanceof Collection<?> books) {
+                return books.size();
+            }
+        }
+        return 0;
+    }
+}
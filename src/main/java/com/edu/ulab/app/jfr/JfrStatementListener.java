@@ -0,0 +1,39 @@
+package com.edu.ulab.app.jfr;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Событие {@link JdbcStatementEvent} на каждое выполнение SQL. Событие переносится из
+ * {@code beforeQuery} в {@code afterQuery} через {@link ExecutionInfo}.
+ */
+public class JfrStatementListener implements QueryExecutionListener {
+    private static final String EVENT = JdbcStatementEvent.class.getName();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        JdbcStatementEvent event = new JdbcStatementEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            execInfo.addCustomValue(EVENT, event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        JdbcStatementEvent event = execInfo.getCustomValue(EVENT, JdbcStatementEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = queryInfoList.isEmpty() ? "" : SqlFingerprint.of(queryInfoList.get(0).getQuery());
+            event.batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 1;
+            event.success = execInfo.isSuccess();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.edu.ulab.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.edu.ulab.ServiceCall")
+@Label("Service Call")
+@Description("Вызов реализации UserService или BookService")
+@Category({"ULab", "Service"})
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+    @Label("Implementation")
+    String implementation;
+
+    @Label("Method")
+    String method;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Book Count")
+    int bookCount;
+
+    @Label("Success")
+    boolean success;
+}
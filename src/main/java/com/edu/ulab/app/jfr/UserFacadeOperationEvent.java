@@ -0,0 +1,30 @@
+package com.edu.ulab.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.edu.ulab.UserFacadeOperation")
+@Label("User Facade Operation")
+@Description("Вызов метода фасада пользователей")
+@Category({"ULab", "Facade"})
+@StackTrace(false)
+public class UserFacadeOperationEvent extends Event {
+    @Label("Facade")
+    String facade;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Book Count")
+    int bookCount;
+
+    @Label("Success")
+    boolean success;
+}
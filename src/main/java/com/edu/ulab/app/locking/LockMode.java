@@ -0,0 +1,16 @@
+package com.edu.ulab.app.locking;
+
+/**
+ * Способ защиты изменения пользователя или книги от параллельной записи.
+ */
+public enum LockMode {
+    /**
+     * Строка читается через {@code SELECT ... FOR UPDATE}, конкурирующие изменения ждут друг друга.
+     */
+    PESSIMISTIC,
+    /**
+     * Строка читается без блокировки, конфликт обнаруживается по столбцу {@code version}
+     * при записи, и изменение повторяется.
+     */
+    OPTIMISTIC
+}
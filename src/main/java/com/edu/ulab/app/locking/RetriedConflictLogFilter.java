@@ -0,0 +1,29 @@
+package com.edu.ulab.app.locking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.hibernate.StaleStateException;
+import org.slf4j.Marker;
+
+/**
+ * Убирает из лога ошибку {@code BatchingBatch} о конфликте версий внутри попытки {@link UpdateRetryTemplate}.
+ * <p>
+ * Hibernate пишет такой конфликт в ERROR, хотя исключение пробрасывается дальше и обрабатывается:
+ * шаблон повторяет изменение, а исчерпание попыток пишет сам. Остальные ошибки пакетов, как и конфликты
+ * вне оптимистического повтора, логируются как обычно.
+ */
+public class RetriedConflictLogFilter extends TurboFilter {
+    static final String BATCHING_BATCH_LOGGER = "org.hibernate.engine.jdbc.batch.internal.BatchingBatch";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (t instanceof StaleStateException
+                && BATCHING_BATCH_LOGGER.equals(logger.getName())
+                && UpdateRetryTemplate.inOptimisticAttempt()) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
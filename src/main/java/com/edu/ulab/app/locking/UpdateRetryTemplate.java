@@ -0,0 +1,90 @@
+package com.edu.ulab.app.locking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет изменение в транзакции и при {@link LockMode#OPTIMISTIC} повторяет его после конфликта версий.
+ * <p>
+ * После {@link OptimisticLockingFailureException} контекст персистентности непригоден, поэтому каждая
+ * попытка идёт в новой транзакции. Повторять может только самый внешний вызов: внутри уже открытой
+ * транзакции изменение выполняется один раз, а конфликт уходит наверх, к внешнему {@code execute}.
+ * Между попытками - экспоненциальная пауза со случайным разбросом, чтобы конкуренты не сталкивались снова.
+ */
+@Slf4j
+public class UpdateRetryTemplate {
+    private static final ThreadLocal<Boolean> OPTIMISTIC_ATTEMPT = new ThreadLocal<>();
+
+    private final LockMode lockMode;
+    private final TransactionOperations transactions;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public UpdateRetryTemplate(LockMode lockMode,
+                               TransactionOperations transactions,
+                               int maxAttempts,
+                               Duration initialBackoff,
+                               Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+        }
+        this.lockMode = lockMode;
+        this.transactions = transactions;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(maxBackoff.toNanos(), initialBackoffNanos);
+    }
+
+    public LockMode lockMode() {
+        return lockMode;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (lockMode == LockMode.PESSIMISTIC || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactions.execute(status -> action.get());
+        }
+        for (int attempt = 1; ; attempt++) {
+            OPTIMISTIC_ATTEMPT.set(Boolean.TRUE);
+            try {
+                return transactions.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Update gave up after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("Update conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                pause(attempt, e);
+            } finally {
+                OPTIMISTIC_ATTEMPT.remove();
+            }
+        }
+    }
+
+    /**
+     * Выполняется ли в текущем потоке попытка оптимистического изменения: её конфликт версий обработает шаблон.
+     */
+    static boolean inOptimisticAttempt() {
+        return OPTIMISTIC_ATTEMPT.get() != null;
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.edu.ulab.app.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Выборочный лог тел запросов и ответов.
+ * <p>
+ * Пишет в отдельный логгер {@value #LOGGER_NAME}, поэтому уровень настраивается независимо
+ * от остального приложения. Сначала проверяются уровень и выборка по точке, и только
+ * после этого SLF4J вызывает {@code toString} у тела: отброшенные вызовы ничего не выделяют.
+ */
+public class PayloadLogger {
+    public static final String LOGGER_NAME = "com.edu.ulab.app.payload";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final boolean enabled;
+    private final double defaultRate;
+    private final Map<String, Double> rates;
+
+    public PayloadLogger(boolean enabled, double defaultRate, Map<String, Double> rates) {
+        requireRate("default", defaultRate);
+        rates.forEach(PayloadLogger::requireRate);
+        this.enabled = enabled;
+        this.defaultRate = defaultRate;
+        this.rates = Map.copyOf(rates);
+    }
+
+    public void log(String endpoint, Object payload) {
+        if (isSampled(endpoint)) {
+            log.info("{}: {}", endpoint, payload);
+        }
+    }
+
+    public boolean isSampled(String endpoint) {
+        if (!enabled || !log.isInfoEnabled()) {
+            return false;
+        }
+        double rate = rates.getOrDefault(endpoint, defaultRate);
+        return rate >= 1.0 || rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static void requireRate(String endpoint, double rate) {
+        if (rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("Payload logging rate for " + endpoint + " must be in [0, 1]: " + rate);
+        }
+    }
+}
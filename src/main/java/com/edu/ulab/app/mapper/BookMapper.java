@@ -5,6 +5,7 @@ import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.web.request.BookRequest;
 import com.edu.ulab.app.web.response.BookResponse;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -15,12 +16,20 @@ public interface BookMapper {
 
     BookRequest bookDtoToBookRequest(BookDto bookDto);
 
+    @Mapping(target = "version", ignore = true)
     Book bookDtoToBook(BookDto bookDto);
 
     BookDto bookToBookDto(Book book);
 
+    @Mapping(target = "version", ignore = true)
     void updateBook(Book update, @MappingTarget Book book);
 
+    /**
+     * Переносит в книгу только заданные поля изменения: {@code null} оставляет значение книги.
+     */
+    @Mapping(target = "version", ignore = true)
+    void updateBookFromDto(BookDto update, @MappingTarget Book book);
+
     void updateBookDto(BookDto update, @MappingTarget BookDto bookDto);
 
     BookResponse bookDtoToBookResponse(BookDto bookDto);
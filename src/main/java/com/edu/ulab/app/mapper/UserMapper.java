@@ -4,7 +4,9 @@ import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.web.request.UserRequest;
 import com.edu.ulab.app.web.response.UserResponse;
+import com.edu.ulab.app.web.response.UserWithBooksResponse;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -14,12 +16,18 @@ public interface UserMapper {
 
     UserRequest userDtoToUserRequest(UserDto userDto);
 
+    @Mapping(target = "version", ignore = true)
     Person userDtoToPerson(UserDto userDto);
 
     UserDto personToUserDto(Person person);
+
+    @Mapping(target = "version", ignore = true)
     void updatePerson(Person update, @MappingTarget Person person);
 
     void updateUserDto(UserDto update, @MappingTarget UserDto userDto);
 
     UserResponse userDtoToUserResponse(UserDto userDto);
+
+    @Mapping(target = "books", ignore = true)
+    UserWithBooksResponse userDtoToUserWithBooksResponse(UserDto userDto);
 }
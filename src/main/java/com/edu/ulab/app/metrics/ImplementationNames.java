@@ -0,0 +1,28 @@
+package com.edu.ulab.app.metrics;
+
+import org.springframework.aop.framework.AopProxyUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Имя реализации за AOP-прокси: класс цели, а для репозиториев Spring Data - интерфейс репозитория
+ * (у них класс цели всегда {@code SimpleJpaRepository}).
+ */
+public final class ImplementationNames {
+    private static final Map<Class<?>, String> NAMES = new ConcurrentHashMap<>();
+
+    private ImplementationNames() {
+    }
+
+    public static String of(Object proxy) {
+        return NAMES.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> userInterface : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                if (userInterface.getName().startsWith("com.edu.ulab.app.repository.")) {
+                    return userInterface.getSimpleName();
+                }
+            }
+            return AopProxyUtils.ultimateTargetClass(proxy).getSimpleName();
+        });
+    }
+}
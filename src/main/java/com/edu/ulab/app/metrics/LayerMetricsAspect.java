@@ -0,0 +1,61 @@
+package com.edu.ulab.app.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Таймеры {@value #METRIC} на вызовы фасадов, сервисов и репозиториев.
+ * <p>
+ * Теги: {@code layer}, {@code class} - класс реализации (для репозиториев Spring Data - интерфейс
+ * репозитория), {@code method} и {@code exception}. Число вызовов и ошибок берётся из счётчика таймера.
+ */
+@Aspect
+@Component
+public class LayerMetricsAspect {
+    public static final String METRIC = "app.calls";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public LayerMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.facade()")
+    public Object timeFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("facade", joinPoint);
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.service()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service", joinPoint);
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.repository()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("repository", joinPoint);
+    }
+
+    private Object time(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("layer", layer)
+                    .tag("class", ImplementationNames.of(joinPoint.getThis()))
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
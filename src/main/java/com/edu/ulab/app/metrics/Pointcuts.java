@@ -0,0 +1,30 @@
+package com.edu.ulab.app.metrics;
+
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Общие точки среза по слоям приложения.
+ */
+public class Pointcuts {
+
+    @Pointcut("within(com.edu.ulab.app.web..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public void controller() {
+    }
+
+    @Pointcut("within(com.edu.ulab.app.facade..*)")
+    public void facade() {
+    }
+
+    @Pointcut("within(com.edu.ulab.app.service.impl..*)")
+    public void service() {
+    }
+
+    /**
+     * Репозитории Spring Data (включая унаследованные методы вроде {@code save}) и собственные
+     * классы пакета {@code repository}.
+     */
+    @Pointcut("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " || within(com.edu.ulab.app.repository..*)")
+    public void repository() {
+    }
+}
@@ -1,12 +1,17 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -19,5 +24,42 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     Optional<Set<Book>> findBooksByUserId(Long userId);
 
-    void deleteBooksByUserId(Long userId);
+    List<Book> findBooksByUserIdIn(Collection<Long> userIds);
+
+    @Query("select b.id from Book b where b.userId = :userId order by b.id")
+    List<Long> findBookIdsByUserId(Long userId);
+
+    /**
+     * Удаление одним {@code DELETE}: производный метод загружал бы каждую книгу пользователя в контекст
+     * и удалял её отдельным запросом.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Book b where b.userId = :userId")
+    int deleteBooksByUserId(Long userId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Book b where b.userId in :userIds")
+    int deleteBooksByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Страница книг пользователя после {@code afterId} (keyset): чтение продолжается по индексу (user_id, id)
+     * с последнего id предыдущей страницы, поэтому не зависит от того, сколько страниц уже пройдено.
+     * {@code titlePattern} - шаблон {@code LIKE} с экранированием через {@code \}.
+     */
+    @Query("select b from Book b where b.userId = :userId and b.id > :afterId"
+            + " and b.title like :titlePattern escape '\\'"
+            + " and b.pageCount between :minPages and :maxPages order by b.id")
+    List<Book> findPageByUserId(Long userId, long afterId, String titlePattern, long minPages, long maxPages,
+                                Pageable pageable);
+
+    /**
+     * То же с фильтром по автору, по индексу (user_id, author, id).
+     */
+    @Query("select b from Book b where b.userId = :userId and b.author = :author and b.id > :afterId"
+            + " and b.title like :titlePattern escape '\\'"
+            + " and b.pageCount between :minPages and :maxPages order by b.id")
+    List<Book> findPageByUserIdAndAuthor(Long userId, String author, long afterId, String titlePattern,
+                                         long minPages, long maxPages, Pageable pageable);
 }
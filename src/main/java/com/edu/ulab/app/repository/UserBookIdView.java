@@ -0,0 +1,7 @@
+package com.edu.ulab.app.repository;
+
+/**
+ * Пара пользователь - книга. Для пользователя без книг {@code bookId} равен {@code null}.
+ */
+public record UserBookIdView(Long userId, Long bookId) {
+}
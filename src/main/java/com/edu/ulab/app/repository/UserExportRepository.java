@@ -0,0 +1,40 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.dto.UserBookRow;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+/**
+ * Чтение всех пользователей с книгами курсором на стороне БД.
+ * <p>
+ * Запрос возвращает проекцию, а не сущности, поэтому строки не копятся в контексте персистентности,
+ * а драйвер держит в памяти не больше {@code export.fetch-size} строк. Поток нужно читать
+ * внутри транзакции и закрывать после чтения.
+ */
+@Repository
+public class UserExportRepository {
+    private static final String EXPORT_QUERY = "select new com.edu.ulab.app.dto.UserBookRow("
+            + "p.id, p.fullName, p.title, p.age, p.rating, b.id, b.title, b.author, b.pageCount) "
+            + "from Person p left join Book b on b.userId = p.id "
+            + "order by p.id, b.id";
+
+    private final EntityManager entityManager;
+    private final int fetchSize;
+
+    public UserExportRepository(EntityManager entityManager,
+                                @Value("${export.fetch-size}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    public Stream<UserBookRow> streamUsersWithBooks() {
+        return entityManager.createQuery(EXPORT_QUERY, UserBookRow.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+}
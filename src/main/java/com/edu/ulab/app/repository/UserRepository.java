@@ -1,13 +1,23 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<Person, Long> {
 
@@ -20,4 +30,42 @@ public interface UserRepository extends JpaRepository<Person, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select p from Person p where p.id = :id")
     Optional<Person> findByIdForUpdate(long id);
+
+    /**
+     * Существование пользователя и идентификаторы его книг одним запросом: пустой список - пользователя нет,
+     * одна строка с {@code bookId == null} - пользователь без книг.
+     */
+    @Query("select new com.edu.ulab.app.repository.UserBookIdView(p.id, b.id) "
+            + "from Person p left join Book b on b.userId = p.id "
+            + "where p.id = :userId order by b.id")
+    List<UserBookIdView> findUserBookIds(Long userId);
+
+    /**
+     * Страница пользователей после {@code afterId} (keyset) по первичному ключу.
+     */
+    @Query("select p from Person p where p.id > :afterId order by p.id")
+    List<Person> findPage(long afterId, Pageable pageable);
+
+    /**
+     * Страница пользователей с заданным рейтингом после {@code afterId}, по индексу (rating, id).
+     */
+    @Query("select p from Person p where p.rating = :rating and p.id > :afterId order by p.id")
+    List<Person> findPageByRating(Integer rating, long afterId, Pageable pageable);
+
+    /**
+     * Удаление одним {@code DELETE}, без предварительной загрузки пользователя, как в {@code deleteById}.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Person p where p.id = :id")
+    int deletePersonById(long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Person p where p.id in :ids")
+    int deletePersonsByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("select p.id from Person p")
+    Stream<Long> streamAllIds();
 }
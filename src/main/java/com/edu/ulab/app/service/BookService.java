@@ -2,12 +2,17 @@ package com.edu.ulab.app.service;
 
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    List<BookDto> createBooks(List<BookDto> bookDtos);
+
     BookDto updateBook(BookDto bookDto);
 
     BookDto getBookById(Long id);
@@ -18,5 +23,21 @@ public interface BookService {
 
     void deleteBooksByUserId(Long userId);
 
+    /**
+     * Удаляет книги нескольких пользователей одним запросом и возвращает число удалённых.
+     */
+    int deleteBooksByUserIds(Collection<Long> userIds);
+
     List<BookDto> getBooksByUserId(Long userId);
+
+    /**
+     * Книги нескольких пользователей одним запросом. Пользователей без книг в результате нет.
+     */
+    Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds);
+
+    /**
+     * Книги пользователя с id больше {@code afterId}, подходящие под {@code filter}, по возрастанию id,
+     * не больше {@code limit}. Пустая страница не отличает пользователя без книг от несуществующего.
+     */
+    List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit);
 }
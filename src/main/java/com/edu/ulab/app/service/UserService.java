@@ -3,15 +3,43 @@ package com.edu.ulab.app.service;
 import com.edu.ulab.app.dto.UserDto;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @Repository
 public interface UserService {
     UserDto createUser(UserDto userDto);
 
+    List<UserDto> createUsers(List<UserDto> userDtos);
+
     UserDto updateUser(UserDto userDto);
 
     UserDto getUserById(Long id);
 
+    /**
+     * Пользователи по набору идентификаторов одним запросом. Отсутствующих идентификаторов в результате нет.
+     */
+    Map<Long, UserDto> getUsersByIds(Collection<Long> ids);
+
     void deleteUserById(Long id);
 
+    /**
+     * Удаляет пользователей одним запросом и возвращает число удалённых.
+     */
+    int deleteUsersByIds(Collection<Long> ids);
+
     boolean existsById(Long id);
+
+    /**
+     * Пользователи с id больше {@code afterId} по возрастанию id, не больше {@code limit}.
+     * {@code rating} необязателен: если задан, в страницу попадают только пользователи с этим рейтингом.
+     */
+    List<UserDto> getUsersPage(Integer rating, long afterId, int limit);
+
+    /**
+     * Идентификаторы книг пользователя или {@link Optional#empty()}, если пользователя нет.
+     */
+    Optional<List<Long>> findBooksIdsByUserId(Long userId);
 }
@@ -1,18 +1,25 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.locking.LockMode;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,31 +31,47 @@ public class BookServiceImpl implements BookService {
 
     private final BookMapper bookMapper;
 
+    private final UpdateRetryTemplate updateRetryTemplate;
+
     public BookServiceImpl(BookRepository bookRepository,
-                           BookMapper bookMapper) {
+                           BookMapper bookMapper,
+                           UpdateRetryTemplate updateRetryTemplate) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
+        this.updateRetryTemplate = updateRetryTemplate;
     }
 
     @Override
     public BookDto createBook(BookDto bookDto) {
         Book book = bookMapper.bookDtoToBook(bookDto);
-        log.info("Mapped book: {}", book);
+        log.debug("Mapped book: {}", book);
         Book savedBook = bookRepository.save(book);
-        log.info("Saved book: {}", savedBook);
+        log.debug("Saved book: {}", savedBook);
         return bookMapper.bookToBookDto(savedBook);
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<Book> books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList();
+        List<Book> savedBooks = bookRepository.saveAll(books);
+        log.info("Saved {} books", savedBooks.size());
+        return savedBooks.stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
         Long id = bookDto.getId();
-        Book update = bookMapper.bookDtoToBook(bookDto);
-        log.info("Mapped book: {}", update);
-        Book book = bookRepository.findByIdForUpdate(id)
-                .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
-        bookMapper.updateBook(update, book);
-        Book updatedBook = bookRepository.save(book);
-        log.info("Updated book: {}", updatedBook);
+        Book updatedBook = updateRetryTemplate.execute(() -> {
+            Book book = findForUpdate(id)
+                    .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
+            bookMapper.updateBookFromDto(bookDto, book);
+            return bookRepository.save(book);
+        });
+        log.debug("Updated book: {}", updatedBook);
         return bookMapper.bookToBookDto(updatedBook);
     }
 
@@ -57,7 +80,7 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
 
-        log.info("Retrieved book: {}", book);
+        log.debug("Retrieved book: {}", book);
         return bookMapper.bookToBookDto(book);
     }
 
@@ -69,11 +92,7 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public List<Long> getBooksIdsByUserId(Long userId) {
-        return bookRepository.findBooksByUserId(userId).stream()
-                .flatMap(Collection::stream)
-                .filter(Objects::nonNull)
-                .map(Book::getId)
-                .collect(Collectors.toList());
+        return bookRepository.findBookIdsByUserId(userId);
     }
 
     @Override
@@ -85,9 +104,43 @@ public class BookServiceImpl implements BookService {
                 .toList();
     }
 
+    @Override
+    public Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds) {
+        return bookRepository.findBooksByUserIdIn(userIds).stream()
+                .map(bookMapper::bookToBookDto)
+                .collect(Collectors.groupingBy(BookDto::getUserId));
+    }
+
     @Override
     public void deleteBooksByUserId(Long userId) {
-        bookRepository.deleteBooksByUserId(userId);
-        log.info("Deleted books with user id:{}", userId);
+        int deleted = bookRepository.deleteBooksByUserId(userId);
+        log.info("Deleted {} books with user id:{}", deleted, userId);
+    }
+
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        int deleted = bookRepository.deleteBooksByUserIdIn(userIds);
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
+    private Optional<Book> findForUpdate(Long id) {
+        return updateRetryTemplate.lockMode() == LockMode.OPTIMISTIC
+                ? bookRepository.findById(id)
+                : bookRepository.findByIdForUpdate(id);
+    }
+
+    @Override
+    public List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+        String titlePattern = LikePatterns.prefix(filter.getTitlePrefix());
+        List<Book> books = filter.getAuthor() == null
+                ? bookRepository.findPageByUserId(userId, afterId, titlePattern, filter.getMinPages(),
+                filter.getMaxPages(), page)
+                : bookRepository.findPageByUserIdAndAuthor(userId, filter.getAuthor(), afterId, titlePattern,
+                filter.getMinPages(), filter.getMaxPages(), page);
+        return books.stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
     }
 }
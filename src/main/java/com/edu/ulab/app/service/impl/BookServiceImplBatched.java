@@ -0,0 +1,85 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.batching.MicroBatcher;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.service.BookService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link BookService} поверх {@link BookServiceImpl}, в котором одновременные {@link #getBooksByUserId(Long)}
+ * собираются {@link MicroBatcher} в один запрос {@link BookService#getBooksByUserIds(Collection)}.
+ */
+@Service
+@Qualifier("BookServiceImplBatched")
+public class BookServiceImplBatched implements BookService {
+    private final BookService bookService;
+    private final MicroBatcher<Long, List<BookDto>> booksByUserIdBatcher;
+
+    public BookServiceImplBatched(@Qualifier("BookServiceImpl") BookService bookService,
+                                  MicroBatcher<Long, List<BookDto>> booksByUserIdBatcher) {
+        this.bookService = bookService;
+        this.booksByUserIdBatcher = booksByUserIdBatcher;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        return bookService.createBook(bookDto);
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        return bookService.createBooks(bookDtos);
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        return bookService.updateBook(bookDto);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return bookService.getBookById(id);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        bookService.deleteBookById(id);
+    }
+
+    @Override
+    public List<Long> getBooksIdsByUserId(Long userId) {
+        return bookService.getBooksIdsByUserId(userId);
+    }
+
+    @Override
+    public void deleteBooksByUserId(Long userId) {
+        bookService.deleteBooksByUserId(userId);
+    }
+
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        return bookService.deleteBooksByUserIds(userIds);
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return Objects.requireNonNullElse(booksByUserIdBatcher.load(userId), List.of());
+    }
+
+    @Override
+    public Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds) {
+        return bookService.getBooksByUserIds(userIds);
+    }
+
+    @Override
+    public List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit) {
+        return bookService.getBooksPage(userId, filter, afterId, limit);
+    }
+}
@@ -0,0 +1,117 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link BookService} с кешем списков книг пользователя поверх {@link BookServiceImplBatched}.
+ */
+@Slf4j
+@Service
+@Qualifier("BookServiceImplCached")
+public class BookServiceImplCached implements BookService {
+    private final BookService bookService;
+    private final UserBookCache userBookCache;
+
+    public BookServiceImplCached(@Qualifier("BookServiceImplBatched") BookService bookService,
+                                 UserBookCache userBookCache) {
+        this.bookService = bookService;
+        this.userBookCache = userBookCache;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        BookDto createdBook = bookService.createBook(bookDto);
+        userBookCache.evictBooks(createdBook.getUserId());
+        return createdBook;
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<BookDto> createdBooks = bookService.createBooks(bookDtos);
+        createdBooks.stream()
+                .map(BookDto::getUserId)
+                .distinct()
+                .forEach(userBookCache::evictBooks);
+        return createdBooks;
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        // без нового userId владелец не меняется, иначе нужно знать и прежнего владельца
+        Long previousUserId = bookDto.getUserId() == null ? null : bookService.getBookById(bookDto.getId()).getUserId();
+        BookDto updatedBook = bookService.updateBook(bookDto);
+        userBookCache.evictBooks(updatedBook.getUserId());
+        if (previousUserId != null && !previousUserId.equals(updatedBook.getUserId())) {
+            userBookCache.evictBooks(previousUserId);
+        }
+        return updatedBook;
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return bookService.getBookById(id);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        Long userId;
+        try {
+            userId = bookService.getBookById(id).getUserId();
+        } catch (NotFoundException e) {
+            userId = null;
+        }
+        bookService.deleteBookById(id);
+        if (userId != null) {
+            userBookCache.evictBooks(userId);
+        }
+    }
+
+    @Override
+    public List<Long> getBooksIdsByUserId(Long userId) {
+        return getBooksByUserId(userId).stream()
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    @Override
+    public void deleteBooksByUserId(Long userId) {
+        bookService.deleteBooksByUserId(userId);
+        userBookCache.evictBooks(userId);
+    }
+
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        int deleted = bookService.deleteBooksByUserIds(userIds);
+        userIds.forEach(userBookCache::evictBooks);
+        return deleted;
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return userBookCache.getBooks(userId, bookService::getBooksByUserId);
+    }
+
+    @Override
+    public Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds) {
+        return bookService.getBooksByUserIds(userIds);
+    }
+
+    /**
+     * Страницы не кешируются: курсоры и фильтры у клиентов разные, и попадания были бы редкими.
+     */
+    @Override
+    public List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit) {
+        return bookService.getBooksPage(userId, filter, afterId, limit);
+    }
+}
@@ -0,0 +1,155 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@Qualifier("BookServiceImplStorage")
+public class BookServiceImplStorage implements BookService {
+    private final Storage storage;
+    private final BookMapper bookMapper;
+
+    public BookServiceImplStorage(Storage storage, BookMapper bookMapper) {
+        this.storage = storage;
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        requireUser(bookDto.getUserId());
+        Book book = storage.createBook(bookMapper.bookDtoToBook(bookDto));
+        log.info("Stored book id:{}", book.getId());
+        return bookMapper.bookToBookDto(book);
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        bookDtos.stream()
+                .map(BookDto::getUserId)
+                .distinct()
+                .forEach(this::requireUser);
+        List<Book> books = storage.createBooks(bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList());
+        log.info("Stored {} books", books.size());
+        return books.stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        Long id = bookDto.getId();
+        if (bookDto.getUserId() != null) {
+            requireUser(bookDto.getUserId());
+        }
+        Book updatedBook = storage.updateBook(id, book -> bookMapper.updateBookFromDto(bookDto, book))
+                .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
+        log.info("Updated book id:{}", id);
+        return bookMapper.bookToBookDto(updatedBook);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        Book book = storage.findBook(id)
+                .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
+        return bookMapper.bookToBookDto(book);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        storage.deleteBook(id);
+        log.info("Deleted book id:{}", id);
+    }
+
+    @Override
+    public List<Long> getBooksIdsByUserId(Long userId) {
+        return Arrays.stream(storage.findBookIdsByUserId(userId))
+                .boxed()
+                .toList();
+    }
+
+    @Override
+    public void deleteBooksByUserId(Long userId) {
+        int deleted = storage.deleteBooksByUserId(userId);
+        log.info("Deleted {} books with user id:{}", deleted, userId);
+    }
+
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        int deleted = 0;
+        for (Long userId : userIds) {
+            deleted += storage.deleteBooksByUserId(userId);
+        }
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return storage.findBooksByUserId(userId).stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Override
+    public Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds) {
+        Map<Long, List<BookDto>> books = new HashMap<>();
+        for (Long userId : userIds) {
+            List<BookDto> userBooks = getBooksByUserId(userId);
+            if (!userBooks.isEmpty()) {
+                books.put(userId, userBooks);
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Идентификаторы книг пользователя отсортированы, поэтому страница начинается с двоичного поиска
+     * {@code afterId}, и книги читаются по одной, пока страница не заполнится.
+     */
+    @Override
+    public List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit) {
+        String titlePrefix = Objects.requireNonNullElse(filter.getTitlePrefix(), "");
+        long[] ids = storage.findBookIdsByUserId(userId);
+        int position = Arrays.binarySearch(ids, afterId);
+        List<BookDto> page = new ArrayList<>();
+        for (int i = position < 0 ? -position - 1 : position + 1; i < ids.length && page.size() < limit; i++) {
+            storage.findBook(ids[i])
+                    .filter(book -> userId.equals(book.getUserId()))
+                    .filter(book -> filter.getAuthor() == null || filter.getAuthor().equals(book.getAuthor()))
+                    .filter(book -> book.getTitle() != null && book.getTitle().startsWith(titlePrefix))
+                    .filter(book -> book.getPageCount() >= filter.getMinPages() && book.getPageCount() <= filter.getMaxPages())
+                    .map(bookMapper::bookToBookDto)
+                    .ifPresent(page::add);
+        }
+        return page;
+    }
+
+    /**
+     * Хранилище отклоняет книгу отсутствующего пользователя как нарушение целостности,
+     * клиенту же об этом сообщается здесь, как в остальных реализациях сервиса.
+     */
+    private void requireUser(Long userId) {
+        if (userId != null && !storage.existsPerson(userId)) {
+            throw new NotFoundException("User with id: " + userId + " was not found");
+        }
+    }
+}
@@ -1,24 +1,47 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.jdbc.PartialUpdate;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @Qualifier("BookServiceImplTemplate")
 public class BookServiceImplTemplate implements BookService {
+    private static final RowMapper<BookDto> BOOK_ROW_MAPPER = (rs, rowNum) ->
+            new BookDto(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("title"),
+                    rs.getString("author"),
+                    rs.getLong("page_count")
+            );
+    private static final PartialUpdate<BookDto> PARTIAL_UPDATE = PartialUpdate.table("BOOK")
+            .column("title", Types.VARCHAR)
+            .column("author", Types.VARCHAR)
+            .column("page_count", Types.BIGINT)
+            .column("user_id", Types.BIGINT)
+            .increment("version")
+            .returning(BOOK_ROW_MAPPER, "id", "user_id", "title", "author", "page_count");
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -39,7 +62,7 @@ public class BookServiceImplTemplate implements BookService {
                             connection.prepareStatement(INSERT_SQL, new String[]{"id"});
                     ps.setString(1, bookDto.getTitle());
                     ps.setString(2, bookDto.getAuthor());
-                    ps.setLong(3, bookDto.getPageCount());
+                    ps.setLong(3, Objects.requireNonNullElse(bookDto.getPageCount(), 0L));
                     ps.setLong(4, bookDto.getUserId());
                     return ps;
                 },
@@ -49,24 +72,45 @@ public class BookServiceImplTemplate implements BookService {
         return bookDto;
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return List.of();
+        }
+        final String INSERT_SQL = "INSERT INTO BOOK(TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?)";
+        jdbcTemplate.execute(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                (PreparedStatement ps) -> {
+                    for (BookDto bookDto : bookDtos) {
+                        ps.setString(1, bookDto.getTitle());
+                        ps.setString(2, bookDto.getAuthor());
+                        ps.setLong(3, Objects.requireNonNullElse(bookDto.getPageCount(), 0L));
+                        ps.setLong(4, bookDto.getUserId());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (BookDto bookDto : bookDtos) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("Batch insert returned fewer keys than books");
+                            }
+                            bookDto.setId(keys.getLong(1));
+                        }
+                    }
+                    return null;
+                });
+        log.info("Inserted {} books", bookDtos.size());
+        return bookDtos;
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
-        BookDto bookForUpdate = getBookById(bookDto.getId());
-        bookMapper.updateBookDto(bookDto, bookForUpdate);
-        log.info("Updated book dto: {}", bookForUpdate);
-
-        final String UPDATE_QUERY = "UPDATE BOOK SET title=?, author=?, title=?, page_count=?, user_id=? WHERE id = ?";
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(UPDATE_QUERY);
-            ps.setString(1, bookForUpdate.getTitle());
-            ps.setString(2, bookForUpdate.getAuthor());
-            ps.setLong(3, bookForUpdate.getPageCount());
-            ps.setLong(4, bookForUpdate.getUserId());
-            ps.setLong(5, bookForUpdate.getId());
-
-            return ps;
-        });
-        return bookForUpdate;
+        Long id = bookDto.getId();
+        BookDto updatedBook = PARTIAL_UPDATE.execute(jdbcTemplate, id,
+                        bookDto.getTitle(), bookDto.getAuthor(), bookDto.getPageCount(), bookDto.getUserId())
+                .orElseThrow(() -> new NotFoundException("Book with id: " + id + " was not found"));
+        log.debug("Updated book dto: {}", updatedBook);
+        return updatedBook;
     }
 
     @Override
@@ -76,7 +120,7 @@ public class BookServiceImplTemplate implements BookService {
         if (retrievedBook == null) {
             throw new NotFoundException("Book with id: " + id + " was not found");
         }
-        log.info("Retrieved book: {}",retrievedBook);
+        log.debug("Retrieved book: {}",retrievedBook);
         return retrievedBook;
     }
 
@@ -101,20 +145,45 @@ public class BookServiceImplTemplate implements BookService {
         log.info("Deleted books by userId:{}", userId);
     }
 
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        final String DELETE_BY_USER_IDS_QUERY = "DELETE FROM BOOK WHERE user_id = ANY(?)";
+        int deleted = jdbcTemplate.update(DELETE_BY_USER_IDS_QUERY,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray())));
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
     @Override
     public List<BookDto> getBooksByUserId(Long userId) {
         final String SELECT_BOOKS_BY_USERID_QUERY = "SELECT * FROM BOOK WHERE user_id=?";
-        List<BookDto> books = jdbcTemplate.query(
-                SELECT_BOOKS_BY_USERID_QUERY,
-                (rs, rowNum) ->
-                    new BookDto(
-                        rs.getLong("id"),
-                        rs.getLong("user_id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getLong("page_count")
-                    ),
-                userId);
+        List<BookDto> books = jdbcTemplate.query(SELECT_BOOKS_BY_USERID_QUERY, BOOK_ROW_MAPPER, userId);
         return books;
     }
+
+    @Override
+    public Map<Long, List<BookDto>> getBooksByUserIds(Collection<Long> userIds) {
+        final String SELECT_BOOKS_BY_USERIDS_QUERY = "SELECT * FROM BOOK WHERE user_id = ANY(?) ORDER BY id";
+        List<BookDto> books = jdbcTemplate.query(SELECT_BOOKS_BY_USERIDS_QUERY,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray())),
+                BOOK_ROW_MAPPER);
+        return books.stream()
+                .collect(Collectors.groupingBy(BookDto::getUserId));
+    }
+
+    @Override
+    public List<BookDto> getBooksPage(Long userId, BookFilter filter, long afterId, int limit) {
+        final String SELECT_PAGE_QUERY = "SELECT id, user_id, title, author, page_count FROM BOOK "
+                + "WHERE user_id = ? AND id > ? AND title LIKE ? ESCAPE '\\' AND page_count BETWEEN ? AND ? "
+                + "ORDER BY id LIMIT ?";
+        final String SELECT_PAGE_BY_AUTHOR_QUERY = "SELECT id, user_id, title, author, page_count FROM BOOK "
+                + "WHERE user_id = ? AND author = ? AND id > ? AND title LIKE ? ESCAPE '\\' AND page_count BETWEEN ? AND ? "
+                + "ORDER BY id LIMIT ?";
+        String titlePattern = LikePatterns.prefix(filter.getTitlePrefix());
+        return filter.getAuthor() == null
+                ? jdbcTemplate.query(SELECT_PAGE_QUERY, BOOK_ROW_MAPPER, userId, afterId, titlePattern,
+                filter.getMinPages(), filter.getMaxPages(), limit)
+                : jdbcTemplate.query(SELECT_PAGE_BY_AUTHOR_QUERY, BOOK_ROW_MAPPER, userId, filter.getAuthor(), afterId,
+                titlePattern, filter.getMinPages(), filter.getMaxPages(), limit);
+    }
 }
@@ -0,0 +1,23 @@
+package com.edu.ulab.app.service.impl;
+
+/**
+ * Шаблоны {@code LIKE ... ESCAPE '\'} для поиска по префиксу.
+ */
+final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Шаблон строк, начинающихся с {@code prefix}: служебные символы LIKE в префиксе экранируются.
+     * Пустой префикс подходит любой строке.
+     */
+    static String prefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return "%";
+        }
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -3,13 +3,26 @@ package com.edu.ulab.app.service.impl;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.locking.LockMode;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
 import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.repository.UserBookIdView;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Service
 @Qualifier("UserServiceImpl")
@@ -17,32 +30,49 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UpdateRetryTemplate updateRetryTemplate;
 
     public UserServiceImpl(UserRepository userRepository,
-                           UserMapper userMapper) {
+                           UserMapper userMapper,
+                           UpdateRetryTemplate updateRetryTemplate) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.updateRetryTemplate = updateRetryTemplate;
     }
 
     @Override
     public UserDto createUser(UserDto userDto) {
         Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
+        log.debug("Mapped user: {}", user);
         Person savedUser = userRepository.save(user);
-        log.info("Saved user: {}", savedUser);
+        log.debug("Saved user: {}", savedUser);
         return userMapper.personToUserDto(savedUser);
     }
 
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        List<Person> users = userDtos.stream()
+                .map(userMapper::userDtoToPerson)
+                .toList();
+        List<Person> savedUsers = userRepository.saveAll(users);
+        log.info("Saved {} users", savedUsers.size());
+        return savedUsers.stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
     @Override
     public UserDto updateUser(UserDto userDto) {
         Long id = userDto.getId();
         Person update = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped person: {}", update);
-        Person person = userRepository.findByIdForUpdate(id)
-                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
-        userMapper.updatePerson(update, person);
-        Person updatedUser = userRepository.save(person);
-        log.info("Updated person: {}", updatedUser);
+        log.debug("Mapped person: {}", update);
+        Person updatedUser = updateRetryTemplate.execute(() -> {
+            Person person = findForUpdate(id)
+                    .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+            userMapper.updatePerson(update, person);
+            return userRepository.save(person);
+        });
+        log.debug("Updated person: {}", updatedUser);
         return userMapper.personToUserDto(updatedUser);
     }
 
@@ -51,18 +81,63 @@ public class UserServiceImpl implements UserService {
         Person person = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
 
-        log.info("Retrieved person: {}", person);
+        log.debug("Retrieved person: {}", person);
         return userMapper.personToUserDto(person);
     }
 
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .map(userMapper::personToUserDto)
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+    }
+
     @Override
     public boolean existsById(Long id) {
         return userRepository.existsById(id);
     }
 
+    @Override
+    public List<UserDto> getUsersPage(Integer rating, long afterId, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+        List<Person> persons = rating == null
+                ? userRepository.findPage(afterId, page)
+                : userRepository.findPageByRating(rating, afterId, page);
+        return persons.stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
     @Override
     public void deleteUserById(Long id) {
-        userRepository.deleteById(id);
+        if (userRepository.deletePersonById(id) == 0) {
+            throw new NotFoundException("User with id: " + id + " was not found");
+        }
         log.info("Person id:{} deleted", id);
     }
+
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        int deleted = userRepository.deletePersonsByIdIn(ids);
+        log.info("Deleted {} persons", deleted);
+        return deleted;
+    }
+
+    @Override
+    public Optional<List<Long>> findBooksIdsByUserId(Long userId) {
+        List<UserBookIdView> rows = userRepository.findUserBookIds(userId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(rows.stream()
+                .map(UserBookIdView::bookId)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private Optional<Person> findForUpdate(Long id) {
+        return updateRetryTemplate.lockMode() == LockMode.OPTIMISTIC
+                ? userRepository.findById(id)
+                : userRepository.findByIdForUpdate(id);
+    }
 }
@@ -0,0 +1,81 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.batching.MicroBatcher;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link UserService} поверх {@link UserServiceImpl}, в котором одновременные {@link #getUserById(Long)}
+ * собираются {@link MicroBatcher} в один запрос {@link UserService#getUsersByIds(Collection)}.
+ */
+@Service
+@Qualifier("UserServiceImplBatched")
+public class UserServiceImplBatched implements UserService {
+    private final UserService userService;
+    private final MicroBatcher<Long, UserDto> userByIdBatcher;
+
+    public UserServiceImplBatched(@Qualifier("UserServiceImpl") UserService userService,
+                                  MicroBatcher<Long, UserDto> userByIdBatcher) {
+        this.userService = userService;
+        this.userByIdBatcher = userByIdBatcher;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        return userService.createUser(userDto);
+    }
+
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        return userService.createUsers(userDtos);
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        return userService.updateUser(userDto);
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return Optional.ofNullable(userByIdBatcher.load(id))
+                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+    }
+
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        userService.deleteUserById(id);
+    }
+
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        return userService.deleteUsersByIds(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return userService.existsById(id);
+    }
+
+    @Override
+    public Optional<List<Long>> findBooksIdsByUserId(Long userId) {
+        return userService.findBooksIdsByUserId(userId);
+    }
+
+    @Override
+    public List<UserDto> getUsersPage(Integer rating, long afterId, int limit) {
+        return userService.getUsersPage(rating, afterId, limit);
+    }
+}
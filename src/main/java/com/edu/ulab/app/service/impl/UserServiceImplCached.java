@@ -0,0 +1,147 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.cache.UserIdFilter;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link UserService} с кешем пользователей поверх {@link UserServiceImplBatched}.
+ * <p>
+ * Перед кешем стоит {@link UserIdFilter}: идентификатор, которого точно нет, отсекается без обращения к БД.
+ * Созданные пользователи попадают в фильтр после коммита транзакции, чтобы пересборка фильтра не потеряла их.
+ */
+@Slf4j
+@Service
+@Qualifier("UserServiceImplCached")
+public class UserServiceImplCached implements UserService {
+    private final UserService userService;
+    private final UserBookCache userBookCache;
+    private final UserIdFilter userIdFilter;
+
+    public UserServiceImplCached(@Qualifier("UserServiceImplBatched") UserService userService,
+                                 UserBookCache userBookCache,
+                                 UserIdFilter userIdFilter) {
+        this.userService = userService;
+        this.userBookCache = userBookCache;
+        this.userIdFilter = userIdFilter;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        UserDto createdUser = userService.createUser(userDto);
+        addToFilterAfterCommit(List.of(createdUser.getId()));
+        // идентификатор мог быть запрошен до создания и закеширован как отсутствующий
+        userBookCache.evictUser(createdUser.getId());
+        return createdUser;
+    }
+
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        List<UserDto> createdUsers = userService.createUsers(userDtos);
+        addToFilterAfterCommit(createdUsers.stream().map(UserDto::getId).toList());
+        createdUsers.forEach(user -> userBookCache.evictUser(user.getId()));
+        return createdUsers;
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        UserDto updatedUser = userService.updateUser(userDto);
+        userBookCache.evictUser(userDto.getId());
+        return updatedUser;
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return findUser(id)
+                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+    }
+
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        return userService.getUsersByIds(ids.stream()
+                .filter(userIdFilter::mightContain)
+                .toList());
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        userService.deleteUserById(id);
+        userIdFilter.markDeleted(1);
+        userBookCache.evictUser(id);
+    }
+
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        int deleted = userService.deleteUsersByIds(ids);
+        userIdFilter.markDeleted(deleted);
+        ids.forEach(userBookCache::evictUser);
+        return deleted;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findUser(id).isPresent();
+    }
+
+    @Override
+    public Optional<List<Long>> findBooksIdsByUserId(Long userId) {
+        if (!userIdFilter.mightContain(userId) || userBookCache.isKnownMissing(userId)) {
+            return Optional.empty();
+        }
+        Optional<List<Long>> booksIds = userService.findBooksIdsByUserId(userId);
+        if (booksIds.isEmpty()) {
+            userIdFilter.recordFalsePositive(userId);
+        }
+        return booksIds;
+    }
+
+    private void addToFilterAfterCommit(List<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(userIdFilter::add);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(userIdFilter::add);
+            }
+        });
+    }
+
+    private Optional<UserDto> findUser(Long id) {
+        if (!userIdFilter.mightContain(id)) {
+            return Optional.empty();
+        }
+        return userBookCache.getUser(id, this::loadUser);
+    }
+
+    private Optional<UserDto> loadUser(Long id) {
+        try {
+            return Optional.of(userService.getUserById(id));
+        } catch (NotFoundException e) {
+            log.info("User id:{} not found, caching absence", id);
+            userIdFilter.recordFalsePositive(id);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Страницы не кешируются: курсоры у клиентов разные, и попадания были бы редкими.
+     */
+    @Override
+    public List<UserDto> getUsersPage(Integer rating, long afterId, int limit) {
+        return userService.getUsersPage(rating, afterId, limit);
+    }
+}
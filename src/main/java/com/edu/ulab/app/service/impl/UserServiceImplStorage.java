@@ -0,0 +1,113 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@Qualifier("UserServiceImplStorage")
+public class UserServiceImplStorage implements UserService {
+    private final Storage storage;
+    private final UserMapper userMapper;
+
+    public UserServiceImplStorage(Storage storage, UserMapper userMapper) {
+        this.storage = storage;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        Person person = storage.createPerson(userMapper.userDtoToPerson(userDto));
+        log.info("Stored user id:{}", person.getId());
+        return userMapper.personToUserDto(person);
+    }
+
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        return userDtos.stream()
+                .map(userMapper::userDtoToPerson)
+                .map(storage::createPerson)
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        Long id = userDto.getId();
+        Person update = userMapper.userDtoToPerson(userDto);
+        Person updatedUser = storage.updatePerson(id, person -> userMapper.updatePerson(update, person))
+                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+        log.info("Updated user id:{}", id);
+        return userMapper.personToUserDto(updatedUser);
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        Person person = storage.findPerson(id)
+                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+        return userMapper.personToUserDto(person);
+    }
+
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        Map<Long, UserDto> users = new HashMap<>();
+        for (Long id : ids) {
+            storage.findPerson(id).ifPresent(person -> users.put(id, userMapper.personToUserDto(person)));
+        }
+        return users;
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        if (!storage.deletePerson(id)) {
+            throw new NotFoundException("User with id: " + id + " was not found");
+        }
+        log.info("Deleted user id:{}", id);
+    }
+
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            if (storage.deletePerson(id)) {
+                deleted++;
+            }
+        }
+        log.info("Deleted {} users", deleted);
+        return deleted;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return storage.existsPerson(id);
+    }
+
+    @Override
+    public Optional<List<Long>> findBooksIdsByUserId(Long userId) {
+        if (!storage.existsPerson(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(Arrays.stream(storage.findBookIdsByUserId(userId)).boxed().toList());
+    }
+
+    @Override
+    public List<UserDto> getUsersPage(Integer rating, long afterId, int limit) {
+        return storage.findPersonsPage(rating, afterId, limit).stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+}
@@ -2,22 +2,46 @@ package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.jdbc.PartialUpdate;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @Qualifier("UserServiceImplTemplate")
 public class UserServiceImplTemplate implements UserService {
+    private static final RowMapper<UserDto> USER_ROW_MAPPER = (rs, rowNum) ->
+            new UserDto(
+                    rs.getLong("id"),
+                    rs.getString("full_name"),
+                    rs.getString("title"),
+                    rs.getInt("age")
+            );
+    private static final PartialUpdate<UserDto> PARTIAL_UPDATE = PartialUpdate.table("PERSON")
+            .column("full_name", Types.VARCHAR)
+            .column("title", Types.VARCHAR)
+            .column("age", Types.INTEGER)
+            .increment("version")
+            .returning(USER_ROW_MAPPER, "id", "full_name", "title", "age");
+
     private final JdbcTemplate jdbcTemplate;
     private final UserMapper userMapper;
 
@@ -36,7 +60,7 @@ public class UserServiceImplTemplate implements UserService {
                     PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
                     ps.setString(1, userDto.getFullName());
                     ps.setString(2, userDto.getTitle());
-                    ps.setLong(3, userDto.getAge());
+                    ps.setObject(3, userDto.getAge(), Types.INTEGER);
                     return ps;
                 }, keyHolder);
 
@@ -44,50 +68,91 @@ public class UserServiceImplTemplate implements UserService {
         return userDto;
     }
 
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        if (userDtos.isEmpty()) {
+            return List.of();
+        }
+        final String INSERT_SQL = "INSERT INTO PERSON(FULL_NAME, TITLE, AGE) VALUES (?,?,?)";
+        jdbcTemplate.execute(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                (PreparedStatement ps) -> {
+                    for (UserDto userDto : userDtos) {
+                        ps.setString(1, userDto.getFullName());
+                        ps.setString(2, userDto.getTitle());
+                        ps.setObject(3, userDto.getAge(), Types.INTEGER);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (UserDto userDto : userDtos) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("Batch insert returned fewer keys than users");
+                            }
+                            userDto.setId(keys.getLong(1));
+                        }
+                    }
+                    return null;
+                });
+        log.info("Inserted {} users", userDtos.size());
+        return userDtos;
+    }
+
     @Override
     public UserDto updateUser(UserDto userDto) {
-        UserDto userForUpdate = getUserById(userDto.getId());
-        userMapper.updateUserDto(userDto, userForUpdate);
-        log.info("Updated user dto: {}", userForUpdate);
-
-        final String UPDATE_QUERY = "UPDATE PERSON SET full_name=?, title=?, age=? WHERE id = ?";
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(UPDATE_QUERY);
-            ps.setString(1, userForUpdate.getFullName());
-            ps.setString(2, userForUpdate.getTitle());
-            ps.setLong(3, userForUpdate.getAge());
-            ps.setLong(4, userForUpdate.getId());
-
-            return ps;
-        });
-        return userForUpdate;
+        Long id = userDto.getId();
+        UserDto updatedUser = PARTIAL_UPDATE.execute(jdbcTemplate, id,
+                        userDto.getFullName(), userDto.getTitle(), userDto.getAge())
+                .orElseThrow(() -> new NotFoundException("User with id: " + id + " was not found"));
+        log.debug("Updated user dto: {}", updatedUser);
+        return updatedUser;
     }
 
     @Override
     public UserDto getUserById(Long id) {
         final String SELECT_QUERY = "SELECT * FROM PERSON WHERE id=?";
-        UserDto user = jdbcTemplate.queryForObject(SELECT_QUERY,
-                (rs, rowNum) ->
-                        new UserDto(
-                                rs.getLong("id"),
-                                rs.getString("full_name"),
-                                rs.getString("title"),
-                                rs.getInt("age")
-                        ),
-                id);
+        UserDto user = jdbcTemplate.queryForObject(SELECT_QUERY, USER_ROW_MAPPER, id);
         if (user == null) {
             throw new NotFoundException("User with id: " + id + " was not found");
         }
         return user;
     }
 
+    /**
+     * Один параметр-массив вместо {@code IN (?, ?, ...)}: текст запроса не зависит от числа идентификаторов,
+     * поэтому план и подготовленный запрос переиспользуются.
+     */
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        final String SELECT_BY_IDS_QUERY = "SELECT * FROM PERSON WHERE id = ANY(?)";
+        Map<Long, UserDto> users = new HashMap<>();
+        jdbcTemplate.query(SELECT_BY_IDS_QUERY,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                rs -> {
+                    UserDto user = USER_ROW_MAPPER.mapRow(rs, 0);
+                    users.put(user.getId(), user);
+                });
+        return users;
+    }
+
     @Override
     public void deleteUserById(Long id) {
         final String DELETE_QUERY = "DELETE FROM PERSON WHERE id=?";
-        jdbcTemplate.update(DELETE_QUERY, id);
+        if (jdbcTemplate.update(DELETE_QUERY, id) == 0) {
+            throw new NotFoundException("User with id: " + id + " was not found");
+        }
         log.info("Deleted user id:{}", id);
     }
 
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        final String DELETE_BY_IDS_QUERY = "DELETE FROM PERSON WHERE id = ANY(?)";
+        int deleted = jdbcTemplate.update(DELETE_BY_IDS_QUERY,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        log.info("Deleted {} users", deleted);
+        return deleted;
+    }
+
     @Override
     public boolean existsById(Long id) {
         final String EXISTS_QUERY = "SELECT EXISTS(SELECT * FROM PERSON WHERE id=?)";
@@ -95,4 +160,33 @@ public class UserServiceImplTemplate implements UserService {
         log.info("User id:{} exists: {}", id, exists);
         return exists;
     }
+
+    @Override
+    public Optional<List<Long>> findBooksIdsByUserId(Long userId) {
+        final String SELECT_USER_BOOKS_IDS_QUERY = "SELECT p.id AS user_id, b.id AS book_id FROM PERSON p "
+                + "LEFT JOIN BOOK b ON b.user_id = p.id WHERE p.id=? ORDER BY b.id";
+        return jdbcTemplate.query(SELECT_USER_BOOKS_IDS_QUERY, rs -> {
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            List<Long> booksIds = new ArrayList<>();
+            do {
+                long bookId = rs.getLong("book_id");
+                if (!rs.wasNull()) {
+                    booksIds.add(bookId);
+                }
+            } while (rs.next());
+            return Optional.of(booksIds);
+        }, userId);
+    }
+
+    @Override
+    public List<UserDto> getUsersPage(Integer rating, long afterId, int limit) {
+        final String SELECT_PAGE_QUERY = "SELECT id, full_name, title, age FROM PERSON WHERE id > ? ORDER BY id LIMIT ?";
+        final String SELECT_PAGE_BY_RATING_QUERY =
+                "SELECT id, full_name, title, age FROM PERSON WHERE rating = ? AND id > ? ORDER BY id LIMIT ?";
+        return rating == null
+                ? jdbcTemplate.query(SELECT_PAGE_QUERY, USER_ROW_MAPPER, afterId, limit)
+                : jdbcTemplate.query(SELECT_PAGE_BY_RATING_QUERY, USER_ROW_MAPPER, rating, afterId, limit);
+    }
 }
@@ -0,0 +1,330 @@
+package com.edu.ulab.app.storage;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Конкурентная хеш-таблица с примитивными ключами {@code long}.
+ * <p>
+ * Таблица разбита на сегменты с открытой адресацией (линейное пробирование),
+ * каждый сегмент защищён своим {@link StampedLock}: чтение выполняется без блокировки
+ * (optimistic read), запись блокирует только свой сегмент. Значения {@code null} не допускаются.
+ */
+public class ConcurrentLongObjectMap<V> {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+        }
+        int segmentCount = concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segmentShift = Long.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    public V get(long key) {
+        long hash = mix(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        requireValue(value);
+        long hash = mix(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    public V putIfAbsent(long key, V value) {
+        requireValue(value);
+        long hash = mix(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    public V remove(long key) {
+        long hash = mix(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Атомарно пересчитывает значение ключа. Функция получает текущее значение
+     * (или {@code null}), результат {@code null} удаляет ключ.
+     */
+    public V compute(long key, UnaryOperator<V> remapping) {
+        long hash = mix(key);
+        return segmentFor(hash).compute(key, hash, remapping);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Обходит все записи. Каждый сегмент обходится под блокировкой на чтение,
+     * поэтому обход консистентен в пределах сегмента, но не всей таблицы.
+     */
+    public void forEach(LongObjectConsumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    private static void requireValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 31);
+    }
+
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[INITIAL_SEGMENT_CAPACITY];
+        private Object[] values = new Object[INITIAL_SEGMENT_CAPACITY];
+        private int size;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                V value = find(keys, values, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(keys, values, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            long stamp = lock.writeLock();
+            try {
+                int index = indexOf(key, hash);
+                if (index >= 0) {
+                    V previous = valueAt(index);
+                    if (!onlyIfAbsent) {
+                        values[index] = value;
+                    }
+                    return previous;
+                }
+                insert(key, hash, value);
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int index = indexOf(key, hash);
+                if (index < 0) {
+                    return null;
+                }
+                V previous = valueAt(index);
+                delete(index);
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V compute(long key, long hash, UnaryOperator<V> remapping) {
+            long stamp = lock.writeLock();
+            try {
+                int index = indexOf(key, hash);
+                V previous = index >= 0 ? valueAt(index) : null;
+                V next = remapping.apply(previous);
+                if (next == null) {
+                    if (index >= 0) {
+                        delete(index);
+                    }
+                } else if (index >= 0) {
+                    values[index] = next;
+                } else {
+                    insert(key, hash, next);
+                }
+                return next;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void forEach(LongObjectConsumer<? super V> action) {
+            long stamp = lock.readLock();
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        action.accept(keys[i], valueAt(i));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                keys = new long[INITIAL_SEGMENT_CAPACITY];
+                values = new Object[INITIAL_SEGMENT_CAPACITY];
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Поиск без блокировки: массивы могут быть прочитаны в момент изменения,
+         * поэтому число проб ограничено, а результат проверяется через validate.
+         */
+        @SuppressWarnings("unchecked")
+        private static <V> V find(long[] keys, Object[] values, long key, long hash) {
+            if (keys.length != values.length) {
+                return null;
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (int probe = 0; probe < keys.length; probe++) {
+                Object value = values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return (V) value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private int indexOf(long key, long hash) {
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long key, long hash, Object value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        /**
+         * Удаление со сдвигом назад: последующие записи кластера переносятся в освободившуюся
+         * ячейку, поэтому надгробия не нужны и длина проб не деградирует.
+         */
+        private void delete(int gap) {
+            int mask = keys.length - 1;
+            int index = gap;
+            while (true) {
+                index = (index + 1) & mask;
+                Object value = values[index];
+                if (value == null) {
+                    break;
+                }
+                int home = (int) mix(keys[index]) & mask;
+                boolean canMove = gap <= index ? (home <= gap || home > index) : (home <= gap && home > index);
+                if (canMove) {
+                    keys[gap] = keys[index];
+                    values[gap] = value;
+                    gap = index;
+                }
+            }
+            keys[gap] = 0L;
+            values[gap] = null;
+            size--;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length << 1];
+            Object[] newValues = new Object[oldValues.length << 1];
+            int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = (int) mix(oldKeys[i]) & mask;
+                    while (newValues[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    newKeys[index] = oldKeys[i];
+                    newValues[index] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueAt(int index) {
+            return (V) values[index];
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище в памяти процесса.
+ * <p>
+ * Пользователи и книги лежат в {@link ConcurrentLongObjectMap} с примитивными ключами,
+ * для связи пользователь - книги ведётся вторичный индекс: отсортированный массив
+ * идентификаторов книг, который заменяется целиком при каждом изменении (copy-on-write),
+ * поэтому чтение списка книг не требует блокировок.
+ */
+public class InMemoryStorage implements Storage {
+    private static final long[] NO_IDS = new long[0];
+
+    private final ConcurrentLongObjectMap<Person> persons = new ConcurrentLongObjectMap<>();
+    private final ConcurrentLongObjectMap<Book> books = new ConcurrentLongObjectMap<>();
+    private final ConcurrentLongObjectMap<long[]> bookIdsByUserId = new ConcurrentLongObjectMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public Person createPerson(Person person) {
+        Person stored = copyOf(person);
+        stored.setId(idSequence.incrementAndGet());
+        persons.put(stored.getId(), stored);
+        return copyOf(stored);
+    }
+
+    @Override
+    public Optional<Person> updatePerson(long id, Consumer<Person> change) {
+        Person updated = persons.compute(id, current -> {
+            if (current == null) {
+                return null;
+            }
+            Person next = copyOf(current);
+            change.accept(next);
+            next.setId(id);
+            return next;
+        });
+        return Optional.ofNullable(updated).map(InMemoryStorage::copyOf);
+    }
+
+    @Override
+    public Optional<Person> findPerson(long id) {
+        return Optional.ofNullable(persons.get(id)).map(InMemoryStorage::copyOf);
+    }
+
+    @Override
+    public boolean existsPerson(long id) {
+        return persons.containsKey(id);
+    }
+
+    @Override
+    public boolean deletePerson(long id) {
+        return persons.remove(id) != null;
+    }
+
+    /**
+     * Таблица не упорядочена по ключу, поэтому обходится целиком; в куче держится не более
+     * {@code limit} наименьших подходящих идентификаторов. Записи не изменяются на месте,
+     * так что копируются только попавшие на страницу.
+     */
+    @Override
+    public List<Person> findPersonsPage(Integer rating, long afterId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Person> page = new PriorityQueue<>(Comparator.comparing(Person::getId).reversed());
+        persons.forEach((id, person) -> {
+            if (id <= afterId || (rating != null && !rating.equals(person.getRating()))) {
+                return;
+            }
+            if (page.size() < limit) {
+                page.add(person);
+            } else if (id < page.peek().getId()) {
+                page.poll();
+                page.add(person);
+            }
+        });
+        List<Person> result = new ArrayList<>(page.size());
+        page.forEach(person -> result.add(copyOf(person)));
+        result.sort(Comparator.comparing(Person::getId));
+        return result;
+    }
+
+    @Override
+    public Book createBook(Book book) {
+        requireUser(book);
+        Book stored = copyOf(book);
+        stored.setId(idSequence.incrementAndGet());
+        books.put(stored.getId(), stored);
+        indexBook(stored.getUserId(), stored.getId());
+        return copyOf(stored);
+    }
+
+    @Override
+    public List<Book> createBooks(List<Book> newBooks) {
+        List<Book> created = new ArrayList<>(newBooks.size());
+        Map<Long, long[]> idsByUserId = new HashMap<>();
+        newBooks.forEach(this::requireUser);
+        for (Book book : newBooks) {
+            Book stored = copyOf(book);
+            stored.setId(idSequence.incrementAndGet());
+            books.put(stored.getId(), stored);
+            created.add(copyOf(stored));
+            idsByUserId.merge(stored.getUserId(), new long[]{stored.getId()}, InMemoryStorage::concat);
+        }
+        idsByUserId.forEach(this::indexBooks);
+        return created;
+    }
+
+    @Override
+    public Optional<Book> updateBook(long id, Consumer<Book> change) {
+        long[] previousUserId = new long[1];
+        Book updated = books.compute(id, current -> {
+            if (current == null) {
+                return null;
+            }
+            previousUserId[0] = current.getUserId();
+            Book next = copyOf(current);
+            change.accept(next);
+            next.setId(id);
+            if (!Objects.equals(next.getUserId(), current.getUserId())) {
+                requireUser(next);
+            }
+            return next;
+        });
+        if (updated == null) {
+            return Optional.empty();
+        }
+        if (updated.getUserId() != previousUserId[0]) {
+            unindexBook(previousUserId[0], id);
+            indexBook(updated.getUserId(), id);
+        }
+        return Optional.of(copyOf(updated));
+    }
+
+    @Override
+    public Optional<Book> findBook(long id) {
+        return Optional.ofNullable(books.get(id)).map(InMemoryStorage::copyOf);
+    }
+
+    @Override
+    public boolean deleteBook(long id) {
+        Book removed = books.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        unindexBook(removed.getUserId(), id);
+        return true;
+    }
+
+    @Override
+    public long[] findBookIdsByUserId(long userId) {
+        long[] ids = bookIdsByUserId.get(userId);
+        return ids == null ? NO_IDS : ids.clone();
+    }
+
+    @Override
+    public List<Book> findBooksByUserId(long userId) {
+        long[] ids = bookIdsByUserId.get(userId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<Book> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Book book = books.get(id);
+            // индекс обновляется после основной таблицы, поэтому запись могла уже уйти к другому пользователю
+            if (book != null && book.getUserId() == userId) {
+                result.add(copyOf(book));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int deleteBooksByUserId(long userId) {
+        long[] ids = bookIdsByUserId.remove(userId);
+        if (ids == null) {
+            return 0;
+        }
+        int deleted = 0;
+        for (long id : ids) {
+            Book book = books.get(id);
+            if (book != null && book.getUserId() == userId && books.remove(id) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Кладёт пользователя с уже известным идентификатором (восстановление из журнала или снимка).
+     */
+    public void restorePerson(Person person) {
+        persons.put(person.getId(), copyOf(person));
+        advanceIdSequence(person.getId());
+    }
+
+    /**
+     * Кладёт книгу с уже известным идентификатором (восстановление из журнала или снимка).
+     */
+    public void restoreBook(Book book) {
+        requireUserId(book);
+        Book previous = books.put(book.getId(), copyOf(book));
+        if (previous != null && !previous.getUserId().equals(book.getUserId())) {
+            unindexBook(previous.getUserId(), book.getId());
+        }
+        indexBook(book.getUserId(), book.getId());
+        advanceIdSequence(book.getId());
+    }
+
+    public void forEachPerson(Consumer<Person> action) {
+        persons.forEach((id, person) -> action.accept(copyOf(person)));
+    }
+
+    public void forEachBook(Consumer<Book> action) {
+        books.forEach((id, book) -> action.accept(copyOf(book)));
+    }
+
+    public long currentId() {
+        return idSequence.get();
+    }
+
+    public void advanceIdSequence(long id) {
+        idSequence.accumulateAndGet(id, Math::max);
+    }
+
+    public int personCount() {
+        return persons.size();
+    }
+
+    public int bookCount() {
+        return books.size();
+    }
+
+    private void indexBook(long userId, long bookId) {
+        bookIdsByUserId.compute(userId, ids -> {
+            if (ids == null) {
+                return new long[]{bookId};
+            }
+            int position = Arrays.binarySearch(ids, bookId);
+            if (position >= 0) {
+                return ids;
+            }
+            int insertAt = -position - 1;
+            long[] next = new long[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, insertAt);
+            next[insertAt] = bookId;
+            System.arraycopy(ids, insertAt, next, insertAt + 1, ids.length - insertAt);
+            return next;
+        });
+    }
+
+    private void indexBooks(long userId, long[] bookIds) {
+        bookIdsByUserId.compute(userId, ids -> {
+            long[] next = ids == null ? bookIds.clone() : concat(ids, bookIds);
+            Arrays.sort(next);
+            return next;
+        });
+    }
+
+    private void unindexBook(long userId, long bookId) {
+        bookIdsByUserId.compute(userId, ids -> {
+            if (ids == null) {
+                return null;
+            }
+            int position = Arrays.binarySearch(ids, bookId);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] next = new long[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, position);
+            System.arraycopy(ids, position + 1, next, position, ids.length - position - 1);
+            return next;
+        });
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private void requireUser(Book book) {
+        requireUserId(book);
+        if (!persons.containsKey(book.getUserId())) {
+            throw new IllegalArgumentException("Book user id: " + book.getUserId() + " does not exist");
+        }
+    }
+
+    private static void requireUserId(Book book) {
+        if (book.getUserId() == null) {
+            throw new IllegalArgumentException("Book user id must not be null");
+        }
+    }
+
+    static Person copyOf(Person person) {
+        Person copy = new Person();
+        copy.setId(person.getId());
+        copy.setFullName(person.getFullName());
+        copy.setTitle(person.getTitle());
+        copy.setAge(person.getAge());
+        copy.setRating(person.getRating());
+        return copy;
+    }
+
+    static Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setUserId(book.getUserId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPageCount(book.getPageCount());
+        return copy;
+    }
+}
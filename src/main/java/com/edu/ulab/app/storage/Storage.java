@@ -1,11 +1,64 @@
 package com.edu.ulab.app.storage;
 
-public class Storage {
-    //todo создать хранилище в котором будут содержаться данные
-    // сделать абстракции через которые можно будет производить операции с хранилищем
-    // продумать логику поиска и сохранения
-    // продумать возможные ошибки
-    // учесть, что при сохранеии юзера или книги, должен генерироваться идентификатор
-    // продумать что у узера может быть много книг и нужно создать эту связь
-    // так же учесть, что методы хранилища принимают друго тип данных - учесть это в абстракции
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище пользователей и книг внутри процесса.
+ * <p>
+ * Идентификаторы генерируются хранилищем при создании записи. Хранилище не отдаёт
+ * наружу свои экземпляры сущностей: на вход и на выход передаются копии.
+ */
+public interface Storage {
+
+    Person createPerson(Person person);
+
+    /**
+     * Атомарно изменяет пользователя: {@code change} получает копию текущей записи,
+     * результат сохраняется целиком.
+     */
+    Optional<Person> updatePerson(long id, Consumer<Person> change);
+
+    Optional<Person> findPerson(long id);
+
+    boolean existsPerson(long id);
+
+    boolean deletePerson(long id);
+
+    /**
+     * Не более {@code limit} пользователей с идентификатором больше {@code afterId} по возрастанию
+     * идентификатора; при {@code rating != null} - только с таким рейтингом.
+     */
+    List<Person> findPersonsPage(Integer rating, long afterId, int limit);
+
+    /**
+     * Пользователь книги должен существовать, иначе {@link IllegalArgumentException}. Проверка здесь -
+     * только страховка целостности: сообщить клиенту об отсутствующем пользователе должен вызывающий.
+     */
+    Book createBook(Book book);
+
+    /**
+     * Как {@link #createBook(Book)} для каждой книги.
+     */
+    List<Book> createBooks(List<Book> books);
+
+    /**
+     * Если изменение переносит книгу к другому пользователю, он должен существовать,
+     * иначе {@link IllegalArgumentException}.
+     */
+    Optional<Book> updateBook(long id, Consumer<Book> change);
+
+    Optional<Book> findBook(long id);
+
+    boolean deleteBook(long id);
+
+    long[] findBookIdsByUserId(long userId);
+
+    List<Book> findBooksByUserId(long userId);
+
+    int deleteBooksByUserId(long userId);
 }
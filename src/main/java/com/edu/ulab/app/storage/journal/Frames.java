@@ -0,0 +1,81 @@
+package com.edu.ulab.app.storage.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Кадры журнала: длина, CRC32C и полезная нагрузка. Кадр нулевой длины - маркер конца.
+ */
+final class Frames {
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_PAYLOAD_SIZE = 1 << 24;
+
+    enum End {
+        MARKER,
+        EOF,
+        TORN
+    }
+
+    private Frames() {
+    }
+
+    static void write(DataOutput out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(crc(payload));
+        out.write(payload);
+    }
+
+    static void writeEnd(DataOutput out) throws IOException {
+        out.writeInt(0);
+    }
+
+    static ByteBuffer frame(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt(crc(payload)).put(payload);
+        return buffer.flip();
+    }
+
+    /**
+     * Читает кадры до маркера конца, конца потока или первого повреждённого кадра.
+     */
+    static End read(InputStream in, Consumer<ByteBuffer> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        while (true) {
+            int length;
+            try {
+                length = data.readInt();
+            } catch (EOFException e) {
+                return End.EOF;
+            }
+            if (length == 0) {
+                return End.MARKER;
+            }
+            if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+                return End.TORN;
+            }
+            byte[] payload = new byte[length];
+            try {
+                int crc = data.readInt();
+                data.readFully(payload);
+                if (crc != crc(payload)) {
+                    return End.TORN;
+                }
+            } catch (EOFException e) {
+                return End.TORN;
+            }
+            consumer.accept(ByteBuffer.wrap(payload));
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,144 @@
+package com.edu.ulab.app.storage.journal;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.InMemoryStorage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Бинарный формат записей журнала и снимка.
+ * <p>
+ * Каждая запись - полное состояние одной сущности либо удаление, поэтому повторное
+ * применение записи идемпотентно и журнал можно проигрывать поверх нечёткого снимка.
+ */
+final class JournalRecord {
+    static final byte PUT_PERSON = 1;
+    static final byte PUT_BOOK = 2;
+    static final byte DELETE_PERSON = 3;
+    static final byte DELETE_BOOK = 4;
+    static final byte DELETE_BOOKS_BY_USER = 5;
+    static final byte ID_SEQUENCE = 6;
+
+    private static final int NULL_LENGTH = -1;
+
+    private JournalRecord() {
+    }
+
+    static byte[] putPerson(Person person) {
+        byte[] fullName = bytes(person.getFullName());
+        byte[] title = bytes(person.getTitle());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES + stringSize(fullName) + stringSize(title) + 2 * (1 + Integer.BYTES));
+        buffer.put(PUT_PERSON);
+        buffer.putLong(person.getId());
+        putString(buffer, fullName);
+        putString(buffer, title);
+        putNullableInt(buffer, person.getAge());
+        putNullableInt(buffer, person.getRating());
+        return buffer.array();
+    }
+
+    static byte[] putBook(Book book) {
+        byte[] title = bytes(book.getTitle());
+        byte[] author = bytes(book.getAuthor());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 3 * Long.BYTES + stringSize(title) + stringSize(author));
+        buffer.put(PUT_BOOK);
+        buffer.putLong(book.getId());
+        buffer.putLong(book.getUserId());
+        putString(buffer, title);
+        putString(buffer, author);
+        buffer.putLong(book.getPageCount());
+        return buffer.array();
+    }
+
+    static byte[] deletePerson(long id) {
+        return idRecord(DELETE_PERSON, id);
+    }
+
+    static byte[] deleteBook(long id) {
+        return idRecord(DELETE_BOOK, id);
+    }
+
+    static byte[] deleteBooksByUser(long userId) {
+        return idRecord(DELETE_BOOKS_BY_USER, userId);
+    }
+
+    static byte[] idSequence(long value) {
+        return idRecord(ID_SEQUENCE, value);
+    }
+
+    static void apply(ByteBuffer record, InMemoryStorage storage) {
+        byte type = record.get();
+        switch (type) {
+            case PUT_PERSON -> storage.restorePerson(readPerson(record));
+            case PUT_BOOK -> storage.restoreBook(readBook(record));
+            case DELETE_PERSON -> storage.deletePerson(record.getLong());
+            case DELETE_BOOK -> storage.deleteBook(record.getLong());
+            case DELETE_BOOKS_BY_USER -> storage.deleteBooksByUserId(record.getLong());
+            case ID_SEQUENCE -> storage.advanceIdSequence(record.getLong());
+            default -> throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    private static Person readPerson(ByteBuffer record) {
+        Person person = new Person();
+        person.setId(record.getLong());
+        person.setFullName(getString(record));
+        person.setTitle(getString(record));
+        person.setAge(getNullableInt(record));
+        person.setRating(getNullableInt(record));
+        return person;
+    }
+
+    private static Book readBook(ByteBuffer record) {
+        Book book = new Book();
+        book.setId(record.getLong());
+        book.setUserId(record.getLong());
+        book.setTitle(getString(record));
+        book.setAuthor(getString(record));
+        book.setPageCount(record.getLong());
+        return book;
+    }
+
+    private static byte[] idRecord(byte type, long id) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(type).putLong(id).array();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putNullableInt(ByteBuffer buffer, Integer value) {
+        buffer.put((byte) (value == null ? 0 : 1));
+        buffer.putInt(value == null ? 0 : value);
+    }
+
+    private static Integer getNullableInt(ByteBuffer buffer) {
+        boolean present = buffer.get() != 0;
+        int value = buffer.getInt();
+        return present ? value : null;
+    }
+}
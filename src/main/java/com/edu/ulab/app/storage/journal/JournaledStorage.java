@@ -0,0 +1,317 @@
+package com.edu.ulab.app.storage.journal;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.InMemoryStorage;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link InMemoryStorage} с журналом упреждающей записи и периодическими снимками.
+ * <p>
+ * Изменение применяется в памяти и кладётся в журнал под одной короткой блокировкой,
+ * чтобы порядок записей в журнале совпадал с порядком применения. Ожидание fsync идёт уже
+ * вне блокировки, поэтому параллельные запросы попадают в один групповой коммит.
+ * До окончания fsync изменение видно читателям, но вызывающий код получает ответ только после
+ * него. Если запись в журнал или fsync не удались, все ещё не сброшенные на диск изменения
+ * откатываются в памяти в обратном порядке, и вызывающий код получает исключение.
+ * Снимок снимается без остановки записи: журнал переключается на новый сегмент, после чего
+ * состояние обходится "на ходу", а при восстановлении этот сегмент проигрывается поверх снимка.
+ */
+@Slf4j
+public class JournaledStorage implements Storage, Closeable {
+    private final InMemoryStorage delegate;
+    private final Path directory;
+    private final WriteAheadLog journal;
+    private final ReentrantLock mutationLock = new ReentrantLock();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final ScheduledExecutorService checkpointExecutor;
+    /**
+     * Откаты изменений, которые ещё не на диске, по номеру последней записи журнала.
+     */
+    private final NavigableMap<Long, Runnable> undoLog = new ConcurrentSkipListMap<>();
+
+    private JournaledStorage(InMemoryStorage delegate, Path directory, WriteAheadLog journal, Duration checkpointInterval) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.journal = journal;
+        if (checkpointInterval == null || checkpointInterval.isZero() || checkpointInterval.isNegative()) {
+            this.checkpointExecutor = null;
+        } else {
+            this.checkpointExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "storage-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = checkpointInterval.toMillis();
+            checkpointExecutor.scheduleWithFixedDelay(this::scheduledCheckpoint, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Восстанавливает хранилище из снимка и хвоста журнала и открывает журнал на запись.
+     */
+    public static JournaledStorage open(InMemoryStorage delegate,
+                                        Path directory,
+                                        SyncMode syncMode,
+                                        Duration checkpointInterval) throws IOException {
+        Files.createDirectories(directory);
+        long firstSegment = Snapshot.read(directory, delegate);
+        long lastSegment = WriteAheadLog.replay(directory, firstSegment, record -> JournalRecord.apply(record, delegate));
+        log.info("Storage recovered from {}: {} users, {} books", directory, delegate.personCount(), delegate.bookCount());
+        WriteAheadLog journal = new WriteAheadLog(directory, syncMode, Math.max(firstSegment, lastSegment + 1));
+        return new JournaledStorage(delegate, directory, journal, checkpointInterval);
+    }
+
+    @Override
+    public Person createPerson(Person person) {
+        return logged(() -> {
+            Person created = delegate.createPerson(person);
+            return new Applied<>(created, () -> delegate.deletePerson(created.getId()));
+        }, JournalRecord::putPerson);
+    }
+
+    @Override
+    public Optional<Person> updatePerson(long id, Consumer<Person> change) {
+        return logged(() -> {
+            Optional<Person> previous = delegate.findPerson(id);
+            return new Applied<>(delegate.updatePerson(id, change), () -> previous.ifPresent(delegate::restorePerson));
+        }, updated -> updated.map(JournalRecord::putPerson).orElse(null));
+    }
+
+    @Override
+    public Optional<Person> findPerson(long id) {
+        return delegate.findPerson(id);
+    }
+
+    @Override
+    public boolean existsPerson(long id) {
+        return delegate.existsPerson(id);
+    }
+
+    @Override
+    public boolean deletePerson(long id) {
+        return logged(() -> {
+            Optional<Person> previous = delegate.findPerson(id);
+            return new Applied<>(delegate.deletePerson(id), () -> previous.ifPresent(delegate::restorePerson));
+        }, deleted -> deleted ? JournalRecord.deletePerson(id) : null);
+    }
+
+    @Override
+    public List<Person> findPersonsPage(Integer rating, long afterId, int limit) {
+        return delegate.findPersonsPage(rating, afterId, limit);
+    }
+
+    @Override
+    public Book createBook(Book book) {
+        return logged(() -> {
+            Book created = delegate.createBook(book);
+            return new Applied<>(created, () -> delegate.deleteBook(created.getId()));
+        }, JournalRecord::putBook);
+    }
+
+    @Override
+    public List<Book> createBooks(List<Book> books) {
+        List<Book> created;
+        long ticket;
+        mutationLock.lock();
+        try {
+            created = delegate.createBooks(books);
+            if (created.isEmpty()) {
+                return created;
+            }
+            Runnable undo = () -> created.forEach(book -> delegate.deleteBook(book.getId()));
+            try {
+                ticket = 0L;
+                for (Book book : created) {
+                    ticket = journal.append(JournalRecord.putBook(book));
+                }
+            } catch (IOException e) {
+                undo.run();
+                throw new UncheckedIOException("Failed to append to storage journal", e);
+            }
+            undoLog.put(ticket, undo);
+        } finally {
+            mutationLock.unlock();
+        }
+        awaitDurable(ticket);
+        return created;
+    }
+
+    @Override
+    public Optional<Book> updateBook(long id, Consumer<Book> change) {
+        return logged(() -> {
+            Optional<Book> previous = delegate.findBook(id);
+            return new Applied<>(delegate.updateBook(id, change), () -> previous.ifPresent(delegate::restoreBook));
+        }, updated -> updated.map(JournalRecord::putBook).orElse(null));
+    }
+
+    @Override
+    public Optional<Book> findBook(long id) {
+        return delegate.findBook(id);
+    }
+
+    @Override
+    public boolean deleteBook(long id) {
+        return logged(() -> {
+            Optional<Book> previous = delegate.findBook(id);
+            return new Applied<>(delegate.deleteBook(id), () -> previous.ifPresent(delegate::restoreBook));
+        }, deleted -> deleted ? JournalRecord.deleteBook(id) : null);
+    }
+
+    @Override
+    public long[] findBookIdsByUserId(long userId) {
+        return delegate.findBookIdsByUserId(userId);
+    }
+
+    @Override
+    public List<Book> findBooksByUserId(long userId) {
+        return delegate.findBooksByUserId(userId);
+    }
+
+    @Override
+    public int deleteBooksByUserId(long userId) {
+        return logged(() -> {
+            List<Book> previous = delegate.findBooksByUserId(userId);
+            return new Applied<>(delegate.deleteBooksByUserId(userId), () -> previous.forEach(delegate::restoreBook));
+        }, deleted -> deleted > 0 ? JournalRecord.deleteBooksByUser(userId) : null);
+    }
+
+    /**
+     * Снимает снимок и удаляет сегменты журнала, которые он покрывает.
+     * <p>
+     * Снимок снимается на ходу и может захватить изменения, которые ещё не на диске. Если журнал затем
+     * откажет, такие изменения откатятся в памяти, но остались бы в снимке. Поэтому снимок публикуется только
+     * после того, как на диске оказались все записи, принятые до конца его обхода; при сбое журнала
+     * он выбрасывается, а прежний снимок и сегменты остаются.
+     */
+    public void checkpoint() throws IOException {
+        checkpointLock.lock();
+        try {
+            long firstSegment;
+            mutationLock.lock();
+            try {
+                firstSegment = journal.rotate();
+            } finally {
+                mutationLock.unlock();
+            }
+            Snapshot.write(directory, firstSegment, delegate);
+            long lastCaptured;
+            mutationLock.lock();
+            try {
+                // изменение применяется и получает номер под этой блокировкой, поэтому все изменения,
+                // попавшие в снимок, имеют номер не больше текущего
+                lastCaptured = journal.appended();
+            } finally {
+                mutationLock.unlock();
+            }
+            try {
+                journal.awaitDurable(lastCaptured);
+            } catch (IOException e) {
+                Snapshot.discard(directory);
+                throw e;
+            }
+            Snapshot.publish(directory);
+            journal.deleteSegmentsBefore(firstSegment);
+            log.info("Storage checkpoint written, journal truncated before segment {}", firstSegment);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdownNow();
+        }
+        checkpointLock.lock();
+        mutationLock.lock();
+        try {
+            journal.close();
+        } finally {
+            mutationLock.unlock();
+            checkpointLock.unlock();
+        }
+    }
+
+    private void scheduledCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            log.error("Storage checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Применяет изменение и кладёт его в журнал. Откат изменения действует, пока запись не на диске.
+     */
+    private <T> T logged(Supplier<Applied<T>> mutation, Function<T, byte[]> record) {
+        Applied<T> applied;
+        long ticket;
+        mutationLock.lock();
+        try {
+            applied = mutation.get();
+            byte[] payload = record.apply(applied.result());
+            if (payload == null) {
+                return applied.result();
+            }
+            try {
+                ticket = journal.append(payload);
+            } catch (IOException e) {
+                applied.undo().run();
+                throw new UncheckedIOException("Failed to append to storage journal", e);
+            }
+            undoLog.put(ticket, applied.undo());
+        } finally {
+            mutationLock.unlock();
+        }
+        awaitDurable(ticket);
+        return applied.result();
+    }
+
+    private void awaitDurable(long ticket) {
+        try {
+            journal.awaitDurable(ticket);
+            undoLog.remove(ticket);
+        } catch (IOException e) {
+            rollbackNotDurable();
+            throw new UncheckedIOException("Failed to sync storage journal", e);
+        }
+    }
+
+    /**
+     * После сбоя журнал больше не принимает записи, поэтому под блокировкой изменений набор
+     * несохранённых изменений уже не растёт, и их можно откатить от последнего к первому.
+     */
+    private void rollbackNotDurable() {
+        mutationLock.lock();
+        try {
+            NavigableMap<Long, Runnable> notDurable = undoLog.tailMap(journal.durable(), false).descendingMap();
+            notDurable.values().forEach(Runnable::run);
+            notDurable.clear();
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    private record Applied<T>(T result, Runnable undo) {
+    }
+}
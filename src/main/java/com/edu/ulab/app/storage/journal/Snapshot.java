@@ -0,0 +1,111 @@
+package com.edu.ulab.app.storage.journal;
+
+import com.edu.ulab.app.storage.InMemoryStorage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Снимок хранилища: заголовок с номером первого сегмента журнала, который нужно проиграть
+ * после загрузки, и записи {@link JournalRecord} для всех пользователей и книг.
+ * Файл пишется во временный и атомарно переименовывается.
+ */
+final class Snapshot {
+    private static final String FILE_NAME = "snapshot.bin";
+    private static final String TEMP_FILE_NAME = "snapshot.tmp";
+    private static final int MAGIC = 0x554C4142;
+    private static final int VERSION = 1;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Пишет снимок во временный файл; на место снимка он встаёт только после {@link #publish(Path)}.
+     */
+    static void write(Path directory, long firstSegment, InMemoryStorage storage) throws IOException {
+        Path temp = directory.resolve(TEMP_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(firstSegment);
+            try {
+                storage.forEachPerson(person -> writeFrame(out, JournalRecord.putPerson(person)));
+                storage.forEachBook(book -> writeFrame(out, JournalRecord.putBook(book)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Frames.write(out, JournalRecord.idSequence(storage.currentId()));
+            Frames.writeEnd(out);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Атомарно заменяет снимок временным файлом, записанным {@link #write}.
+     */
+    static void publish(Path directory) throws IOException {
+        Files.move(directory.resolve(TEMP_FILE_NAME), directory.resolve(FILE_NAME),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(directory);
+    }
+
+    /**
+     * Удаляет временный файл снимка, который нельзя публиковать; действующий снимок не затрагивается.
+     */
+    static void discard(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(TEMP_FILE_NAME));
+    }
+
+    /**
+     * Загружает снимок в хранилище.
+     *
+     * @return номер первого сегмента журнала, который нужно проиграть поверх снимка
+     */
+    static long read(Path directory, InMemoryStorage storage) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format: " + file);
+            }
+            long firstSegment = data.readLong();
+            if (Frames.read(data, record -> JournalRecord.apply(record, storage)) != Frames.End.MARKER) {
+                throw new IOException("Snapshot is truncated or corrupted: " + file);
+            }
+            return firstSegment;
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] payload) {
+        try {
+            Frames.write(out, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // не все платформы позволяют открыть каталог на чтение, переименование всё равно атомарно
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.storage.journal;
+
+/**
+ * Режим сброса журнала на диск.
+ */
+public enum SyncMode {
+    /**
+     * fsync на каждую запись, записи сбрасываются строго по одной.
+     */
+    PER_WRITE,
+    /**
+     * Групповой коммит: записи, накопленные за время предыдущего fsync, сбрасываются одним fsync.
+     */
+    GROUP
+}
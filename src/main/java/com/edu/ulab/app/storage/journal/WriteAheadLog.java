@@ -0,0 +1,280 @@
+package com.edu.ulab.app.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал упреждающей записи, разбитый на сегменты {@code wal-<номер>.log}.
+ * <p>
+ * {@link #append} только кладёт кадр в буфер и возвращает номер записи, ввода-вывода в нём нет.
+ * {@link #awaitDurable} ждёт, пока запись окажется на диске: первый ожидающий поток становится ведущим,
+ * забирает весь накопленный буфер и пишет его, остальные потоки ждут результата. В режиме
+ * {@link SyncMode#GROUP} на весь буфер делается один fsync, в режиме {@link SyncMode#PER_WRITE} -
+ * fsync после каждого кадра. Пока идёт запись, в буфере копится следующая группа.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final SyncMode syncMode;
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private final Object monitor = new Object();
+
+    private FileChannel channel;
+    private long segment;
+
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private long appended;
+    private long durable;
+    private boolean syncing;
+    private IOException failure;
+
+    public WriteAheadLog(Path directory, SyncMode syncMode, long segment) throws IOException {
+        this.directory = directory;
+        this.syncMode = syncMode;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+    }
+
+    public long append(byte[] payload) throws IOException {
+        ByteBuffer frame = Frames.frame(payload);
+        synchronized (monitor) {
+            checkFailure();
+            pending.add(frame);
+            return ++appended;
+        }
+    }
+
+    /**
+     * Номер последней принятой записи, в том числе ещё не сброшенной на диск.
+     */
+    public long appended() {
+        synchronized (monitor) {
+            return appended;
+        }
+    }
+
+    /**
+     * Номер последней записи, которая уже на диске.
+     */
+    public long durable() {
+        synchronized (monitor) {
+            return durable;
+        }
+    }
+
+    public void awaitDurable(long ticket) throws IOException {
+        while (true) {
+            synchronized (monitor) {
+                while (syncing && durable < ticket && failure == null) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for journal sync");
+                    }
+                }
+                checkFailure();
+                if (durable >= ticket) {
+                    return;
+                }
+                syncing = true;
+            }
+            IOException error = null;
+            ioLock.lock();
+            try {
+                long target;
+                List<ByteBuffer> batch;
+                synchronized (monitor) {
+                    target = appended;
+                    batch = drainPending();
+                }
+                if (syncMode == SyncMode.PER_WRITE) {
+                    syncOneByOne(batch, target - batch.size());
+                } else {
+                    writeFully(batch);
+                    channel.force(false);
+                    synchronized (monitor) {
+                        durable = Math.max(durable, target);
+                    }
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                ioLock.unlock();
+                synchronized (monitor) {
+                    syncing = false;
+                    if (error != null && failure == null) {
+                        failure = error;
+                    }
+                    monitor.notifyAll();
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает накопленные записи и переключает журнал на новый сегмент.
+     * Вызывающий код должен гарантировать отсутствие параллельных {@link #append}.
+     *
+     * @return номер нового сегмента
+     */
+    public long rotate() throws IOException {
+        ioLock.lock();
+        try {
+            flushPending();
+            channel.close();
+            segment++;
+            channel = openSegment(segment);
+            return segment;
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    public void deleteSegmentsBefore(long firstRetained) throws IOException {
+        for (long candidate : segments(directory)) {
+            if (candidate < firstRetained) {
+                Files.deleteIfExists(segmentPath(directory, candidate));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ioLock.lock();
+        try {
+            if (channel.isOpen()) {
+                flushPending();
+                channel.close();
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    public static List<Long> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Проигрывает сегменты начиная с {@code fromSegment}.
+     *
+     * @return номер последнего прочитанного сегмента или {@code fromSegment - 1}, если сегментов нет
+     */
+    public static long replay(Path directory, long fromSegment, Consumer<ByteBuffer> consumer) throws IOException {
+        long last = fromSegment - 1;
+        for (long candidate : segments(directory)) {
+            if (candidate < fromSegment) {
+                continue;
+            }
+            Path path = segmentPath(directory, candidate);
+            try (InputStream in = Files.newInputStream(path)) {
+                if (Frames.read(new BufferedInputStream(in, 1 << 16), consumer) == Frames.End.TORN) {
+                    log.warn("Journal segment {} ends with a torn record, the tail is ignored", path);
+                }
+            }
+            last = candidate;
+        }
+        return last;
+    }
+
+    private void flushPending() throws IOException {
+        long target;
+        List<ByteBuffer> batch;
+        synchronized (monitor) {
+            checkFailure();
+            target = appended;
+            batch = drainPending();
+        }
+        writeFully(batch);
+        channel.force(false);
+        synchronized (monitor) {
+            durable = Math.max(durable, target);
+            monitor.notifyAll();
+        }
+    }
+
+    private void syncOneByOne(List<ByteBuffer> batch, long firstTicket) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            writeFully(batch.subList(i, i + 1));
+            channel.force(false);
+            synchronized (monitor) {
+                durable = Math.max(durable, firstTicket + i + 1);
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private List<ByteBuffer> drainPending() {
+        List<ByteBuffer> batch = pending;
+        pending = new ArrayList<>(Math.max(16, batch.size()));
+        return batch;
+    }
+
+    private void writeFully(List<ByteBuffer> buffers) throws IOException {
+        if (buffers.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] frames = buffers.toArray(ByteBuffer[]::new);
+        ByteBuffer last = frames[frames.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(frames);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        synchronized (monitor) {
+            if (failure != null) {
+                throw new IOException("Journal is unavailable after a previous write failure", failure);
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        synchronized (monitor) {
+            if (failure == null) {
+                failure = e;
+            }
+            monitor.notifyAll();
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,93 @@
+package com.edu.ulab.app.storage.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Файл, отображённый в память кусками фиксированного размера.
+ * <p>
+ * Один {@link MappedByteBuffer} ограничен 2 ГБ, поэтому файл отображается частями и растёт
+ * по мере необходимости. Значение не должно пересекать границу куска - за этим следит вызывающий код.
+ * Синхронизация также на стороне вызывающего: рост региона - под блокировкой на запись.
+ */
+final class MappedRegion implements Closeable {
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    MappedRegion(Path file, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.chunkSize = chunkSize;
+        ensureCapacity(Math.max(chunkSize, channel.size()));
+    }
+
+    void ensureCapacity(long capacity) throws IOException {
+        while ((long) chunks.size() * chunkSize < capacity) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+        }
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    byte getByte(long position) {
+        return chunk(position).get(offset(position));
+    }
+
+    void putByte(long position, byte value) {
+        chunk(position).put(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        chunk(position).putInt(offset(position), value);
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        chunk(position).putLong(offset(position), value);
+    }
+
+    byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        chunk(position).get(offset(position), bytes);
+        return bytes;
+    }
+
+    void putBytes(long position, byte[] bytes) {
+        chunk(position).put(offset(position), bytes);
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        return chunks.get((int) (position / chunkSize));
+    }
+
+    private int offset(long position) {
+        return (int) (position % chunkSize);
+    }
+}
@@ -0,0 +1,551 @@
+package com.edu.ulab.app.storage.mapped;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище вне кучи в файлах, отображённых в память.
+ * <p>
+ * Пользователи и книги лежат в слотах фиксированного размера, идентификатор записи равен номеру
+ * слота, поэтому индекс по идентификатору не нужен. Строки хранятся отдельно в арене
+ * (длина + UTF-8), слот хранит смещение строки. Книги пользователя связаны двусвязным списком
+ * по возрастанию идентификатора, голова и хвост списка лежат в слоте пользователя.
+ * Объекты {@link Person} и {@link Book} создаются только на время запроса.
+ * <p>
+ * Запись попадает в страничный кеш ОС сразу, на диск - при {@link #flush()}, {@link #close()}
+ * или по решению ОС. Место удалённых записей и старых строк не переиспользуется.
+ */
+@Slf4j
+public class MappedStorage implements Storage, Closeable {
+    private static final int MAGIC = 0x554C4D53;
+    private static final int VERSION = 1;
+    private static final int SLOT_SIZE = 64;
+    private static final long[] NO_IDS = new long[0];
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_NEXT = 8;
+
+    private static final int STATE = 0;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+
+    private static final int PERSON_NULLS = 1;
+    private static final int PERSON_AGE = 4;
+    private static final int PERSON_RATING = 8;
+    private static final int PERSON_FULL_NAME = 16;
+    private static final int PERSON_TITLE = 24;
+    private static final int PERSON_FIRST_BOOK = 32;
+    private static final int PERSON_LAST_BOOK = 40;
+    private static final byte AGE_NULL = 1;
+    private static final byte RATING_NULL = 2;
+
+    private static final int BOOK_USER_ID = 8;
+    private static final int BOOK_PAGE_COUNT = 16;
+    private static final int BOOK_TITLE = 24;
+    private static final int BOOK_AUTHOR = 32;
+    private static final int BOOK_PREVIOUS = 40;
+    private static final int BOOK_NEXT = 48;
+
+    private static final long NULL_STRING = 0L;
+
+    private final MappedRegion persons;
+    private final MappedRegion books;
+    private final MappedRegion strings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long nextPersonId;
+    private long nextBookId;
+    private long stringsEnd;
+
+    private MappedStorage(MappedRegion persons, MappedRegion books, MappedRegion strings) {
+        this.persons = persons;
+        this.books = books;
+        this.strings = strings;
+        this.nextPersonId = readHeader(persons, 1L);
+        this.nextBookId = readHeader(books, 1L);
+        this.stringsEnd = readHeader(strings, SLOT_SIZE);
+    }
+
+    public static MappedStorage open(Path directory, int chunkSize) throws IOException {
+        if (chunkSize < SLOT_SIZE || chunkSize % SLOT_SIZE != 0) {
+            throw new IllegalArgumentException("Chunk size must be a multiple of " + SLOT_SIZE + ": " + chunkSize);
+        }
+        Files.createDirectories(directory);
+        MappedStorage storage = new MappedStorage(
+                new MappedRegion(directory.resolve("persons.dat"), chunkSize),
+                new MappedRegion(directory.resolve("books.dat"), chunkSize),
+                new MappedRegion(directory.resolve("strings.dat"), chunkSize));
+        log.info("Mapped storage opened at {}: next user id {}, next book id {}",
+                directory, storage.nextPersonId, storage.nextBookId);
+        return storage;
+    }
+
+    @Override
+    public Person createPerson(Person person) {
+        lock.writeLock().lock();
+        try {
+            long id = nextPersonId;
+            long slot = slot(id);
+            ensureCapacity(persons, slot + SLOT_SIZE);
+            writePerson(slot, person, null);
+            persons.putLong(slot + PERSON_FIRST_BOOK, 0L);
+            persons.putLong(slot + PERSON_LAST_BOOK, 0L);
+            persons.putByte(slot + STATE, LIVE);
+            nextPersonId = writeHeader(persons, id + 1);
+            return readPerson(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Person> updatePerson(long id, Consumer<Person> change) {
+        lock.writeLock().lock();
+        try {
+            if (!isLive(persons, id, nextPersonId)) {
+                return Optional.empty();
+            }
+            Person current = readPerson(id);
+            Person next = readPerson(id);
+            change.accept(next);
+            writePerson(slot(id), next, current);
+            return Optional.of(readPerson(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Person> findPerson(long id) {
+        lock.readLock().lock();
+        try {
+            return isLive(persons, id, nextPersonId) ? Optional.of(readPerson(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsPerson(long id) {
+        lock.readLock().lock();
+        try {
+            return isLive(persons, id, nextPersonId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deletePerson(long id) {
+        lock.writeLock().lock();
+        try {
+            if (!isLive(persons, id, nextPersonId)) {
+                return false;
+            }
+            // голова списка книг остаётся в слоте, чтобы книги удалённого пользователя можно было найти и удалить
+            persons.putByte(slot(id) + STATE, DELETED);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Идентификатор равен номеру слота, поэтому слоты просматриваются по порядку начиная со следующего
+     * за {@code afterId}, и просмотр останавливается на {@code limit}-м подходящем пользователе.
+     */
+    @Override
+    public List<Person> findPersonsPage(Integer rating, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Person> result = new ArrayList<>();
+            for (long id = Math.max(afterId + 1, 1L); id < nextPersonId && result.size() < limit; id++) {
+                if (persons.getByte(slot(id) + STATE) == LIVE && hasRating(id, rating)) {
+                    result.add(readPerson(id));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Book createBook(Book book) {
+        lock.writeLock().lock();
+        try {
+            return insertBook(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> createBooks(List<Book> newBooks) {
+        lock.writeLock().lock();
+        try {
+            List<Book> created = new ArrayList<>(newBooks.size());
+            // проверяются все книги до первой записи, чтобы пачка не сохранилась наполовину
+            newBooks.forEach(book -> requireUser(book.getUserId()));
+            for (Book book : newBooks) {
+                created.add(insertBook(book));
+            }
+            return created;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> updateBook(long id, Consumer<Book> change) {
+        lock.writeLock().lock();
+        try {
+            if (!isLive(books, id, nextBookId)) {
+                return Optional.empty();
+            }
+            Book current = readBook(id);
+            Book next = readBook(id);
+            change.accept(next);
+            long userId = Objects.equals(next.getUserId(), current.getUserId())
+                    ? current.getUserId()
+                    : requireUser(next.getUserId());
+            writeBook(slot(id), next, current);
+            if (userId != current.getUserId()) {
+                unlink(current.getUserId(), id);
+                books.putLong(slot(id) + BOOK_USER_ID, userId);
+                link(userId, id);
+            }
+            return Optional.of(readBook(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> findBook(long id) {
+        lock.readLock().lock();
+        try {
+            return isLive(books, id, nextBookId) ? Optional.of(readBook(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteBook(long id) {
+        lock.writeLock().lock();
+        try {
+            if (!isLive(books, id, nextBookId)) {
+                return false;
+            }
+            unlink(books.getLong(slot(id) + BOOK_USER_ID), id);
+            books.putByte(slot(id) + STATE, DELETED);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] findBookIdsByUserId(long userId) {
+        lock.readLock().lock();
+        try {
+            if (!isAllocated(userId, nextPersonId)) {
+                return NO_IDS;
+            }
+            long[] ids = new long[16];
+            int count = 0;
+            for (long id = persons.getLong(slot(userId) + PERSON_FIRST_BOOK); id != 0L; id = books.getLong(slot(id) + BOOK_NEXT)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+            return Arrays.copyOf(ids, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> findBooksByUserId(long userId) {
+        lock.readLock().lock();
+        try {
+            if (!isAllocated(userId, nextPersonId)) {
+                return List.of();
+            }
+            List<Book> result = new ArrayList<>();
+            for (long id = persons.getLong(slot(userId) + PERSON_FIRST_BOOK); id != 0L; id = books.getLong(slot(id) + BOOK_NEXT)) {
+                result.add(readBook(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteBooksByUserId(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (!isAllocated(userId, nextPersonId)) {
+                return 0;
+            }
+            long userSlot = slot(userId);
+            int deleted = 0;
+            for (long id = persons.getLong(userSlot + PERSON_FIRST_BOOK); id != 0L; id = books.getLong(slot(id) + BOOK_NEXT)) {
+                books.putByte(slot(id) + STATE, DELETED);
+                deleted++;
+            }
+            persons.putLong(userSlot + PERSON_FIRST_BOOK, 0L);
+            persons.putLong(userSlot + PERSON_LAST_BOOK, 0L);
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Принудительно сбрасывает отображённые страницы на диск.
+     */
+    public void flush() {
+        lock.readLock().lock();
+        try {
+            persons.force();
+            books.force();
+            strings.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            persons.close();
+            books.close();
+            strings.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Book insertBook(Book book) {
+        long userId = requireUser(book.getUserId());
+        long id = nextBookId;
+        long slot = slot(id);
+        ensureCapacity(books, slot + SLOT_SIZE);
+        writeBook(slot, book, null);
+        books.putLong(slot + BOOK_USER_ID, userId);
+        link(userId, id);
+        books.putByte(slot + STATE, LIVE);
+        nextBookId = writeHeader(books, id + 1);
+        return readBook(id);
+    }
+
+    private Person readPerson(long id) {
+        long slot = slot(id);
+        byte nulls = persons.getByte(slot + PERSON_NULLS);
+        Person person = new Person();
+        person.setId(id);
+        person.setFullName(readString(persons.getLong(slot + PERSON_FULL_NAME)));
+        person.setTitle(readString(persons.getLong(slot + PERSON_TITLE)));
+        person.setAge((nulls & AGE_NULL) != 0 ? null : persons.getInt(slot + PERSON_AGE));
+        person.setRating((nulls & RATING_NULL) != 0 ? null : persons.getInt(slot + PERSON_RATING));
+        return person;
+    }
+
+    private boolean hasRating(long id, Integer rating) {
+        if (rating == null) {
+            return true;
+        }
+        long slot = slot(id);
+        return (persons.getByte(slot + PERSON_NULLS) & RATING_NULL) == 0 && persons.getInt(slot + PERSON_RATING) == rating;
+    }
+
+    private void writePerson(long slot, Person person, Person current) {
+        byte nulls = 0;
+        if (person.getAge() == null) {
+            nulls |= AGE_NULL;
+        }
+        if (person.getRating() == null) {
+            nulls |= RATING_NULL;
+        }
+        persons.putByte(slot + PERSON_NULLS, nulls);
+        persons.putInt(slot + PERSON_AGE, person.getAge() == null ? 0 : person.getAge());
+        persons.putInt(slot + PERSON_RATING, person.getRating() == null ? 0 : person.getRating());
+        if (current == null || !Objects.equals(current.getFullName(), person.getFullName())) {
+            persons.putLong(slot + PERSON_FULL_NAME, writeString(person.getFullName()));
+        }
+        if (current == null || !Objects.equals(current.getTitle(), person.getTitle())) {
+            persons.putLong(slot + PERSON_TITLE, writeString(person.getTitle()));
+        }
+    }
+
+    private Book readBook(long id) {
+        long slot = slot(id);
+        Book book = new Book();
+        book.setId(id);
+        book.setUserId(books.getLong(slot + BOOK_USER_ID));
+        book.setTitle(readString(books.getLong(slot + BOOK_TITLE)));
+        book.setAuthor(readString(books.getLong(slot + BOOK_AUTHOR)));
+        book.setPageCount(books.getLong(slot + BOOK_PAGE_COUNT));
+        return book;
+    }
+
+    private void writeBook(long slot, Book book, Book current) {
+        books.putLong(slot + BOOK_PAGE_COUNT, book.getPageCount());
+        if (current == null || !Objects.equals(current.getTitle(), book.getTitle())) {
+            books.putLong(slot + BOOK_TITLE, writeString(book.getTitle()));
+        }
+        if (current == null || !Objects.equals(current.getAuthor(), book.getAuthor())) {
+            books.putLong(slot + BOOK_AUTHOR, writeString(book.getAuthor()));
+        }
+    }
+
+    /**
+     * Вставляет книгу в список пользователя с сохранением порядка по идентификатору.
+     * Новые книги имеют наибольший идентификатор и попадают в хвост за O(1).
+     */
+    private void link(long userId, long bookId) {
+        long userSlot = slot(userId);
+        long previous = persons.getLong(userSlot + PERSON_LAST_BOOK);
+        while (previous != 0L && previous > bookId) {
+            previous = books.getLong(slot(previous) + BOOK_PREVIOUS);
+        }
+        long next = previous == 0L
+                ? persons.getLong(userSlot + PERSON_FIRST_BOOK)
+                : books.getLong(slot(previous) + BOOK_NEXT);
+        long bookSlot = slot(bookId);
+        books.putLong(bookSlot + BOOK_PREVIOUS, previous);
+        books.putLong(bookSlot + BOOK_NEXT, next);
+        if (previous == 0L) {
+            persons.putLong(userSlot + PERSON_FIRST_BOOK, bookId);
+        } else {
+            books.putLong(slot(previous) + BOOK_NEXT, bookId);
+        }
+        if (next == 0L) {
+            persons.putLong(userSlot + PERSON_LAST_BOOK, bookId);
+        } else {
+            books.putLong(slot(next) + BOOK_PREVIOUS, bookId);
+        }
+    }
+
+    private void unlink(long userId, long bookId) {
+        long userSlot = slot(userId);
+        long bookSlot = slot(bookId);
+        long previous = books.getLong(bookSlot + BOOK_PREVIOUS);
+        long next = books.getLong(bookSlot + BOOK_NEXT);
+        if (previous == 0L) {
+            persons.putLong(userSlot + PERSON_FIRST_BOOK, next);
+        } else {
+            books.putLong(slot(previous) + BOOK_NEXT, next);
+        }
+        if (next == 0L) {
+            persons.putLong(userSlot + PERSON_LAST_BOOK, previous);
+        } else {
+            books.putLong(slot(next) + BOOK_PREVIOUS, previous);
+        }
+        books.putLong(bookSlot + BOOK_PREVIOUS, 0L);
+        books.putLong(bookSlot + BOOK_NEXT, 0L);
+    }
+
+    /**
+     * Книга привязывается к слоту пользователя, поэтому пользователь должен существовать.
+     * Книги, уже привязанные к удалённому пользователю, остаются в его слоте.
+     */
+    private long requireUser(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("Book user id must not be null");
+        }
+        if (!isLive(persons, userId, nextPersonId)) {
+            throw new IllegalArgumentException("Book user id: " + userId + " does not exist");
+        }
+        return userId;
+    }
+
+    private String readString(long reference) {
+        if (reference == NULL_STRING) {
+            return null;
+        }
+        int length = strings.getInt(reference);
+        return new String(strings.getBytes(reference + Integer.BYTES, length), StandardCharsets.UTF_8);
+    }
+
+    private long writeString(String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = Integer.BYTES + bytes.length;
+        int chunkSize = strings.chunkSize();
+        if (size > chunkSize) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes does not fit into a storage chunk");
+        }
+        long position = stringsEnd;
+        if (position % chunkSize + size > chunkSize) {
+            position = (position / chunkSize + 1) * chunkSize;
+        }
+        ensureCapacity(strings, position + size);
+        strings.putInt(position, bytes.length);
+        strings.putBytes(position + Integer.BYTES, bytes);
+        stringsEnd = writeHeader(strings, position + size);
+        return position;
+    }
+
+    private static boolean isAllocated(long id, long nextId) {
+        return id > 0L && id < nextId;
+    }
+
+    private static boolean isLive(MappedRegion region, long id, long nextId) {
+        return isAllocated(id, nextId) && region.getByte(slot(id) + STATE) == LIVE;
+    }
+
+    private static long slot(long id) {
+        return id * SLOT_SIZE;
+    }
+
+    private static void ensureCapacity(MappedRegion region, long capacity) {
+        try {
+            region.ensureCapacity(capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow mapped storage", e);
+        }
+    }
+
+    private static long readHeader(MappedRegion region, long initialNext) {
+        int magic = region.getInt(HEADER_MAGIC);
+        if (magic == 0) {
+            region.putInt(HEADER_MAGIC, MAGIC);
+            region.putInt(HEADER_VERSION, VERSION);
+            return writeHeader(region, initialNext);
+        }
+        if (magic != MAGIC || region.getInt(HEADER_VERSION) != VERSION) {
+            throw new IllegalStateException("Unsupported mapped storage file format");
+        }
+        return region.getLong(HEADER_NEXT);
+    }
+
+    private static long writeHeader(MappedRegion region, long next) {
+        region.putLong(HEADER_NEXT, next);
+        return next;
+    }
+}
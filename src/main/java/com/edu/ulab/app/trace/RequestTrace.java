@@ -0,0 +1,113 @@
+package com.edu.ulab.app.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Участки одного HTTP-запроса в порядке начала. Вложенность задаётся глубиной участка,
+ * дерево строится только при чтении.
+ */
+public class RequestTrace {
+    private final String requestId;
+    private final String method;
+    private final String uri;
+    private final long startedAtMillis;
+    private final int maxSpans;
+    private final List<Span> spans;
+    private Span[] stack = new Span[16];
+    private String[] layers = new String[16];
+    private int depth;
+    private int droppedSpans;
+
+    RequestTrace(String requestId, String method, String uri, int maxSpans) {
+        this.requestId = requestId;
+        this.method = method;
+        this.uri = uri;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.maxSpans = maxSpans;
+        this.spans = new ArrayList<>(Math.min(maxSpans, 32));
+    }
+
+    /**
+     * Открывает вложенный участок. Сверх лимита участки не сохраняются, но вложенность учитывается,
+     * чтобы закрытие оставалось парным.
+     */
+    void start(String layer, String type, String name) {
+        Span span = null;
+        if (spans.size() < maxSpans) {
+            span = new Span(layer, type, name, depth, System.nanoTime());
+            spans.add(span);
+        } else {
+            droppedSpans++;
+        }
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            layers = Arrays.copyOf(layers, depth * 2);
+        }
+        layers[depth] = layer;
+        stack[depth++] = span;
+    }
+
+    void end() {
+        if (depth == 0) {
+            return;
+        }
+        Span span = stack[--depth];
+        stack[depth] = null;
+        layers[depth] = null;
+        if (span != null) {
+            span.end(System.nanoTime());
+        }
+    }
+
+    /**
+     * Закрывает текущий участок, только если он открыт на этом слое: начало участка могло
+     * не выполниться, если его прервал другой обработчик.
+     */
+    void end(String layer) {
+        if (depth > 0 && layer.equals(layers[depth - 1])) {
+            end();
+        }
+    }
+
+    /**
+     * Закрывает все открытые участки, включая корневой.
+     */
+    void endAll() {
+        while (depth > 0) {
+            end();
+        }
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    /**
+     * Длительность корневого участка.
+     */
+    public long getDurationNanos() {
+        return spans.isEmpty() ? 0 : spans.get(0).getDurationNanos();
+    }
+}
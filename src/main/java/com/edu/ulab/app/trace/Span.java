@@ -0,0 +1,51 @@
+package com.edu.ulab.app.trace;
+
+/**
+ * Участок обработки запроса. Пишется только потоком запроса и после публикации трассы не меняется.
+ */
+public class Span {
+    private final String layer;
+    private final String type;
+    private final String name;
+    private final int depth;
+    private final long startNanos;
+    private long durationNanos = -1;
+
+    Span(String layer, String type, String name, int depth, long startNanos) {
+        this.layer = layer;
+        this.type = type;
+        this.name = name;
+        this.depth = depth;
+        this.startNanos = startNanos;
+    }
+
+    void end(long endNanos) {
+        durationNanos = endNanos - startNanos;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+
+    /**
+     * Класс и метод, например {@code UserDataFacade.getUserWithBooks}, или текст SQL для JDBC.
+     */
+    public String getName() {
+        return type == null ? name : type + "." + name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Длительность или {@code -1}, если участок не завершился (например, запрос ушёл в асинхронную обработку).
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
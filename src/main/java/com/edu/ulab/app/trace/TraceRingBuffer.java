@@ -0,0 +1,44 @@
+package com.edu.ulab.app.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер последних трасс фиксированного размера без блокировок: писатель занимает слот
+ * через {@link AtomicLong#getAndIncrement()} и затирает самую старую трассу.
+ */
+public class TraceRingBuffer {
+    private final AtomicReferenceArray<RequestTrace> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final int mask;
+
+    public TraceRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(RequestTrace trace) {
+        slots.set((int) (cursor.getAndIncrement() & mask), trace);
+    }
+
+    public List<RequestTrace> snapshot() {
+        List<RequestTrace> traces = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            RequestTrace trace = slots.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
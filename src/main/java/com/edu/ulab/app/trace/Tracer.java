@@ -0,0 +1,74 @@
+package com.edu.ulab.app.trace;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Трассировщик запросов внутри процесса.
+ * <p>
+ * Трасса привязана к потоку запроса: {@link #begin} открывает её вместе с корневым участком,
+ * {@link #start}/{@link #end} добавляют вложенные участки, {@link #finish} закрывает и кладёт
+ * в {@link TraceRingBuffer}. Вне запроса вызовы ничего не делают.
+ */
+public class Tracer {
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final TraceRingBuffer buffer;
+    private final int maxSpans;
+
+    public Tracer(TraceRingBuffer buffer, int maxSpans) {
+        this.buffer = buffer;
+        this.maxSpans = maxSpans;
+    }
+
+    public void begin(String requestId, String method, String uri) {
+        RequestTrace trace = new RequestTrace(requestId, method, uri, maxSpans);
+        trace.start("http", null, method + " " + uri);
+        CURRENT.set(trace);
+    }
+
+    public void finish() {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return;
+        }
+        CURRENT.remove();
+        trace.endAll();
+        buffer.add(trace);
+    }
+
+    public boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public void start(String layer, String type, String name) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.start(layer, type, name);
+        }
+    }
+
+    public void end() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.end();
+        }
+    }
+
+    public void end(String layer) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.end(layer);
+        }
+    }
+
+    /**
+     * Самые долгие завершённые запросы из буфера.
+     */
+    public List<RequestTrace> slowest(int limit) {
+        return buffer.snapshot().stream()
+                .sorted(Comparator.comparingLong(RequestTrace::getDurationNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.edu.ulab.app.trace;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@code /actuator/traces?limit=N} на порту управления - самые долгие запросы из буфера с деревом участков.
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final Tracer tracer;
+
+    public TracesEndpoint(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @ReadOperation
+    public List<TraceView> slowest(@Nullable Integer limit) {
+        return tracer.slowest(limit == null ? DEFAULT_LIMIT : limit).stream()
+                .map(TracesEndpoint::view)
+                .toList();
+    }
+
+    private static TraceView view(RequestTrace trace) {
+        List<Span> spans = trace.getSpans();
+        long rootStart = spans.isEmpty() ? 0 : spans.get(0).getStartNanos();
+        List<SpanView> roots = new ArrayList<>(1);
+        Deque<SpanView> parents = new ArrayDeque<>();
+        for (Span span : spans) {
+            while (parents.size() > span.getDepth()) {
+                parents.pop();
+            }
+            SpanView view = new SpanView(span.getLayer(), span.getName(),
+                    millis(span.getStartNanos() - rootStart), millis(span.getDurationNanos()), new ArrayList<>());
+            if (parents.isEmpty()) {
+                roots.add(view);
+            } else {
+                parents.peek().children().add(view);
+            }
+            parents.push(view);
+        }
+        return new TraceView(trace.getRequestId(), trace.getMethod(), trace.getUri(),
+                Instant.ofEpochMilli(trace.getStartedAtMillis()), millis(trace.getDurationNanos()),
+                trace.getDroppedSpans(), roots);
+    }
+
+    private static double millis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    public record TraceView(String requestId,
+                            String method,
+                            String uri,
+                            Instant startedAt,
+                            double durationMillis,
+                            int droppedSpans,
+                            List<SpanView> spans) {
+    }
+
+    public record SpanView(String layer,
+                           String name,
+                           double offsetMillis,
+                           double durationMillis,
+                           List<SpanView> children) {
+    }
+}
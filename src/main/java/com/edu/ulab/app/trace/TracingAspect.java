@@ -0,0 +1,50 @@
+package com.edu.ulab.app.trace;
+
+import com.edu.ulab.app.metrics.ImplementationNames;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Участки трассы для контроллеров, фасадов, сервисов и репозиториев.
+ */
+@Aspect
+public class TracingAspect {
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.controller()")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("controller", joinPoint);
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.facade()")
+    public Object traceFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("facade", joinPoint);
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.service()")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("service", joinPoint);
+    }
+
+    @Around("com.edu.ulab.app.metrics.Pointcuts.repository()")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("repository", joinPoint);
+    }
+
+    private Object trace(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.isActive()) {
+            return joinPoint.proceed();
+        }
+        tracer.start(layer, ImplementationNames.of(joinPoint.getThis()), joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            tracer.end();
+        }
+    }
+}
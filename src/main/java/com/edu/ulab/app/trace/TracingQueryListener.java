@@ -0,0 +1,32 @@
+package com.edu.ulab.app.trace;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Участок трассы на каждое выполнение SQL. Для пакета в имя попадает первый запрос.
+ */
+public class TracingQueryListener implements QueryExecutionListener {
+    private static final String LAYER = "jdbc";
+
+    private final Tracer tracer;
+
+    public TracingQueryListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (tracer.isActive()) {
+            tracer.start(LAYER, null, queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        tracer.end(LAYER);
+    }
+}
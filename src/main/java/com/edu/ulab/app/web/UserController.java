@@ -1,9 +1,19 @@
 package com.edu.ulab.app.web;
 
+import com.edu.ulab.app.facade.UserBatchFacade;
+import com.edu.ulab.app.facade.UserBulkFacade;
 import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.facade.UserExportFacade;
+import com.edu.ulab.app.idempotency.IdempotencyStore;
+import com.edu.ulab.app.logging.PayloadLogger;
 import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.UserBatchDeleteRequest;
+import com.edu.ulab.app.web.request.UserBatchGetRequest;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
 import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.UserBatchDeleteResponse;
+import com.edu.ulab.app.web.response.UserBatchGetResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import com.edu.ulab.app.web.response.UserResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,11 +21,17 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Pattern;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
@@ -27,55 +43,126 @@ import static com.edu.ulab.app.web.constant.WebConstant.RQID;
         produces = MediaType.APPLICATION_JSON_VALUE)
 public class UserController {
     private final UserDataFacade userDataFacade;
+    private final UserBulkFacade userBulkFacade;
+    private final UserBatchFacade userBatchFacade;
+    private final UserExportFacade userExportFacade;
+    private final PayloadLogger payloadLogger;
+    private final IdempotencyStore<UserBookResponse> idempotencyStore;
 
-    public UserController(UserDataFacade userDataFacade) {
+    public UserController(UserDataFacade userDataFacade,
+                          UserBulkFacade userBulkFacade,
+                          UserBatchFacade userBatchFacade,
+                          UserExportFacade userExportFacade,
+                          PayloadLogger payloadLogger,
+                          ObjectProvider<IdempotencyStore<UserBookResponse>> idempotencyStore) {
         this.userDataFacade = userDataFacade;
+        this.userBulkFacade = userBulkFacade;
+        this.userBatchFacade = userBatchFacade;
+        this.userExportFacade = userExportFacade;
+        this.payloadLogger = payloadLogger;
+        this.idempotencyStore = idempotencyStore.getIfAvailable();
     }
 
     @PostMapping(value = "/create")
-    @Operation(summary = "Create user book row.",
+    @Operation(summary = "Create user book row. A repeated request with the same rqid returns the first response.",
             responses = {
                     @ApiResponse(description = "User book",
                             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = UserBookResponse.class)))})
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
-        UserBookResponse response = userDataFacade.createUserWithBooks(request);
-        log.info("Response with created user and his books: {}", response);
+        UserBookResponse response = idempotencyStore == null
+                ? userDataFacade.createUserWithBooks(request)
+                : idempotencyStore.execute(requestId, request, () -> userDataFacade.createUserWithBooks(request));
+        payloadLogger.log("create", response);
         return response;
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Bulk create users with books from NDJSON, one user book request per line.")
+    public void createUsersWithBooksBulk(InputStream body, HttpServletResponse response) throws IOException {
+        log.info("Bulk import of users with books started");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userBulkFacade.importUsers(body, response.getOutputStream());
+    }
+
     @PutMapping(value = "/update/{userId}")
     public UserBookResponse updateUserWithBooks(@PathVariable Long userId, @RequestBody UserBookRequest request) {
         UserBookResponse response = userDataFacade.updateUserWithBooks(userId, request);
-        log.info("Response with updated user and his books: {}", response);
+        payloadLogger.log("update", response);
+        return response;
+    }
+
+    @PatchMapping(value = "/update/{userId}")
+    @Operation(summary = "Partially update user, fields absent from the request are left unchanged.",
+            responses = {
+                    @ApiResponse(description = "Updated user",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserResponse.class)))})
+    public UserResponse patchUser(@PathVariable Long userId, @RequestBody UserRequest request) {
+        UserResponse response = userDataFacade.patchUser(userId, request);
+        payloadLogger.log("patch", response);
         return response;
     }
 
     @GetMapping(value = "/getWithBooks/{userId}")
     public UserBookResponse getUserWithBooks(@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
+        payloadLogger.log("getWithBooks", response);
         return response;
     }
 
     @GetMapping(value = "/getUserBooks/{userId}")
     public List<BookResponse> getUserBooks(@PathVariable Long userId) {
         List<BookResponse> response = userDataFacade.getUserBooks(userId);
-        log.info("Book responses for userId:{} : {}", userId, response);
+        payloadLogger.log("getUserBooks", response);
         return response;
     }
 
+    @PostMapping(value = "/batchGet")
+    @Operation(summary = "Get users with their books by a list of ids. Ids that were not found are listed in missingIds.",
+            responses = {
+                    @ApiResponse(description = "Users with books",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBatchGetResponse.class)))})
+    public UserBatchGetResponse getUsersWithBooks(@RequestBody UserBatchGetRequest request) {
+        UserBatchGetResponse response = userBatchFacade.getUsersWithBooks(request.getUserIds());
+        payloadLogger.log("batchGet", response);
+        return response;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users with their books as NDJSON, one user per line.")
+    public ResponseEntity<StreamingResponseBody> exportUsersWithBooks() {
+        log.info("Export of users with books started");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportFacade::exportUsers);
+    }
+
     @GetMapping(value = "/getUser/{userId}")
     public UserResponse getUser(@PathVariable Long userId) {
         UserResponse response = userDataFacade.getUser(userId);
-        log.info("Response with user info: {}", response);
+        payloadLogger.log("getUser", response);
         return response;
     }
 
     @DeleteMapping(value = "/delete/{userId}")
     public void deleteUserWithBooks(@PathVariable Long userId) {
-        log.info("Delete user and his books:  userId {}", userId);
         userDataFacade.deleteUserWithBooks(userId);
     }
+
+    @DeleteMapping(value = "/batch")
+    @Operation(summary = "Delete users with their books by a list of ids, in chunks of set-based statements.",
+            responses = {
+                    @ApiResponse(description = "Number of deleted users and books",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBatchDeleteResponse.class)))})
+    public UserBatchDeleteResponse deleteUsersWithBooks(@RequestBody UserBatchDeleteRequest request) {
+        UserBatchDeleteResponse response = userBatchFacade.deleteUsersWithBooks(request.getUserIds());
+        payloadLogger.log("batchDelete", response);
+        return response;
+    }
 }
@@ -0,0 +1,47 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.facade.UserListingFacade;
+import com.edu.ulab.app.logging.PayloadLogger;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.BookPageRequest;
+import com.edu.ulab.app.web.request.UserPageRequest;
+import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.PageResponse;
+import com.edu.ulab.app.web.response.UserResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = WebConstant.VERSION_URL,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+public class UserListingController {
+    private final UserListingFacade userListingFacade;
+    private final PayloadLogger payloadLogger;
+
+    public UserListingController(UserListingFacade userListingFacade, PayloadLogger payloadLogger) {
+        this.userListingFacade = userListingFacade;
+        this.payloadLogger = payloadLogger;
+    }
+
+    @GetMapping(value = "/users")
+    @Operation(summary = "List users page by page, optionally with the given rating. "
+            + "Pass nextCursor of the previous page as after.")
+    public PageResponse<UserResponse> listUsers(UserPageRequest request) {
+        PageResponse<UserResponse> response = userListingFacade.listUsers(request);
+        payloadLogger.log("listUsers", response);
+        return response;
+    }
+
+    @GetMapping(value = "/user/{userId}/books")
+    @Operation(summary = "List user books page by page, optionally filtered by author, title prefix and page count. "
+            + "Pass nextCursor of the previous page as after.")
+    public PageResponse<BookResponse> listUserBooks(@PathVariable Long userId, BookPageRequest request) {
+        PageResponse<BookResponse> response = userListingFacade.listUserBooks(userId, request);
+        payloadLogger.log("listUserBooks", response);
+        return response;
+    }
+}
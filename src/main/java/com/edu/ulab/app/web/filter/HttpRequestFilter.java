@@ -1,7 +1,8 @@
 package com.edu.ulab.app.web.filter;
 
-import lombok.extern.slf4j.Slf4j;
+import com.edu.ulab.app.trace.Tracer;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -11,19 +12,29 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
-@Slf4j
 @Component
 public class HttpRequestFilter extends OncePerRequestFilter {
+    private final Tracer tracer;
+
+    public HttpRequestFilter(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer.getIfAvailable();
+    }
+
     @Override
     protected void doFilterInternal(final HttpServletRequest request,
                                     final HttpServletResponse response,
                                     final FilterChain filterChain) throws ServletException, IOException {
         String requestId = request.getHeader("rqid");
         MDC.put("requestId", requestId);
-        log.info("RequestId : {}", requestId);
+        if (tracer != null) {
+            tracer.begin(requestId, request.getMethod(), request.getRequestURI());
+        }
         try {
             filterChain.doFilter(request, response);
         } finally {
+            if (tracer != null) {
+                tracer.finish();
+            }
             MDC.remove("requestId");
         }
     }
@@ -1,6 +1,9 @@
 package com.edu.ulab.app.web.handler;
 
+import com.edu.ulab.app.exception.BatchSizeExceededException;
+import com.edu.ulab.app.exception.IdempotencyKeyReusedException;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.RequestInProgressException;
 import com.edu.ulab.app.web.response.BaseWebResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +20,31 @@ public class ControllerExceptionHandler {
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<BaseWebResponse> handleNotFoundExceptionException(@NonNull final NotFoundException exc) {
         log.error(exc.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new BaseWebResponse(createErrorMessage(exc)));
     }
 
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<BaseWebResponse> handleBatchSizeExceededException(@NonNull final BatchSizeExceededException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
+
+    @ExceptionHandler(RequestInProgressException.class)
+    public ResponseEntity<BaseWebResponse> handleRequestInProgressException(@NonNull final RequestInProgressException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<BaseWebResponse> handleIdempotencyKeyReusedException(@NonNull final IdempotencyKeyReusedException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     protected ResponseEntity<BaseWebResponse> handleAllOtherExceptions(Exception exc) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
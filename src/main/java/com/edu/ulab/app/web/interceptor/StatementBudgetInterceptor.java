@@ -0,0 +1,86 @@
+package com.edu.ulab.app.web.interceptor;
+
+import com.edu.ulab.app.config.StatementBudgetProperties;
+import com.edu.ulab.app.jdbc.RequestStatements;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Открывает счётчик SQL-запросов на время HTTP-запроса и по его завершении публикует
+ * гистограмму {@value #STATEMENTS_METRIC} по шаблону пути, а превышение лимита и N+1 журналирует.
+ */
+@Slf4j
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+    public static final String STATEMENTS_METRIC = "http.server.requests.statements";
+    public static final String REPEATED_METRIC = "http.server.requests.statements.repeated";
+    public static final String EXCEEDED_METRIC = "http.server.requests.statements.exceeded";
+
+    private final StatementBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public StatementBudgetInterceptor(StatementBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStatements.open(MDC.get("requestId"));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // дальше запрос обрабатывается в другом потоке, где счётчика нет
+        RequestStatements.close();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RequestStatements statements = RequestStatements.close();
+        if (statements == null) {
+            return;
+        }
+        String uri = uri(request);
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements.getCount());
+
+        if (statements.getMaxRepeats() > properties.getMaxRepeats()) {
+            Counter.builder(REPEATED_METRIC)
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (statements.getCount() > properties.getMaxStatements()) {
+            Counter.builder(EXCEEDED_METRIC)
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .tag("mode", properties.getMode().name())
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Request {} {} {} executed {} SQL statements, budget is {}; most repeated ({} times): {}",
+                    statements.getRequestId(), request.getMethod(), uri, statements.getCount(),
+                    properties.getMaxStatements(), statements.getMaxRepeats(), statements.getRepeatedStatement());
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.request;
+
+import lombok.Data;
+
+@Data
+public class BookPageRequest {
+    /**
+     * {@code nextCursor} предыдущей страницы, для первой страницы не задаётся.
+     */
+    private Long after;
+    private Integer limit;
+    private String author;
+    private String titlePrefix;
+    private Long minPages;
+    private Long maxPages;
+}
@@ -0,0 +1,13 @@
+package com.edu.ulab.app.web.request;
+
+import lombok.Data;
+
+@Data
+public class UserPageRequest {
+    /**
+     * {@code nextCursor} предыдущей страницы, для первой страницы не задаётся.
+     */
+    private Long after;
+    private Integer limit;
+    private Integer rating;
+}
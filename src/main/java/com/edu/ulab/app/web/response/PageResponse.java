@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PageResponse<T> {
+    private List<T> items;
+    /**
+     * Передаётся в {@code after} за следующей страницей; {@code null} - страница последняя.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserBatchDeleteResponse {
+    private int deletedUsers;
+    private int deletedBooks;
+}
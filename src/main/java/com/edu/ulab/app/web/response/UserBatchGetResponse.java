@@ -0,0 +1,13 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserBatchGetResponse {
+    private List<UserWithBooksResponse> users;
+    private List<Long> missingIds;
+}
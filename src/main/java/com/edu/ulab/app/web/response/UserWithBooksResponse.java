@@ -0,0 +1,14 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserWithBooksResponse {
+    private Long id;
+    private String fullName;
+    private String title;
+    private int age;
+    private List<BookResponse> books;
+}
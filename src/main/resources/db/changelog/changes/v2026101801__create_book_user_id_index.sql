@@ -0,0 +1,3 @@
+CREATE INDEX idx_ulab_edu_book_user_id_id on ulab_edu.book (user_id, id);
+
+comment on index ulab_edu.idx_ulab_edu_book_user_id_id is 'Книги пользователя, покрывает выборку идентификаторов книг по пользователю';
@@ -0,0 +1,8 @@
+ALTER TABLE ulab_edu.person
+ADD version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE ulab_edu.book
+ADD version BIGINT NOT NULL DEFAULT 0;
+
+comment on column ulab_edu.person.version is 'Версия строки для оптимистической блокировки, увеличивается при каждом изменении';
+comment on column ulab_edu.book.version is 'Версия строки для оптимистической блокировки, увеличивается при каждом изменении';
@@ -0,0 +1,14 @@
+create table ulab_edu.idempotency_key
+(
+    key        varchar(255) not null,
+    response   text         not null,
+    created_at timestamp    not null,
+    constraint pk_ulab_edu_idempotency_key primary key (key)
+);
+
+CREATE INDEX idx_ulab_edu_idempotency_key_created_at on ulab_edu.idempotency_key (created_at);
+
+comment on table ulab_edu.idempotency_key is 'Результаты запросов на создание, чтобы повтор с тем же rqid не создавал данные второй раз';
+comment on column ulab_edu.idempotency_key.key is 'Идентификатор запроса (rqid)';
+comment on column ulab_edu.idempotency_key.response is 'Ответ первого выполнения в JSON';
+comment on column ulab_edu.idempotency_key.created_at is 'Время первого выполнения, по нему удаляются устаревшие записи';
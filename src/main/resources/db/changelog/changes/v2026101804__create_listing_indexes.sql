@@ -0,0 +1,5 @@
+CREATE INDEX idx_ulab_edu_person_rating_id on ulab_edu.person (rating, id);
+CREATE INDEX idx_ulab_edu_book_user_id_author_id on ulab_edu.book (user_id, author, id);
+
+comment on index ulab_edu.idx_ulab_edu_person_rating_id is 'Постраничный список пользователей с фильтром по рейтингу: следующая страница читается с последнего id';
+comment on index ulab_edu.idx_ulab_edu_book_user_id_author_id is 'Постраничный список книг пользователя с фильтром по автору: следующая страница читается с последнего id';
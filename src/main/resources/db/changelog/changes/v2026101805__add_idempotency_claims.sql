@@ -0,0 +1,9 @@
+ALTER TABLE ulab_edu.idempotency_key
+ALTER COLUMN response DROP NOT NULL;
+
+ALTER TABLE ulab_edu.idempotency_key
+ADD request_hash varchar(64);
+
+comment on column ulab_edu.idempotency_key.response is 'Ответ первого выполнения в JSON, null - запрос ещё выполняется';
+comment on column ulab_edu.idempotency_key.request_hash is 'SHA-256 тела запроса: повтор rqid с другим телом отклоняется';
+comment on column ulab_edu.idempotency_key.created_at is 'Время захвата ключа, по нему удаляются устаревшие записи и перехватываются брошенные захваты';
@@ -0,0 +1,148 @@
+package com.edu.ulab.app.batching;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link MicroBatcher}.
+ */
+@DisplayName("Testing micro-batching loader.")
+public class MicroBatcherTest {
+    private final List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Вызовы в пределах окна уходят одним запросом, каждый получает свой результат.")
+    void loadsWithinWindow_thenOneBatch() throws Exception {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users", recordingLoader(), Duration.ofMillis(500), 64);
+        batcher.bindTo(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //When
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        try {
+            for (long id = 1; id <= 4; id++) {
+                long key = id;
+                results.add(CompletableFuture.supplyAsync(() -> batcher.load(key), executor));
+            }
+
+            //Then
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("user-" + (i + 1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(batches).containsExactly(Set.of(1L, 2L, 3L, 4L));
+        assertThat(registry.get("microbatch.size").summary().max()).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("Пакет, набравший maxBatchSize ключей, уходит не дожидаясь окна.")
+    void batchFilled_thenDispatchedBeforeWindow() throws Exception {
+        //Given
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users", recordingLoader(), Duration.ofSeconds(30), 2);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.load(1L));
+
+        //When
+        String second = batcher.load(2L);
+
+        //Then
+        assertThat(second).isEqualTo("user-2");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(batches).containsExactly(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Ключ, которого нет в ответе загрузчика, получает null.")
+    void missingKey_thenNull() {
+        //Given
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users",
+                ids -> Map.of(), Duration.ofNanos(200_000), 64);
+
+        //When
+        String result = batcher.load(404L);
+
+        //Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузчика достаётся каждому вызову пакета.")
+    void loaderFails_thenEveryCallerFails() {
+        //Given
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users", ids -> {
+            throw new IllegalStateException("connection refused");
+        }, Duration.ofNanos(200_000), 64);
+
+        //When, Then
+        assertThatThrownBy(() -> batcher.load(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("connection refused");
+    }
+
+    @Test
+    @DisplayName("С пакетом из одного ключа каждый вызов сразу уходит отдельным запросом.")
+    void batchingDisabled_thenLoadedImmediately() {
+        //Given
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users", recordingLoader(), Duration.ofSeconds(30), 1);
+
+        //When
+        String first = batcher.load(1L);
+        String second = batcher.load(2L);
+
+        //Then
+        assertThat(List.of(first, second)).containsExactly("user-1", "user-2");
+        assertThat(batches).containsExactly(Set.of(1L), Set.of(2L));
+    }
+
+    @Test
+    @DisplayName("Вызов внутри транзакции загружает свой ключ сразу, не присоединяясь к чужому пакету.")
+    void loadInTransaction_thenLoadedImmediately() throws Exception {
+        //Given
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>("users", recordingLoader(), Duration.ofSeconds(30), 2);
+        CompletableFuture<String> outside = CompletableFuture.supplyAsync(() -> batcher.load(1L));
+        String inTransaction;
+
+        //When
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            inTransaction = batcher.load(2L);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        String closing = batcher.load(3L);
+
+        //Then
+        assertThat(inTransaction).isEqualTo("user-2");
+        assertThat(closing).isEqualTo("user-3");
+        assertThat(outside.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(batches).containsExactly(Set.of(2L), Set.of(1L, 3L));
+    }
+
+    private Function<Set<Long>, Map<Long, String>> recordingLoader() {
+        return ids -> {
+            batches.add(ids);
+            return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "user-" + id));
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.edu.ulab.app.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты {@link BloomFilter}.
+ */
+@DisplayName("Testing bloom filter.")
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Добавленные значения всегда находятся, доля ложных срабатываний в пределах заданной.")
+    void put_thenNoFalseNegativesAndBoundedFalsePositives() {
+        //Given
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+
+        //When
+        for (long id = 1; id <= 100_000; id++) {
+            filter.put(id);
+        }
+
+        //Then
+        for (long id = 1; id <= 100_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+        int falsePositives = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(1_000);
+    }
+}
@@ -0,0 +1,144 @@
+package com.edu.ulab.app.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты {@link UserIdFilter}.
+ */
+@DisplayName("Testing user id filter.")
+public class UserIdFilterTest {
+
+    @Test
+    @DisplayName("До первой сборки фильтр пропускает все идентификаторы.")
+    void beforeRebuild_thenEverythingMightExist() {
+        UserIdFilter filter = new UserIdFilter(1_000, 0.01, Duration.ZERO);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain(42L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Идентификатор, добавленный во время пересборки, попадает в новый фильтр.")
+    void addDuringRebuild_thenKept() {
+        //Given
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ZERO);
+
+        //When
+        filter.rebuild(4, sink -> {
+            LongStream.of(1L, 2L, 3L, 5_000L).forEach(sink);
+            // пользователь создан, пока пересборка читала БД
+            filter.add(100L);
+        });
+        filter.add(200L);
+
+        //Then
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain(1L)).isTrue();
+        assertThat(filter.mightContain(100L)).isTrue();
+        assertThat(filter.mightContain(200L)).isTrue();
+        assertThat(LongStream.rangeClosed(1_000, 2_000).filter(filter::mightContain).count()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Ошибка пересборки оставляет прежний фильтр.")
+    void failedRebuild_thenPreviousFilterKept() {
+        //Given
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ZERO);
+        filter.rebuild(1, sink -> sink.accept(1L));
+
+        //When
+        try {
+            filter.rebuild(1, sink -> {
+                throw new IllegalStateException("connection lost");
+            });
+        } catch (IllegalStateException ignored) {
+        }
+
+        //Then
+        assertThat(filter.mightContain(1L)).isTrue();
+        filter.add(5L);
+        assertThat(filter.mightContain(5L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Идентификатор, добавленный до начала пересборки, но закоммиченный после снимка, остаётся в фильтре.")
+    void addBeforeRebuildMissingFromSnapshot_thenKeptWithinGrace() {
+        //Given
+        AtomicLong clock = new AtomicLong();
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ofMinutes(1), clock::get);
+        filter.rebuild(1, sink -> sink.accept(1L));
+        filter.add(100L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        //When
+        // снимок пересборки сделан до коммита пользователя 100
+        filter.rebuild(1, sink -> sink.accept(1L));
+
+        //Then
+        assertThat(filter.mightContain(1L)).isTrue();
+        assertThat(filter.mightContain(100L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Идентификатор, добавленный раньше grace, в пересобранный фильтр не переносится.")
+    void addLongBeforeRebuild_thenTakenFromSourceOnly() {
+        //Given
+        AtomicLong clock = new AtomicLong();
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ofMinutes(1), clock::get);
+        filter.rebuild(1, sink -> sink.accept(1L));
+        filter.add(100L);
+        filter.add(200L);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+        //When
+        // пользователь 200 успел удалиться, пользователи 100 и 300 есть в БД
+        filter.rebuild(3, sink -> LongStream.of(1L, 100L, 300L).forEach(sink));
+
+        //Then
+        assertThat(filter.mightContain(100L)).isTrue();
+        assertThat(filter.mightContain(200L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Идентификатор выше наибольшего прочитанного пересборкой фильтр не отсекает.")
+    void idAboveRebuild_thenMightExist() {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ZERO);
+        filter.bindTo(registry);
+
+        //When
+        filter.rebuild(2, sink -> LongStream.of(1L, 10L).forEach(sink));
+
+        //Then
+        assertThat(filter.mightContain(5L)).isFalse();
+        assertThat(filter.mightContain(11L)).isTrue();
+        assertThat(registry.get("user.filter.checks").tag("result", "above-rebuild").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Счётчик устаревших идентификаторов растёт на число действительно удалённых.")
+    void markDeleted_thenStaleCountedByDeleted() {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserIdFilter filter = new UserIdFilter(1_000, 0.001, Duration.ZERO);
+        filter.bindTo(registry);
+
+        //When
+        filter.markDeleted(2);
+        filter.markDeleted(0);
+
+        //Then
+        assertThat(registry.get("user.filter.stale").gauge().value()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,167 @@
+package com.edu.ulab.app.coalescing;
+
+import com.edu.ulab.app.exception.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link SingleFlight}.
+ */
+@DisplayName("Testing single-flight reads.")
+public class SingleFlightTest {
+
+    @Test
+    @DisplayName("Параллельные чтения одного ключа выполняют одну загрузку и получают её результат.")
+    void concurrentReads_thenOneLoad() throws Exception {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        singleFlight.bindTo(registry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        //When
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("getWithBooks", 1L, () -> {
+                    started.countDown();
+                    await(release);
+                    return "user-" + loads.incrementAndGet();
+                }));
+        started.await(5, TimeUnit.SECONDS);
+        List<CompletableFuture<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(CompletableFuture.supplyAsync(
+                    () -> singleFlight.execute("getWithBooks", 1L, () -> "user-" + loads.incrementAndGet())));
+        }
+        awaitFollowers(singleFlight, "getWithBooks", 3);
+        release.countDown();
+
+        //Then
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        for (CompletableFuture<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(calls(registry, "getWithBooks", "leader")).isEqualTo(1.0);
+        assertThat(calls(registry, "getWithBooks", "joined")).isEqualTo(3.0);
+        assertThat(registry.get("singleflight.followers").summary().totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Разные операции и идентификаторы не объединяются, а завершённая загрузка не переиспользуется.")
+    void differentKeysOrSequentialReads_thenSeparateLoads() {
+        //Given
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        //When
+        String first = singleFlight.execute("getWithBooks", 1L, () -> "load-" + loads.incrementAndGet());
+        String second = singleFlight.execute("getWithBooks", 1L, () -> "load-" + loads.incrementAndGet());
+        String otherId = singleFlight.execute("getWithBooks", 2L, () -> "load-" + loads.incrementAndGet());
+        String otherOperation = singleFlight.execute("getUserBooks", 1L, () -> "load-" + loads.incrementAndGet());
+
+        //Then
+        assertThat(List.of(first, second, otherId, otherOperation))
+                .containsExactly("load-1", "load-2", "load-3", "load-4");
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки передаётся всем ожидающим, следующее чтение загружает заново.")
+    void loadFails_thenFollowersGetSameError() throws Exception {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        singleFlight.bindTo(registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("getWithBooks", 1L, () -> {
+                    started.countDown();
+                    await(release);
+                    throw new NotFoundException("User with id: 1 was not found");
+                }));
+        started.await(5, TimeUnit.SECONDS);
+
+        //When
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("getWithBooks", 1L, () -> "unexpected"));
+        awaitFollowers(singleFlight, "getWithBooks", 1);
+        release.countDown();
+
+        //Then
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(NotFoundException.class);
+        assertThat(singleFlight.execute("getWithBooks", 1L, () -> "created later")).isEqualTo("created later");
+    }
+
+    @Test
+    @DisplayName("Не дождавшись общей загрузки за maxWait, чтение выполняется само.")
+    void loadTooLong_thenFollowerLoadsItself() throws Exception {
+        //Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(50));
+        singleFlight.bindTo(registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("getUserBooks", 1L, () -> {
+                    started.countDown();
+                    await(release);
+                    return "slow";
+                }));
+        started.await(5, TimeUnit.SECONDS);
+
+        //When
+        String follower = singleFlight.execute("getUserBooks", 1L, () -> "own");
+        release.countDown();
+
+        //Then
+        assertThat(follower).isEqualTo("own");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(calls(registry, "getUserBooks", "timeout")).isEqualTo(1.0);
+    }
+
+    private static double calls(SimpleMeterRegistry registry, String operation, String result) {
+        return registry.get("singleflight.calls")
+                .tag("operation", operation)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    /**
+     * Ожидающие присоединяются асинхронно: ждём всех, прежде чем завершить загрузку.
+     */
+    private static void awaitFollowers(SingleFlight singleFlight, String operation, int expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.followers(operation, 1L) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
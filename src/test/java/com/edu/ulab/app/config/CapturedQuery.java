@@ -0,0 +1,9 @@
+package com.edu.ulab.app.config;
+
+import java.util.List;
+
+/**
+ * SQL-запрос, выполненный через прокси источника данных, и значения его параметров по порядку.
+ */
+public record CapturedQuery(String sql, List<Object> parameters) {
+}
@@ -35,7 +35,12 @@ public class PostgreSqlContainerConfig {
     }
 
     @Bean
-    public DataSource dataSource() {
+    public QueryCaptureListener queryCaptureListener() {
+        return new QueryCaptureListener();
+    }
+
+    @Bean
+    public DataSource dataSource(QueryCaptureListener queryCaptureListener) {
         String connectionUrl = String.format(JDBC_URL_FORMAT,
                 POSTGRES.getContainerIpAddress(),
                 POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
@@ -47,14 +52,16 @@ public class PostgreSqlContainerConfig {
         dataSource.setUsername(POSTGRES.getUsername());
         dataSource.setPassword(POSTGRES.getPassword());
 
-        return proxyListenerDataSource(dataSource);
+        return proxyListenerDataSource(dataSource, queryCaptureListener);
     }
 
-    private DataSource proxyListenerDataSource(final DataSource dataSource) {
+    private DataSource proxyListenerDataSource(final DataSource dataSource,
+                                               final QueryCaptureListener queryCaptureListener) {
         ChainListener listener = new ChainListener();
         SLF4JQueryLoggingListener loggingListener = new SLF4JQueryLoggingListener();
         listener.addListener(loggingListener);
         listener.addListener(new DataSourceQueryCountListener());
+        listener.addListener(queryCaptureListener);
 
         return ProxyDataSourceBuilder
                 .create(dataSource)
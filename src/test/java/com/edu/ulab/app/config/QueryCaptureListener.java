@@ -0,0 +1,54 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает все запросы, прошедшие через прокси источника данных, вместе с параметрами первой
+ * строки пакета. Запросы {@code EXPLAIN} не запоминаются.
+ */
+public class QueryCaptureListener implements QueryExecutionListener {
+    private final List<CapturedQuery> queries = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery().strip();
+            if (sql.regionMatches(true, 0, "explain", 0, 7)) {
+                continue;
+            }
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            List<Object> parameters = parametersList.isEmpty() ? List.of() : parameters(parametersList.get(0));
+            queries.add(new CapturedQuery(sql, parameters));
+        }
+    }
+
+    public List<CapturedQuery> getQueries() {
+        return List.copyOf(queries);
+    }
+
+    public void reset() {
+        queries.clear();
+    }
+
+    private static List<Object> parameters(List<ParameterSetOperation> operations) {
+        List<ParameterSetOperation> sorted = new ArrayList<>(operations);
+        sorted.sort(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]));
+        List<Object> parameters = new ArrayList<>(sorted.size());
+        for (ParameterSetOperation operation : sorted) {
+            parameters.add(ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1]);
+        }
+        return parameters;
+    }
+}
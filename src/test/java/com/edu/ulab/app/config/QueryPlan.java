@@ -0,0 +1,85 @@
+package com.edu.ulab.app.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * План запроса PostgreSQL, разобранный из вывода {@code EXPLAIN (FORMAT JSON)}.
+ */
+public class QueryPlan {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String sql;
+    private final JsonNode root;
+    private final List<JsonNode> nodes = new ArrayList<>();
+
+    private QueryPlan(String sql, JsonNode root) {
+        this.sql = sql;
+        this.root = root;
+        collect(root, nodes);
+    }
+
+    public static QueryPlan parse(String sql, String explainJson) {
+        try {
+            return new QueryPlan(sql, OBJECT_MAPPER.readTree(explainJson).get(0).get("Plan"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public double getTotalCost() {
+        return root.get("Total Cost").asDouble();
+    }
+
+    public List<String> getNodeTypes() {
+        return nodes.stream()
+                .map(node -> node.get("Node Type").asText())
+                .toList();
+    }
+
+    /**
+     * Таблицы, которые читаются последовательным сканированием.
+     */
+    public List<String> getSeqScannedRelations() {
+        return nodes.stream()
+                .filter(node -> "Seq Scan".equals(node.get("Node Type").asText()))
+                .map(node -> node.get("Relation Name").asText())
+                .toList();
+    }
+
+    public List<String> getIndexNames() {
+        return nodes.stream()
+                .filter(node -> node.has("Index Name"))
+                .map(node -> node.get("Index Name").asText())
+                .toList();
+    }
+
+    public boolean hasNode(String nodeType, String indexName) {
+        return nodes.stream()
+                .anyMatch(node -> nodeType.equals(node.get("Node Type").asText())
+                        && node.has("Index Name")
+                        && indexName.equals(node.get("Index Name").asText()));
+    }
+
+    @Override
+    public String toString() {
+        return sql + System.lineSeparator() + root.toPrettyString();
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        JsonNode children = node.get("Plans");
+        if (children != null) {
+            children.forEach(child -> collect(child, nodes));
+        }
+    }
+}
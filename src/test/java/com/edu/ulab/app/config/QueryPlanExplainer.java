@@ -0,0 +1,39 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Строит план для запроса, перехваченного {@link QueryCaptureListener}, с теми же значениями параметров.
+ * {@code EXPLAIN} без {@code ANALYZE} запрос не выполняет, поэтому так можно разбирать и DML.
+ */
+public class QueryPlanExplainer {
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryPlanExplainer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public QueryPlan explain(CapturedQuery query) {
+        String json = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + query.sql());
+            List<Object> parameters = query.parameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        }, rs -> rs.next() ? rs.getString(1) : null);
+        return QueryPlan.parse(query.sql(), json);
+    }
+
+    /**
+     * Оценка числа строк таблицы по статистике планировщика.
+     */
+    public long estimatedRows(String relation) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, relation);
+        return rows == null ? 0L : rows;
+    }
+}
@@ -0,0 +1,119 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BatchSizeExceededException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.UserBatchDeleteResponse;
+import com.edu.ulab.app.web.response.UserBatchGetResponse;
+import com.edu.ulab.app.web.response.UserWithBooksResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserBatchFacade}.
+ */
+@DisplayName("Testing batch get and delete of users with books.")
+public class UserBatchFacadeTest {
+    private final UserService userService = mock(UserService.class);
+    private final BookService bookService = mock(BookService.class);
+    private final UserBatchFacade facade = new UserBatchFacade(userService, bookService,
+            Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class), 3,
+            TransactionOperations.withoutTransaction(), 5, 2);
+
+    @Test
+    @DisplayName("Пользователи и книги читаются двумя запросами, ненайденные идентификаторы не мешают остальным.")
+    void getUsersWithBooks_thenTwoQueriesAndMissingIds() {
+        //Given
+        when(userService.getUsersByIds(List.of(1L, 404L, 2L))).thenReturn(Map.of(
+                1L, new UserDto(1L, "First", "reader", 20),
+                2L, new UserDto(2L, "Second", "reader", 30)));
+        when(bookService.getBooksByUserIds(Set.of(1L, 2L))).thenReturn(Map.of(
+                1L, List.of(new BookDto(10L, 1L, "a", "author", 100L), new BookDto(11L, 1L, "b", "author", 200L))));
+
+        //When
+        UserBatchGetResponse response = facade.getUsersWithBooks(List.of(1L, 404L, 2L, 1L));
+
+        //Then
+        assertThat(response.getUsers()).extracting(UserWithBooksResponse::getId).containsExactly(1L, 2L);
+        assertThat(response.getUsers().get(0).getBooks()).extracting(BookResponse::getId).containsExactly(10L, 11L);
+        assertThat(response.getUsers().get(1).getBooks()).isEmpty();
+        assertThat(response.getMissingIds()).containsExactly(404L);
+        verify(userService, times(1)).getUsersByIds(any());
+        verify(bookService, times(1)).getBooksByUserIds(any());
+        verifyNoMoreInteractions(userService, bookService);
+    }
+
+    @Test
+    @DisplayName("Если не найден никто, книги не запрашиваются.")
+    void noUsersFound_thenBooksNotQueried() {
+        //Given
+        when(userService.getUsersByIds(List.of(404L))).thenReturn(Map.of());
+
+        //When
+        UserBatchGetResponse response = facade.getUsersWithBooks(Arrays.asList(404L, null));
+
+        //Then
+        assertThat(response.getUsers()).isEmpty();
+        assertThat(response.getMissingIds()).containsExactly(404L);
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Больше идентификаторов, чем разрешено, - ошибка без обращения к БД.")
+    void tooManyIds_thenBatchSizeExceeded() {
+        //When, Then
+        assertThatThrownBy(() -> facade.getUsersWithBooks(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(BatchSizeExceededException.class)
+                .hasMessage("Requested 4 user ids, at most 3 allowed");
+        verifyNoInteractions(userService, bookService);
+    }
+
+    @Test
+    @DisplayName("Удаление идёт порциями: на порцию один DELETE книг и один DELETE пользователей.")
+    void deleteUsersWithBooks_thenTwoStatementsPerChunk() {
+        //Given
+        when(bookService.deleteBooksByUserIds(List.of(1L, 2L))).thenReturn(3);
+        when(userService.deleteUsersByIds(List.of(1L, 2L))).thenReturn(2);
+        when(bookService.deleteBooksByUserIds(List.of(3L, 404L))).thenReturn(1);
+        when(userService.deleteUsersByIds(List.of(3L, 404L))).thenReturn(1);
+        when(bookService.deleteBooksByUserIds(List.of(5L))).thenReturn(0);
+        when(userService.deleteUsersByIds(List.of(5L))).thenReturn(1);
+
+        //When
+        UserBatchDeleteResponse response = facade.deleteUsersWithBooks(Arrays.asList(1L, 2L, 2L, null, 3L, 404L, 5L));
+
+        //Then
+        assertThat(response.getDeletedUsers()).isEqualTo(4);
+        assertThat(response.getDeletedBooks()).isEqualTo(4);
+        verify(bookService, times(3)).deleteBooksByUserIds(any());
+        verify(userService, times(3)).deleteUsersByIds(any());
+        verifyNoMoreInteractions(userService, bookService);
+    }
+
+    @Test
+    @DisplayName("Больше идентификаторов на удаление, чем разрешено, - ошибка без обращения к БД.")
+    void tooManyIdsToDelete_thenBatchSizeExceeded() {
+        //When, Then
+        assertThatThrownBy(() -> facade.deleteUsersWithBooks(List.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .isInstanceOf(BatchSizeExceededException.class)
+                .hasMessage("Requested 6 user ids, at most 5 allowed");
+        verifyNoInteractions(userService, bookService);
+    }
+}
@@ -0,0 +1,139 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserBulkFacade}.
+ */
+@DisplayName("Testing bulk user import.")
+public class UserBulkFacadeTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserService userService = mock(UserService.class);
+    private final BookService bookService = mock(BookService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicLong ids = new AtomicLong();
+
+    private UserBulkFacade facade;
+
+    @BeforeEach
+    void setUp() {
+        facade = new UserBulkFacade(userService, bookService,
+                Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class),
+                new TransactionTemplate(transactionManager), objectMapper, 2, 200);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            List<UserDto> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+        when(bookService.createBooks(anyList())).thenAnswer(invocation -> {
+            List<BookDto> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+    }
+
+    @Test
+    @DisplayName("Загрузка пачками. Ошибка разбора строки не мешает остальным строкам.")
+    void importUsers_thenResultPerLine() throws Exception {
+        //Given
+        String body = """
+                {"userRequest":{"fullName":"First","title":"reader","age":20},"bookRequests":[{"title":"a"},{"title":"b"}]}
+                {"userRequest":
+                
+                {"userRequest":{"fullName":"Second","title":"reader","age":30}}
+                {"bookRequests":[]}
+                {"userRequest":{"fullName":"Third","title":"reader","age":40},"bookRequests":[{"title":"c"}]}
+                """;
+
+        //When
+        List<JsonNode> result = importUsers(body);
+
+        //Then
+        assertThat(result).extracting(node -> node.get("line").asLong()).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(result.get(0).get("booksIdList")).hasSize(2);
+        assertThat(result.get(1).get("errorMessage").asText()).startsWith("Malformed JSON");
+        assertThat(result.get(2).get("userId").asLong()).isPositive();
+        assertThat(result.get(2).get("booksIdList")).isEmpty();
+        assertThat(result.get(3).get("errorMessage").asText()).isEqualTo("userRequest is required");
+        assertThat(result.get(4).get("booksIdList")).hasSize(1);
+        verify(userService, times(3)).createUsers(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Пачка не сохранилась. Строки повторяются по одной, ошибка достаётся только виновной строке.")
+    void importUsers_whenChunkFails_thenRetriedLineByLine() throws Exception {
+        //Given
+        when(userService.createUsers(argThat(users -> users.stream()
+                .anyMatch(user -> "Broken".equals(user.getFullName())))))
+                .thenThrow(new IllegalStateException("constraint violated"));
+        String body = """
+                {"userRequest":{"fullName":"Good","title":"reader","age":20}}
+                {"userRequest":{"fullName":"Broken","title":"reader","age":20}}
+                """;
+
+        //When
+        List<JsonNode> result = importUsers(body);
+
+        //Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).get("userId").asLong()).isPositive();
+        assertThat(result.get(1).get("errorMessage").asText()).contains("constraint violated");
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Слишком длинная строка. Ошибка по этой строке, следующие строки загружаются.")
+    void importUsers_whenLineTooLong_thenErrorForThatLine() throws Exception {
+        //Given
+        String body = "{\"userRequest\":{\"fullName\":\"" + "x".repeat(1000) + "\"}}\r\n"
+                + "{\"userRequest\":{\"fullName\":\"Short\",\"title\":\"reader\",\"age\":20}}\r\n";
+
+        //When
+        List<JsonNode> result = importUsers(body);
+
+        //Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).get("line").asLong()).isEqualTo(1L);
+        assertThat(result.get(0).get("errorMessage").asText()).isEqualTo("Line is longer than 200 characters");
+        assertThat(result.get(1).get("line").asLong()).isEqualTo(2L);
+        assertThat(result.get(1).get("userId").asLong()).isPositive();
+        verify(userService).createUsers(argThat(users -> users.size() == 1
+                && "Short".equals(users.get(0).getFullName())));
+    }
+
+    private List<JsonNode> importUsers(String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        facade.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+        List<JsonNode> result = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            result.add(objectMapper.readTree(line));
+        }
+        return result;
+    }
+}
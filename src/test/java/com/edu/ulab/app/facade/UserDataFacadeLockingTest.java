@@ -0,0 +1,95 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Одновременные изменения одного пользователя через {@link UserDataFacade} при пессимистической блокировке
+ * на встроенной H2: второй запрос ждёт блокировку строки, а не падает.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:facade-locking;INIT=CREATE SCHEMA IF NOT EXISTS ulab_edu;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "locking.mode=pessimistic",
+        "jfr.enabled=false"
+})
+@DisplayName("Testing concurrent user updates with pessimistic locking.")
+public class UserDataFacadeLockingTest {
+    private static final int ROUNDS = 20;
+    private static final int THREADS = 2;
+
+    @Autowired
+    UserDataFacade userDataFacade;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    @DisplayName("Два одновременных PUT одного пользователя. Оба должны пройти.")
+    void concurrentUpdates_thenBothSucceed() throws Exception {
+        //Given
+        Person person = new Person();
+        person.setFullName("Reader");
+        person.setTitle("reader");
+        person.setAge(30);
+        person.setRating(1);
+        Long userId = userRepository.save(person).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                //When
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<?>> updates = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    int age = round * THREADS + thread;
+                    updates.add(executor.submit(() -> {
+                        start.await(5, TimeUnit.SECONDS);
+                        return userDataFacade.updateUserWithBooks(userId, request(age));
+                    }));
+                }
+
+                //Then
+                for (Future<?> update : updates) {
+                    assertThat(update.get(30, TimeUnit.SECONDS)).isNotNull();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(userRepository.findById(userId)).get()
+                .extracting(Person::getVersion).isEqualTo((long) ROUNDS * THREADS);
+    }
+
+    private static UserBookRequest request(int age) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Reader " + age);
+        userRequest.setTitle("reader");
+        userRequest.setAge(age);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of());
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.UserBookRow;
+import com.edu.ulab.app.repository.UserExportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserExportFacade}.
+ */
+@DisplayName("Testing user export.")
+public class UserExportFacadeTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserExportRepository userExportRepository = mock(UserExportRepository.class);
+    private final UserExportFacade facade = new UserExportFacade(userExportRepository,
+            mock(PlatformTransactionManager.class), objectMapper);
+
+    @Test
+    @DisplayName("Выгрузка. Строки одного пользователя собираются в одну строку NDJSON, поток закрывается.")
+    void exportUsers_thenOneLinePerUser() throws Exception {
+        //Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userExportRepository.streamUsersWithBooks()).thenReturn(Stream.of(
+                        new UserBookRow(1L, "First", "reader", 20, 1, 10L, "a", "author a", 100L),
+                        new UserBookRow(1L, "First", "reader", 20, 1, 11L, "b", "author b", 200L),
+                        new UserBookRow(2L, "Second", "reader", 30, null, null, null, null, null),
+                        new UserBookRow(3L, "Third", "reader", 40, 5, 12L, "c", "author c", 300L))
+                .onClose(() -> closed.set(true)));
+
+        //When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        facade.exportUsers(output);
+
+        //Then
+        List<JsonNode> users = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            users.add(objectMapper.readTree(line));
+        }
+        assertThat(users).extracting(user -> user.get("id").asLong()).containsExactly(1L, 2L, 3L);
+        assertThat(users.get(0).get("books")).extracting(book -> book.get("id").asLong()).containsExactly(10L, 11L);
+        assertThat(users.get(1).get("books")).isEmpty();
+        assertThat(users.get(1).get("rating").isNull()).isTrue();
+        assertThat(users.get(2).get("books").get(0).get("pageCount").asLong()).isEqualTo(300L);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Выгрузка пустой базы. Ответ пустой.")
+    void exportUsers_whenNoUsers_thenEmpty() throws Exception {
+        //Given
+        when(userExportRepository.streamUsersWithBooks()).thenReturn(Stream.empty());
+
+        //When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        facade.exportUsers(output);
+
+        //Then
+        assertThat(output.size()).isZero();
+    }
+}
@@ -0,0 +1,122 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.BookPageRequest;
+import com.edu.ulab.app.web.request.UserPageRequest;
+import com.edu.ulab.app.web.response.BookResponse;
+import com.edu.ulab.app.web.response.PageResponse;
+import com.edu.ulab.app.web.response.UserResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserListingFacade}.
+ */
+@DisplayName("Testing keyset-paginated listings.")
+public class UserListingFacadeTest {
+    private final UserService userService = mock(UserService.class);
+    private final BookService bookService = mock(BookService.class);
+    private final UserListingFacade facade = new UserListingFacade(userService, bookService,
+            Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class), 2, 3);
+
+    @Test
+    @DisplayName("Страница читается с запасом в одну строку, курсор - id последнего элемента страницы.")
+    void fullPage_thenNextCursor() {
+        //Given
+        when(userService.getUsersPage(null, 0L, 3)).thenReturn(users(1, 2, 3));
+        when(userService.getUsersPage(null, 2L, 3)).thenReturn(users(3));
+
+        //When
+        PageResponse<UserResponse> first = facade.listUsers(new UserPageRequest());
+        UserPageRequest next = new UserPageRequest();
+        next.setAfter(first.getNextCursor());
+        PageResponse<UserResponse> last = facade.listUsers(next);
+
+        //Then
+        assertThat(first.getItems()).extracting(UserResponse::getId).containsExactly(1L, 2L);
+        assertThat(first.getNextCursor()).isEqualTo(2L);
+        assertThat(last.getItems()).extracting(UserResponse::getId).containsExactly(3L);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Фильтр по рейтингу передаётся сервису, limit ограничен сверху.")
+    void ratingFilterAndLargeLimit_thenRatingPassedWithMaxLimit() {
+        //Given
+        UserPageRequest request = new UserPageRequest();
+        request.setRating(5);
+        request.setLimit(1_000);
+        when(userService.getUsersPage(5, 0L, 4)).thenReturn(users(7));
+
+        //When
+        PageResponse<UserResponse> page = facade.listUsers(request);
+
+        //Then
+        assertThat(page.getItems()).extracting(UserResponse::getId).containsExactly(7L);
+        verify(userService).getUsersPage(5, 0L, 4);
+    }
+
+    @Test
+    @DisplayName("Фильтры книг передаются сервису, диапазон страниц по умолчанию полный.")
+    void bookFilters_thenPassedToService() {
+        //Given
+        BookPageRequest request = new BookPageRequest();
+        request.setAuthor("author");
+        request.setTitlePrefix("100%_");
+        when(bookService.getBooksPage(1L, new BookFilter("author", "100%_", 0L, Long.MAX_VALUE), 0L, 3))
+                .thenReturn(List.of(new BookDto(10L, 1L, "100% book", "author", 100L)));
+
+        //When
+        PageResponse<BookResponse> page = facade.listUserBooks(1L, request);
+
+        //Then
+        assertThat(page.getItems()).extracting(BookResponse::getId).containsExactly(10L);
+        assertThat(page.getNextCursor()).isNull();
+        verify(userService, never()).existsById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Пустая страница книг несуществующего пользователя - NotFoundException.")
+    void emptyPageOfMissingUser_thenNotFound() {
+        //Given
+        when(bookService.getBooksPage(eq(404L), any(), anyLong(), anyInt())).thenReturn(List.of());
+        when(userService.existsById(404L)).thenReturn(false);
+        when(bookService.getBooksPage(eq(2L), any(), anyLong(), anyInt())).thenReturn(List.of());
+        when(userService.existsById(2L)).thenReturn(true);
+
+        //When
+        PageResponse<BookResponse> empty = facade.listUserBooks(2L, new BookPageRequest());
+
+        //Then
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(empty.getNextCursor()).isNull();
+        assertThatThrownBy(() -> facade.listUserBooks(404L, new BookPageRequest()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id: 404 was not found");
+    }
+
+    private static List<UserDto> users(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> new UserDto(id, "user " + id, "reader " + id, 20))
+                .toList();
+    }
+}
@@ -0,0 +1,322 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.exception.IdempotencyKeyReusedException;
+import com.edu.ulab.app.exception.RequestInProgressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link IdempotencyStore}.
+ */
+@DisplayName("Testing idempotency store.")
+public class IdempotencyStoreTest {
+
+    @Test
+    @DisplayName("Повтор с тем же ключом получает первый результат без повторного выполнения.")
+    void repeat_thenCachedResult() {
+        //Given
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), null);
+        AtomicInteger executions = new AtomicInteger();
+
+        //When
+        String first = store.execute("rq-1", () -> "created-" + executions.incrementAndGet());
+        String second = store.execute("rq-1", () -> "created-" + executions.incrementAndGet());
+        String other = store.execute("rq-2", () -> "created-" + executions.incrementAndGet());
+
+        //Then
+        assertThat(first).isEqualTo("created-1");
+        assertThat(second).isEqualTo("created-1");
+        assertThat(other).isEqualTo("created-2");
+    }
+
+    @Test
+    @DisplayName("Параллельный дубль ждёт первое выполнение.")
+    void concurrentDuplicate_thenWaitsForInFlight() throws Exception {
+        //Given
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), null);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        //When
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> store.execute("rq-1", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "created";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(
+                () -> store.execute("rq-1", () -> "duplicate-" + executions.incrementAndGet()));
+        Thread.sleep(50);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("created");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("created");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Дубль, не дождавшийся первого выполнения, получает RequestInProgressException.")
+    void inFlightTooLong_thenRequestInProgress() throws Exception {
+        //Given
+        IdempotencyStore<String> store = store(Duration.ofMillis(50), null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> store.execute("rq-1", () -> {
+            started.countDown();
+            await(release);
+            return "created";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> store.execute("rq-1", () -> "duplicate"))
+                .isInstanceOf(RequestInProgressException.class)
+                .hasMessageContaining("rq-1");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("created");
+    }
+
+    @Test
+    @DisplayName("Ошибка не запоминается: повтор выполняется заново.")
+    void failure_thenNextRepeatExecutes() {
+        //Given
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), null);
+
+        //When
+        assertThatThrownBy(() -> store.execute("rq-1", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        String retried = store.execute("rq-1", () -> "created");
+
+        //Then
+        assertThat(retried).isEqualTo("created");
+    }
+
+    @Test
+    @DisplayName("Результат сохраняется в хранилище и читается из него другим экземпляром.")
+    void repository_thenSharedBetweenStores() {
+        //Given
+        MapRepository repository = new MapRepository();
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), repository);
+        IdempotencyStore<String> restarted = store(Duration.ofSeconds(5), repository);
+
+        //When
+        store.execute("rq-1", () -> "created");
+        String replayed = restarted.execute("rq-1", () -> "executed again");
+
+        //Then
+        assertThat(repository.results).containsEntry("rq-1", "created");
+        assertThat(replayed).isEqualTo("created");
+    }
+
+    @Test
+    @DisplayName("Повтор ключа с другим телом запроса отклоняется, в том числе на другом экземпляре.")
+    void sameKeyDifferentBody_thenRejected() {
+        //Given
+        MapRepository repository = new MapRepository();
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), repository);
+        IdempotencyStore<String> other = store(Duration.ofSeconds(5), repository);
+        store.execute("rq-1", Map.of("name", "Ivan"), () -> "created");
+
+        //When
+        //Then
+        assertThat(store.execute("rq-1", Map.of("name", "Ivan"), () -> "executed again")).isEqualTo("created");
+        assertThatThrownBy(() -> store.execute("rq-1", Map.of("name", "Petr"), () -> "other"))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessageContaining("rq-1");
+        assertThatThrownBy(() -> other.execute("rq-1", Map.of("name", "Petr"), () -> "other"))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    @DisplayName("Дубль на другом экземпляре ждёт захватившего ключ и получает его результат.")
+    void concurrentDuplicateOnOtherStore_thenWaitsForClaim() throws Exception {
+        //Given
+        MapRepository repository = new MapRepository();
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), repository);
+        IdempotencyStore<String> other = store(Duration.ofSeconds(5), repository);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        //When
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> store.execute("rq-1", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "created";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(
+                () -> other.execute("rq-1", () -> "duplicate-" + executions.incrementAndGet()));
+        Thread.sleep(50);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        //Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("created");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("created");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Дубль на другом экземпляре, не дождавшийся захватившего, получает RequestInProgressException.")
+    void claimHeldTooLong_thenRequestInProgress() {
+        //Given
+        MapRepository repository = new MapRepository();
+        repository.claim("rq-1", null);
+        IdempotencyStore<String> store = store(Duration.ofMillis(50), repository);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> store.execute("rq-1", () -> "duplicate"))
+                .isInstanceOf(RequestInProgressException.class)
+                .hasMessageContaining("rq-1");
+    }
+
+    @Test
+    @DisplayName("При ошибке захват освобождается, и повтор на другом экземпляре выполняется заново.")
+    void failureWithRepository_thenClaimReleased() {
+        //Given
+        MapRepository repository = new MapRepository();
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), repository);
+        IdempotencyStore<String> other = store(Duration.ofMillis(50), repository);
+
+        //When
+        assertThatThrownBy(() -> store.execute("rq-1", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        String retried = other.execute("rq-1", () -> "created");
+
+        //Then
+        assertThat(retried).isEqualTo("created");
+        assertThat(repository.results).containsEntry("rq-1", "created");
+    }
+
+    @Test
+    @DisplayName("Действие и запись результата выполняются в одной транзакции, сбой записи откатывает действие.")
+    void completeInActionTransaction_thenFailureRollsBack() {
+        //Given
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        AtomicBoolean completedInTransaction = new AtomicBoolean();
+        MapRepository repository = new MapRepository() {
+            @Override
+            public synchronized void complete(String key, String result) {
+                if (result.equals("broken")) {
+                    completedInTransaction.set(inTransaction.get());
+                    throw new IllegalStateException("connection lost");
+                }
+                super.complete(key, result);
+            }
+        };
+        TransactionOperations transaction = new TransactionOperations() {
+            @Override
+            public <R> R execute(TransactionCallback<R> action) {
+                inTransaction.set(true);
+                try {
+                    return action.doInTransaction(null);
+                } finally {
+                    inTransaction.set(false);
+                }
+            }
+        };
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), repository, transaction);
+        IdempotencyStore<String> other = store(Duration.ofMillis(50), repository);
+
+        //When
+        assertThatThrownBy(() -> store.execute("rq-1", () -> "broken"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("connection lost");
+        String retried = other.execute("rq-1", () -> "created");
+
+        //Then
+        assertThat(completedInTransaction).isTrue();
+        assertThat(retried).isEqualTo("created");
+        assertThat(repository.results).containsEntry("rq-1", "created");
+    }
+
+    @Test
+    @DisplayName("Без ключа действие выполняется каждый раз.")
+    void emptyKey_thenAlwaysExecuted() {
+        IdempotencyStore<String> store = store(Duration.ofSeconds(5), null);
+        AtomicInteger executions = new AtomicInteger();
+
+        store.execute("", () -> "created-" + executions.incrementAndGet());
+        store.execute("", () -> "created-" + executions.incrementAndGet());
+
+        assertThat(executions).hasValue(2);
+    }
+
+    private static IdempotencyStore<String> store(Duration waitTimeout, IdempotencyRepository<String> repository) {
+        return store(waitTimeout, repository, TransactionOperations.withoutTransaction());
+    }
+
+    private static IdempotencyStore<String> store(Duration waitTimeout, IdempotencyRepository<String> repository,
+                                                  TransactionOperations transaction) {
+        return new IdempotencyStore<>("test", 100, Duration.ofMinutes(1), waitTimeout, repository, transaction,
+                new ObjectMapper());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MapRepository implements IdempotencyRepository<String> {
+        private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+        private final Map<String, String> results = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> claimed = new ConcurrentHashMap<>();
+
+        @Override
+        public synchronized Claim<String> claim(String key, String fingerprint) {
+            if (results.containsKey(key)) {
+                return Claim.completed(fingerprints.get(key), results.get(key));
+            }
+            if (claimed.containsKey(key)) {
+                return Claim.inProgress(fingerprints.get(key));
+            }
+            claimed.put(key, true);
+            if (fingerprint != null) {
+                fingerprints.put(key, fingerprint);
+            }
+            return Claim.claimed();
+        }
+
+        @Override
+        public synchronized void complete(String key, String result) {
+            if (claimed.remove(key) != null) {
+                results.put(key, result);
+            }
+        }
+
+        @Override
+        public synchronized void release(String key) {
+            if (claimed.remove(key) != null) {
+                fingerprints.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.edu.ulab.app.jdbc;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link PartialUpdate} и изменения через {@link UserServiceImplTemplate}/{@link BookServiceImplTemplate}
+ * на встроенной H2.
+ */
+@DisplayName("Testing single statement partial update.")
+public class PartialUpdateTest {
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", true));
+        jdbcTemplate.execute("CREATE TABLE PERSON (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 100) PRIMARY KEY, full_name VARCHAR(255), "
+                + "title VARCHAR(255), age INTEGER, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE BOOK (id BIGINT PRIMARY KEY, user_id BIGINT, title VARCHAR(255), "
+                + "author VARCHAR(255), page_count BIGINT, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO PERSON (id, full_name, title, age) VALUES (1, 'Test Test', 'reader', 33)");
+        jdbcTemplate.update("INSERT INTO PERSON (id, full_name, title, age) VALUES (2, 'Other', 'writer', 40)");
+        jdbcTemplate.update("INSERT INTO BOOK (id, user_id, title, author, page_count) VALUES (10, 1, 'Book', 'Author', 100)");
+    }
+
+    @Test
+    @DisplayName("Запрос собирается из COALESCE по столбцам и увеличения версии.")
+    void build_thenCoalesceStatement() {
+        PartialUpdate<Long> update = PartialUpdate.table("PERSON")
+                .column("full_name", Types.VARCHAR)
+                .column("age", Types.INTEGER)
+                .increment("version")
+                .returning((rs, rowNum) -> rs.getLong("id"), "id");
+
+        assertThat(update.sql()).isEqualTo("UPDATE PERSON SET full_name = COALESCE(?, full_name), "
+                + "age = COALESCE(?, age), version = version + 1 WHERE id = ?");
+    }
+
+    @Test
+    @DisplayName("Изменение пользователя: переданные поля меняются, остальные сохраняются, строка возвращается.")
+    void updateUser_thenMergedRowReturned() {
+        //Given
+        UserServiceImplTemplate userService = new UserServiceImplTemplate(jdbcTemplate, Mappers.getMapper(UserMapper.class));
+
+        //When
+        UserDto updated = userService.updateUser(new UserDto(1L, null, "writer", null));
+
+        //Then
+        assertThat(updated).isEqualTo(new UserDto(1L, "Test Test", "writer", 33));
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM PERSON WHERE id = 1", Long.class)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM PERSON WHERE id = 2", String.class)).isEqualTo("writer");
+        assertThat(jdbcTemplate.queryForObject("SELECT full_name FROM PERSON WHERE id = 2", String.class)).isEqualTo("Other");
+    }
+
+    @Test
+    @DisplayName("Изменение отсутствующего пользователя. Должно выбросить NotFoundException.")
+    void updateMissingUser_thenNotFound() {
+        UserServiceImplTemplate userService = new UserServiceImplTemplate(jdbcTemplate, Mappers.getMapper(UserMapper.class));
+
+        assertThatThrownBy(() -> userService.updateUser(new UserDto(99L, "x", null, null)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Создание пользователей без возраста: возраст передаётся как NULL, а не падает на распаковке.")
+    void createUsersWithoutAge_thenNullBound() {
+        //Given
+        UserServiceImplTemplate userService = new UserServiceImplTemplate(jdbcTemplate, Mappers.getMapper(UserMapper.class));
+
+        //When
+        UserDto single = userService.createUser(new UserDto(null, "Single", "reader", null));
+        UserDto batched = userService.createUsers(List.of(new UserDto(null, "Batched", "reader", null))).get(0);
+
+        //Then
+        assertThat(jdbcTemplate.queryForObject("SELECT age FROM PERSON WHERE id = ?", Integer.class, single.getId())).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT age FROM PERSON WHERE id = ?", Integer.class, batched.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Изменение книги: значения попадают в свои столбцы.")
+    void updateBook_thenColumnsBoundCorrectly() {
+        //Given
+        BookServiceImplTemplate bookService = new BookServiceImplTemplate(jdbcTemplate, Mappers.getMapper(BookMapper.class));
+
+        //When
+        BookDto updated = bookService.updateBook(new BookDto(10L, 2L, null, "New Author", 250L));
+
+        //Then
+        assertThat(updated).isEqualTo(new BookDto(10L, 2L, "Book", "New Author", 250L));
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM BOOK WHERE id = 10", Long.class)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Изменение книги без числа страниц: число страниц в БД сохраняется.")
+    void updateBookWithoutPageCount_thenPageCountKept() {
+        //Given
+        BookServiceImplTemplate bookService = new BookServiceImplTemplate(jdbcTemplate, Mappers.getMapper(BookMapper.class));
+
+        //When
+        BookDto updated = bookService.updateBook(new BookDto(10L, null, "New Title", null, null));
+
+        //Then
+        assertThat(updated).isEqualTo(new BookDto(10L, 1L, "New Title", "Author", 100L));
+        assertThat(jdbcTemplate.queryForObject("SELECT page_count FROM BOOK WHERE id = 10", Long.class)).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("Маппер переносит в книгу только заданные поля, в том числе без числа страниц.")
+    void updateBookFromDtoWithoutPageCount_thenPageCountKept() {
+        //Given
+        Book book = new Book();
+        book.setId(10L);
+        book.setUserId(1L);
+        book.setTitle("Book");
+        book.setAuthor("Author");
+        book.setPageCount(100);
+
+        //When
+        Mappers.getMapper(BookMapper.class).updateBookFromDto(new BookDto(10L, null, "New Title", null, null), book);
+
+        //Then
+        assertThat(book.getTitle()).isEqualTo("New Title");
+        assertThat(book.getAuthor()).isEqualTo("Author");
+        assertThat(book.getPageCount()).isEqualTo(100L);
+    }
+}
@@ -0,0 +1,124 @@
+package com.edu.ulab.app.jdbc;
+
+import com.edu.ulab.app.config.StatementBudgetProperties;
+import com.edu.ulab.app.web.interceptor.StatementBudgetInterceptor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link StatementBudgetListener} вместе с {@link StatementBudgetInterceptor}.
+ */
+@DisplayName("Testing per-request statement budget.")
+public class StatementBudgetListenerTest {
+    private static final String SELECT_BOOK = "select * from ulab_edu.book where id = ?";
+
+    StatementBudgetProperties properties;
+    SimpleMeterRegistry meterRegistry;
+    StatementBudgetListener listener;
+    StatementBudgetInterceptor interceptor;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StatementBudgetProperties();
+        properties.setMaxStatements(5);
+        properties.setMaxRepeats(2);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new StatementBudgetListener(properties);
+        interceptor = new StatementBudgetInterceptor(properties, meterRegistry);
+        request = new MockHttpServletRequest("GET", "/app/api/v1/user/getUserBooks/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/user/getUserBooks/{userId}");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestStatements.close();
+    }
+
+    @Test
+    @DisplayName("Число запросов публикуется в гистограмму по шаблону пути.")
+    void statementsCounted_thenRecordedPerEndpoint() {
+        //When
+        interceptor.preHandle(request, response, new Object());
+        execute("select * from ulab_edu.person where id = ?");
+        execute(SELECT_BOOK);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        //Then
+        DistributionSummary summary = meterRegistry.find(StatementBudgetInterceptor.STATEMENTS_METRIC)
+                .tag("uri", "/api/v1/user/getUserBooks/{userId}")
+                .summary();
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.find(StatementBudgetInterceptor.REPEATED_METRIC).counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Повтор одного запроса сверх порога считается N+1.")
+    void repeatedStatement_thenDetected() {
+        //When
+        interceptor.preHandle(request, response, new Object());
+        for (int i = 0; i < 3; i++) {
+            execute(SELECT_BOOK);
+        }
+        RequestStatements statements = RequestStatements.current();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        //Then
+        assertThat(statements.getMaxRepeats()).isEqualTo(3);
+        assertThat(statements.getRepeatedStatement()).isEqualTo(SELECT_BOOK);
+        assertThat(meterRegistry.get(StatementBudgetInterceptor.REPEATED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("В режиме REJECT запрос сверх лимита не выполняется.")
+    void overBudgetInRejectMode_thenRejected() {
+        //Given
+        properties.setMode(StatementBudgetProperties.Mode.REJECT);
+        interceptor.preHandle(request, response, new Object());
+        for (int i = 0; i < 5; i++) {
+            execute("select " + i);
+        }
+
+        //When, Then
+        assertThatThrownBy(() -> execute("select 6"))
+                .isInstanceOf(StatementBudgetExceededException.class);
+        interceptor.afterCompletion(request, response, new Object(), null);
+        assertThat(meterRegistry.get(StatementBudgetInterceptor.EXCEEDED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Вне HTTP-запроса запросы не учитываются.")
+    void outsideRequest_thenIgnored() {
+        //When
+        for (int i = 0; i < 10; i++) {
+            execute(SELECT_BOOK);
+        }
+
+        //Then
+        assertThat(RequestStatements.current()).isNull();
+    }
+
+    private void execute(String sql) {
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        listener.beforeQuery(new ExecutionInfo(), queries);
+        listener.afterQuery(new ExecutionInfo(), queries);
+    }
+}
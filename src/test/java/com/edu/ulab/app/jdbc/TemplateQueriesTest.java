@@ -0,0 +1,110 @@
+package com.edu.ulab.app.jdbc;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookFilter;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты запросов по набору идентификаторов и постраничного чтения
+ * {@link UserServiceImplTemplate}/{@link BookServiceImplTemplate} на встроенной H2.
+ */
+@DisplayName("Testing template read queries.")
+public class TemplateQueriesTest {
+    private JdbcTemplate jdbcTemplate;
+    private UserServiceImplTemplate userService;
+    private BookServiceImplTemplate bookService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", true));
+        jdbcTemplate.execute("CREATE TABLE PERSON (id BIGINT PRIMARY KEY, full_name VARCHAR(255), "
+                + "title VARCHAR(255), age INTEGER, rating INTEGER, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE BOOK (id BIGINT PRIMARY KEY, user_id BIGINT, title VARCHAR(255), "
+                + "author VARCHAR(255), page_count BIGINT, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO PERSON (id, full_name, title, age, rating) VALUES (1, 'First', 'reader', 20, 5)");
+        jdbcTemplate.update("INSERT INTO PERSON (id, full_name, title, age, rating) VALUES (2, 'Second', 'reader', 30, 3)");
+        jdbcTemplate.update("INSERT INTO PERSON (id, full_name, title, age, rating) VALUES (3, 'Third', 'reader', 40, 5)");
+        jdbcTemplate.update("INSERT INTO BOOK (id, user_id, title, author, page_count) VALUES (10, 1, '100% sure', 'Author', 100)");
+        jdbcTemplate.update("INSERT INTO BOOK (id, user_id, title, author, page_count) VALUES (11, 1, '1000 nights', 'Author', 900)");
+        jdbcTemplate.update("INSERT INTO BOOK (id, user_id, title, author, page_count) VALUES (12, 1, '100% other', 'Other', 200)");
+        jdbcTemplate.update("INSERT INTO BOOK (id, user_id, title, author, page_count) VALUES (13, 2, '100% sure', 'Author', 100)");
+        userService = new UserServiceImplTemplate(jdbcTemplate, Mappers.getMapper(UserMapper.class));
+        bookService = new BookServiceImplTemplate(jdbcTemplate, Mappers.getMapper(BookMapper.class));
+    }
+
+    @Test
+    @DisplayName("Страница пользователей: после курсора, по возрастанию id, с фильтром по рейтингу.")
+    void getUsersPage_thenKeysetOrder() {
+        assertThat(userService.getUsersPage(null, 0L, 2)).extracting(UserDto::getId).containsExactly(1L, 2L);
+        assertThat(userService.getUsersPage(null, 2L, 2)).extracting(UserDto::getId).containsExactly(3L);
+        assertThat(userService.getUsersPage(5, 1L, 10)).extracting(UserDto::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Страница книг: префикс названия с % и _ ищется буквально, фильтры автора и страниц применяются.")
+    void getBooksPage_thenFiltersApplied() {
+        assertThat(bookService.getBooksPage(1L, new BookFilter(null, "100%", 0L, Long.MAX_VALUE), 0L, 10))
+                .extracting(BookDto::getId).containsExactly(10L, 12L);
+        assertThat(bookService.getBooksPage(1L, new BookFilter("Author", "100%", 0L, Long.MAX_VALUE), 0L, 10))
+                .extracting(BookDto::getId).containsExactly(10L);
+        assertThat(bookService.getBooksPage(1L, new BookFilter(null, null, 150L, 1000L), 10L, 1))
+                .extracting(BookDto::getId).containsExactly(11L);
+        assertThat(bookService.getBooksPage(1L, new BookFilter(null, "100_", 0L, Long.MAX_VALUE), 0L, 10))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Пользователи по набору id: отсутствующих нет в результате, повторы не дублируются.")
+    void getUsersByIds_thenFoundOnly() {
+        //When
+        Map<Long, UserDto> users = userService.getUsersByIds(List.of(1L, 404L, 3L, 1L));
+
+        //Then
+        assertThat(users).containsOnlyKeys(1L, 3L);
+        assertThat(users.get(3L)).isEqualTo(new UserDto(3L, "Third", "reader", 40));
+        assertThat(userService.getUsersByIds(List.of(404L))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Книги по набору пользователей: группировка по пользователю, без пользователей без книг и повторов.")
+    void getBooksByUserIds_thenGroupedByUser() {
+        //When
+        Map<Long, List<BookDto>> books = bookService.getBooksByUserIds(List.of(1L, 2L, 3L, 404L, 2L));
+
+        //Then
+        assertThat(books).containsOnlyKeys(1L, 2L);
+        assertThat(books.get(1L)).extracting(BookDto::getId).containsExactly(10L, 11L, 12L);
+        assertThat(books.get(2L)).extracting(BookDto::getId).containsExactly(13L);
+    }
+
+    @Test
+    @DisplayName("Удаление по набору id: считаются только удалённые строки, чужие строки не затрагиваются.")
+    void deleteByIds_thenOnlyListedRowsDeleted() {
+        //When
+        int deletedBooks = bookService.deleteBooksByUserIds(List.of(1L, 404L, 1L));
+        int deletedUsers = userService.deleteUsersByIds(List.of(1L, 404L, 1L));
+
+        //Then
+        assertThat(deletedBooks).isEqualTo(3);
+        assertThat(deletedUsers).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM BOOK ORDER BY id", Long.class)).containsExactly(13L);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM PERSON ORDER BY id", Long.class)).containsExactly(2L, 3L);
+    }
+}
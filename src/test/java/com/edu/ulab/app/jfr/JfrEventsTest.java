@@ -0,0 +1,91 @@
+package com.edu.ulab.app.jfr;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.InMemoryStorage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты событий JFR: {@link JfrEventsAspect}, {@link JfrStatementListener} и {@link SqlFingerprint}.
+ */
+@DisplayName("Testing JFR events.")
+public class JfrEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Литералы и списки IN не попадают в отпечаток SQL.")
+    void fingerprint_thenLiteralsReplaced() {
+        String fingerprint = SqlFingerprint.of(
+                "SELECT * FROM ulab_edu.book\n WHERE user_id = 42 AND title = 'It''s' AND id IN (?, ?, ?)");
+
+        assertThat(fingerprint)
+                .isEqualTo("select * from ulab_edu.book where user_id = ? and title = ? and id in (?+)");
+    }
+
+    @Test
+    @DisplayName("Вызов сервиса и SQL-запрос записываются в JFR с реализацией и отпечатком.")
+    void serviceCallAndStatement_thenRecorded() throws Exception {
+        //Given
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new UserServiceImplStorage(new InMemoryStorage(), Mappers.getMapper(UserMapper.class)));
+        factory.addAspect(new JfrEventsAspect());
+        UserService userService = factory.getProxy();
+        JfrStatementListener listener = new JfrStatementListener();
+        List<QueryInfo> query = List.of(new QueryInfo("select * from ulab_edu.person where id = 7"));
+        Path file = directory.resolve("events.jfr");
+
+        //When
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceCallEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(JdbcStatementEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            UserDto created = userService.createUser(new UserDto(null, "Test Test", "reader", 33));
+            userService.getUserById(created.getId());
+            ExecutionInfo execInfo = new ExecutionInfo();
+            execInfo.setSuccess(true);
+            listener.beforeQuery(execInfo, query);
+            listener.afterQuery(execInfo, query);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        //Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("com.edu.ulab.ServiceCall"))
+                .anySatisfy(event -> {
+                    assertThat(event.getString("implementation")).isEqualTo("UserServiceImplStorage");
+                    assertThat(event.getString("method")).isEqualTo("getUserById");
+                    assertThat(event.getLong("userId")).isPositive();
+                    assertThat(event.getBoolean("success")).isTrue();
+                });
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("com.edu.ulab.JdbcStatement"))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("fingerprint")).isEqualTo("select * from ulab_edu.person where id = ?");
+                    assertThat(event.getInt("batchSize")).isEqualTo(1);
+                });
+    }
+}
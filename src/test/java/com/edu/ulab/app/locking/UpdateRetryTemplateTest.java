@@ -0,0 +1,130 @@
+package com.edu.ulab.app.locking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.core.spi.FilterReply;
+import org.hibernate.StaleStateException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link UpdateRetryTemplate}.
+ */
+@DisplayName("Testing update retry template.")
+public class UpdateRetryTemplateTest {
+
+    @Test
+    @DisplayName("Оптимистическая блокировка: конфликт версий повторяется до успеха.")
+    void optimisticConflict_thenRetried() {
+        //Given
+        UpdateRetryTemplate template = template(LockMode.OPTIMISTIC, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //When
+        String result = template.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "updated";
+        });
+
+        //Then
+        assertThat(result).isEqualTo("updated");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Оптимистическая блокировка: после последней попытки конфликт пробрасывается.")
+    void optimisticConflict_thenGivesUpAfterMaxAttempts() {
+        //Given
+        UpdateRetryTemplate template = template(LockMode.OPTIMISTIC, 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //When
+        //Then
+        assertThatThrownBy(() -> template.execute(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Пессимистическая блокировка: изменение выполняется один раз.")
+    void pessimistic_thenNoRetry() {
+        //Given
+        UpdateRetryTemplate template = template(LockMode.PESSIMISTIC, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //When
+        //Then
+        assertThatThrownBy(() -> template.execute(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Другие ошибки не повторяются.")
+    void otherException_thenNoRetry() {
+        //Given
+        UpdateRetryTemplate template = template(LockMode.OPTIMISTIC, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //When
+        //Then
+        assertThatThrownBy(() -> template.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Ошибка BatchingBatch о конфликте версий скрывается только внутри оптимистической попытки.")
+    void staleBatchLog_thenDeniedOnlyInsideOptimisticAttempt() {
+        //Given
+        RetriedConflictLogFilter filter = new RetriedConflictLogFilter();
+        Logger batchLogger = (Logger) LoggerFactory.getLogger(RetriedConflictLogFilter.BATCHING_BATCH_LOGGER);
+        Logger otherLogger = (Logger) LoggerFactory.getLogger(UpdateRetryTemplate.class);
+        StaleStateException stale = new StaleStateException("Batch update returned unexpected row count");
+        List<FilterReply> inside = new ArrayList<>();
+
+        //When
+        template(LockMode.OPTIMISTIC, 1).execute(() -> {
+            inside.add(filter.decide(null, batchLogger, Level.ERROR, "HHH000315", null, stale));
+            inside.add(filter.decide(null, batchLogger, Level.ERROR, "HHH000315", null, new IllegalStateException()));
+            inside.add(filter.decide(null, otherLogger, Level.ERROR, "conflict", null, stale));
+            return "updated";
+        });
+        FilterReply pessimistic = template(LockMode.PESSIMISTIC, 1).execute(
+                () -> filter.decide(null, batchLogger, Level.ERROR, "HHH000315", null, stale));
+        FilterReply outside = filter.decide(null, batchLogger, Level.ERROR, "HHH000315", null, stale);
+
+        //Then
+        assertThat(inside).containsExactly(FilterReply.DENY, FilterReply.NEUTRAL, FilterReply.NEUTRAL);
+        assertThat(pessimistic).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(outside).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private static UpdateRetryTemplate template(LockMode lockMode, int maxAttempts) {
+        return new UpdateRetryTemplate(lockMode, TransactionOperations.withoutTransaction(),
+                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(2));
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Person", 1L);
+    }
+}
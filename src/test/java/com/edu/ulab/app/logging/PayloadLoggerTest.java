@@ -0,0 +1,102 @@
+package com.edu.ulab.app.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link PayloadLogger}.
+ */
+@DisplayName("Testing sampled payload logger.")
+public class PayloadLoggerTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(PayloadLogger.LOGGER_NAME);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("Тело вне выборки не логируется и не сериализуется.")
+    void notSampled_thenPayloadNotSerialized() {
+        //Given
+        PayloadLogger payloadLogger = new PayloadLogger(true, 0.0, Map.of("create", 1.0));
+        CountingPayload payload = new CountingPayload();
+
+        //When
+        for (int i = 0; i < 1000; i++) {
+            payloadLogger.log("getUser", payload);
+        }
+
+        //Then
+        assertThat(payload.serialized).hasValue(0);
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Точка со своей долей 1 логируется всегда.")
+    void endpointRate_thenOverridesDefault() {
+        //Given
+        PayloadLogger payloadLogger = new PayloadLogger(true, 0.0, Map.of("create", 1.0));
+        CountingPayload payload = new CountingPayload();
+
+        //When
+        payloadLogger.log("create", payload);
+        payloadLogger.log("create", payload);
+
+        //Then
+        assertThat(appender.list)
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("create: payload", "create: payload");
+    }
+
+    @Test
+    @DisplayName("Выключенный логгер ничего не пишет даже при доле 1.")
+    void disabled_thenNothingLogged() {
+        //Given
+        PayloadLogger payloadLogger = new PayloadLogger(false, 1.0, Map.of());
+
+        //When
+        payloadLogger.log("create", new CountingPayload());
+
+        //Then
+        assertThat(payloadLogger.isSampled("create")).isFalse();
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Доля вне [0, 1] отклоняется.")
+    void invalidRate_thenThrows() {
+        assertThatThrownBy(() -> new PayloadLogger(true, 0.01, Map.of("create", 1.5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("create");
+    }
+
+    private static class CountingPayload {
+        private final AtomicInteger serialized = new AtomicInteger();
+
+        @Override
+        public String toString() {
+            serialized.incrementAndGet();
+            return "payload";
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.InMemoryStorage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link LayerMetricsAspect}.
+ */
+@DisplayName("Testing layer metrics aspect.")
+public class LayerMetricsAspectTest {
+    SimpleMeterRegistry meterRegistry;
+    UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new UserServiceImplStorage(new InMemoryStorage(), Mappers.getMapper(UserMapper.class)));
+        factory.addAspect(new LayerMetricsAspect(meterRegistry));
+        userService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Вызов сервиса записывается в таймер с классом реализации и методом.")
+    void serviceCall_thenTimedWithImplementationTag() {
+        //When
+        UserDto created = userService.createUser(new UserDto(null, "Test Test", "reader", 33));
+        userService.getUserById(created.getId());
+
+        //Then
+        Timer timer = meterRegistry.find(LayerMetricsAspect.METRIC)
+                .tags("layer", "service",
+                        "class", "UserServiceImplStorage",
+                        "method", "getUserById",
+                        "exception", "none")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Исключение попадает в тег exception и пробрасывается дальше.")
+    void failedCall_thenTaggedWithException() {
+        //When
+        assertThatThrownBy(() -> userService.getUserById(404L)).isInstanceOf(NotFoundException.class);
+
+        //Then
+        Timer timer = meterRegistry.find(LayerMetricsAspect.METRIC)
+                .tags("method", "getUserById", "exception", "NotFoundException")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
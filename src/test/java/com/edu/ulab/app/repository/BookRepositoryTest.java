@@ -13,6 +13,7 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -78,6 +79,47 @@ public class BookRepositoryTest {
 
     }
 
+    @DisplayName("Пакетное сохранение книг пользователя." +
+            " Все книги должны уйти одним batch insert")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void saveAllBooks_thenSingleBatchedInsert() {
+        //Given
+        Person person = new Person();
+        person.setAge(111);
+        person.setTitle("reader1");
+        person.setFullName("Test Test");
+        person.setRating(2);
+
+        Person savedPerson = userRepository.saveAndFlush(person);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Book book = new Book();
+            book.setAuthor("Test Author");
+            book.setTitle("test " + i);
+            book.setPageCount(100 + i);
+            book.setUserId(savedPerson.getId());
+            books.add(book);
+        }
+        SQLStatementCountValidator.reset();
+
+        //When
+        List<Book> result = bookRepository.saveAll(books);
+
+        bookRepository.flush();
+
+        //Then
+        assertThat(result).hasSize(10).allSatisfy(book -> assertThat(book.getId()).isNotNull());
+        assertInsertCount(1);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
     // update
     @DisplayName("Обновление полей книги. Число Select должно быть равно 2." +
             " Число Insert должно быть равно 2." +
@@ -157,6 +199,25 @@ public class BookRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получение идентификаторов книг юзера. Число Select должно быть равно 1, сущности не загружаются.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void findBookIdsByUserId_thenAssertDmlCount() {
+        //When
+        List<Long> bookIds = bookRepository.findBookIdsByUserId(1001L);
+
+        //Then
+        assertThat(bookIds).containsExactly(2002L, 3003L);
+        assertSelectCount(1);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
     // get all
     @DisplayName("Получение всех книг из БД. Число Select должно быть равно 1. " +
             "Число Insert должны быть равно 2.")
@@ -224,6 +285,50 @@ public class BookRepositoryTest {
 
     }
 
+    @DisplayName("Удаление книг юзера одним запросом. Число Select должно быть равно 0. " +
+            "Число Delete должны быть равно 1.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deleteBooksByUserId_thenAssertDmlCount() {
+        // Given
+        // 2 книги юзера сохранены с помощью 3_insert_book_data.sql
+        Long userId = 1001L;
+
+        //When
+        int deleted = bookRepository.deleteBooksByUserId(userId);
+
+        //Then
+        assertThat(deleted).isEqualTo(2);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+        assertThat(bookRepository.count()).isZero();
+    }
+
+    @DisplayName("Удаление книг нескольких юзеров одним запросом. Число Delete должны быть равно 1.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deleteBooksByUserIdIn_thenAssertDmlCount() {
+        //When
+        int deleted = bookRepository.deleteBooksByUserIdIn(List.of(1001L, 404L));
+
+        //Then
+        assertThat(deleted).isEqualTo(2);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+    }
+
     // * failed
     @DisplayName("Сохранение книги с Null полем. Должно выброситься исключение.")
     @Test
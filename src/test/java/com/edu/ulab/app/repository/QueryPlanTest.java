@@ -0,0 +1,209 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.CapturedQuery;
+import com.edu.ulab.app.config.QueryCaptureListener;
+import com.edu.ulab.app.config.QueryPlan;
+import com.edu.ulab.app.config.QueryPlanExplainer;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Регрессионные тесты планов запросов.
+ * <p>
+ * Запросы репозиториев и сервисов на {@link JdbcTemplate} выполняются на заполненной базе,
+ * перехватываются {@link QueryCaptureListener} и разбираются через {@code EXPLAIN}.
+ * Последовательное сканирование допускается только для таблиц меньше {@link #SEQ_SCAN_ROWS_LIMIT} строк.
+ */
+@SystemJpaTest
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/4_insert_plan_data.sql"
+})
+public class QueryPlanTest {
+    private static final long SEQ_SCAN_ROWS_LIMIT = 1_000;
+    private static final double COST_LIMIT = 100.0;
+    private static final long USER_ID = 100_042L;
+    private static final String BOOK_USER_ID_INDEX = "idx_ulab_edu_book_user_id_id";
+    private static final String BOOK_USER_ID_AUTHOR_INDEX = "idx_ulab_edu_book_user_id_author_id";
+    private static final String PERSON_RATING_INDEX = "idx_ulab_edu_person_rating_id";
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    QueryCaptureListener queryCaptureListener;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    EntityManager entityManager;
+
+    JdbcTemplate jdbcTemplate;
+    QueryPlanExplainer explainer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        explainer = new QueryPlanExplainer(jdbcTemplate);
+        queryCaptureListener.reset();
+    }
+
+    @DisplayName("Идентификаторы книг пользователя читаются из покрывающего индекса")
+    @Test
+    @Rollback
+    void findBookIdsByUserId_thenIndexOnlyScan() {
+        //When
+        List<Long> ids = bookRepository.findBookIdsByUserId(USER_ID);
+
+        //Then
+        assertThat(ids).hasSize(10);
+        QueryPlan plan = singlePlan();
+        assertThat(plan.hasNode("Index Only Scan", BOOK_USER_ID_INDEX)).as(plan.toString()).isTrue();
+        assertThat(plan.getTotalCost()).as(plan.toString()).isLessThan(COST_LIMIT);
+    }
+
+    @DisplayName("Книги пользователя ищутся по индексу user_id")
+    @Test
+    @Rollback
+    void findBooksByUserId_thenIndexScan() {
+        //When
+        bookRepository.findBooksByUserId(USER_ID);
+
+        //Then
+        QueryPlan plan = singlePlan();
+        assertThat(plan.getIndexNames()).as(plan.toString()).contains(BOOK_USER_ID_INDEX);
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Удаление книг пользователя не сканирует таблицу книг")
+    @Test
+    @Rollback
+    void deleteBooksByUserId_thenNoSeqScan() {
+        //When
+        bookRepository.deleteBooksByUserId(USER_ID);
+        entityManager.flush();
+
+        //Then
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Пользователь с идентификаторами книг читается одним запросом по индексам")
+    @Test
+    @Rollback
+    void findUserBookIds_thenIndexLookups() {
+        //When
+        List<UserBookIdView> rows = userRepository.findUserBookIds(USER_ID);
+
+        //Then
+        assertThat(rows).hasSize(10);
+        QueryPlan plan = singlePlan();
+        assertThat(plan.hasNode("Index Only Scan", BOOK_USER_ID_INDEX)).as(plan.toString()).isTrue();
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Пользователь читается по первичному ключу")
+    @Test
+    @Rollback
+    void findUserById_thenPrimaryKeyLookup() {
+        //When
+        userRepository.findById(USER_ID);
+
+        //Then
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Глубокая страница пользователей читается с курсора, а не с начала таблицы")
+    @Test
+    @Rollback
+    void findUsersPage_thenKeysetLookup() {
+        //When
+        userRepository.findPage(109_000L, PageRequest.of(0, 51));
+        userRepository.findPageByRating(5, 109_000L, PageRequest.of(0, 51));
+
+        //Then
+        List<CapturedQuery> queries = queryCaptureListener.getQueries();
+        assertThat(queries).hasSize(2);
+        QueryPlan byRating = explainer.explain(queries.get(1));
+        assertThat(byRating.getIndexNames()).as(byRating.toString()).contains(PERSON_RATING_INDEX);
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Страница книг пользователя читается по индексам пользователя, с фильтром по автору - по индексу автора")
+    @Test
+    @Rollback
+    void findBooksPage_thenUserIndexes() {
+        //When
+        bookRepository.findPageByUserId(USER_ID, 0L, "book%", 0L, Long.MAX_VALUE, PageRequest.of(0, 51));
+        bookRepository.findPageByUserIdAndAuthor(USER_ID, "author 41", 0L, "%", 0L, Long.MAX_VALUE,
+                PageRequest.of(0, 51));
+
+        //Then
+        List<CapturedQuery> queries = queryCaptureListener.getQueries();
+        assertThat(queries).hasSize(2);
+        QueryPlan byUser = explainer.explain(queries.get(0));
+        assertThat(byUser.getIndexNames()).as(byUser.toString()).contains(BOOK_USER_ID_INDEX);
+        QueryPlan byAuthor = explainer.explain(queries.get(1));
+        assertThat(byAuthor.getIndexNames()).as(byAuthor.toString()).contains(BOOK_USER_ID_AUTHOR_INDEX);
+        assertPlansWithinLimits();
+    }
+
+    @DisplayName("Запросы сервисов на JdbcTemplate не сканируют большие таблицы")
+    @Test
+    @Rollback
+    void templateServiceQueries_thenNoSeqScan() {
+        //Given
+        jdbcTemplate.execute("SET LOCAL search_path TO ulab_edu, public");
+        UserServiceImplTemplate userService =
+                new UserServiceImplTemplate(jdbcTemplate, Mappers.getMapper(UserMapper.class));
+        BookServiceImplTemplate bookService =
+                new BookServiceImplTemplate(jdbcTemplate, Mappers.getMapper(BookMapper.class));
+        queryCaptureListener.reset();
+
+        //When
+        userService.getUserById(USER_ID);
+        userService.existsById(USER_ID);
+        userService.findBooksIdsByUserId(USER_ID);
+        bookService.getBooksIdsByUserId(USER_ID);
+        bookService.getBooksByUserId(USER_ID);
+        bookService.deleteBooksByUserId(USER_ID);
+
+        //Then
+        assertThat(queryCaptureListener.getQueries()).hasSize(6);
+        assertPlansWithinLimits();
+    }
+
+    private QueryPlan singlePlan() {
+        List<CapturedQuery> queries = queryCaptureListener.getQueries();
+        assertThat(queries).hasSize(1);
+        return explainer.explain(queries.get(0));
+    }
+
+    private void assertPlansWithinLimits() {
+        for (CapturedQuery query : queryCaptureListener.getQueries()) {
+            QueryPlan plan = explainer.explain(query);
+            for (String relation : plan.getSeqScannedRelations()) {
+                assertThat(explainer.estimatedRows("ulab_edu." + relation))
+                        .as("Seq Scan on %s%n%s", relation, plan)
+                        .isLessThan(SEQ_SCAN_ROWS_LIMIT);
+            }
+            assertThat(plan.getTotalCost()).as(plan.toString()).isLessThan(COST_LIMIT);
+        }
+    }
+}
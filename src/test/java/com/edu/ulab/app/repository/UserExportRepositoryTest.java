@@ -0,0 +1,67 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.UserBookRow;
+import com.edu.ulab.app.entity.Person;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты репозитория {@link UserExportRepository}.
+ */
+@SystemJpaTest
+public class UserExportRepositoryTest {
+    @Autowired
+    UserExportRepository userExportRepository;
+    @Autowired
+    UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        SQLStatementCountValidator.reset();
+    }
+
+    @DisplayName("Выгрузка пользователей с книгами одним запросом." +
+            " Строки упорядочены по пользователю и книге, пользователь без книг тоже попадает в выгрузку")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void streamUsersWithBooks_thenOrderedRowsInSingleSelect() {
+        //Given
+        Person person = new Person();
+        person.setAge(111);
+        person.setTitle("reader1");
+        person.setFullName("Test Test");
+        person.setRating(2);
+
+        Person savedPerson = userRepository.saveAndFlush(person);
+        SQLStatementCountValidator.reset();
+
+        //When
+        List<UserBookRow> rows;
+        try (Stream<UserBookRow> stream = userExportRepository.streamUsersWithBooks()) {
+            rows = stream.toList();
+        }
+
+        //Then
+        assertThat(rows).extracting(UserBookRow::getUserId)
+                .containsExactly(1001L, 1001L, savedPerson.getId());
+        assertThat(rows).extracting(UserBookRow::getBookId)
+                .containsExactly(2002L, 3003L, null);
+        assertSelectCount(1);
+    }
+}
@@ -132,6 +132,47 @@ public class UserRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получить юзера вместе с идентификаторами книг. Число select должно равняться 1.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void findUserBookIds_thenSingleSelect() {
+        //Given
+        // Юзер и его книги уже сохранены в бд с помощью файлов 2_insert_person_data.sql и 3_insert_book_data.sql
+
+        //When
+        List<UserBookIdView> existing = userRepository.findUserBookIds(1001L);
+        List<UserBookIdView> missing = userRepository.findUserBookIds(-1L);
+
+        //Then
+        assertThat(existing).containsExactly(
+                new UserBookIdView(1001L, 2002L),
+                new UserBookIdView(1001L, 3003L));
+        assertThat(missing).isEmpty();
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Получить юзера без книг. Должна вернуться одна строка без книги.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void findUserBookIds_whenNoBooks_thenSingleRowWithoutBook() {
+        //When
+        List<UserBookIdView> rows = userRepository.findUserBookIds(1001L);
+
+        //Then
+        assertThat(rows).containsExactly(new UserBookIdView(1001L, null));
+        assertSelectCount(1);
+    }
+
     // get all
     @DisplayName("Получение всех юзеров из БД. Число Select должно быть равно 1. " +
             "Число Insert должны быть равно 1;.")
@@ -191,6 +232,27 @@ public class UserRepositoryTest {
 
     }
 
+    @DisplayName("Удаление юзеров одним запросом, без загрузки сущностей. Число Select должно быть равно 0. " +
+            "Число Delete должны быть равно 1.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deletePersonsByIdIn_thenAssertDmlCount() {
+        //When
+        int deleted = userRepository.deletePersonsByIdIn(List.of(1001L, 404L));
+
+        //Then
+        assertThat(deleted).isEqualTo(1);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+        assertThat(userRepository.count()).isZero();
+    }
+
     // * failed
     @DisplayName("Сохранение пользователя с Null полем. Должно выброситься исключение.")
     @Test
@@ -0,0 +1,70 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.service.impl.BookServiceImplCached;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link BookServiceImplCached}.
+ */
+@DisplayName("Testing cached book functionality.")
+public class BookServiceImplCachedTest {
+    private final BookService delegate = mock(BookService.class);
+    private final BookServiceImplCached bookService = new BookServiceImplCached(delegate,
+            new UserBookCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), 100, Duration.ofMinutes(10)));
+
+    @Test
+    @DisplayName("Список книг пользователя читается из БД один раз, создание книги его сбрасывает.")
+    void getBooksByUserId_thenCachedUntilCreate() {
+        //Given
+        when(delegate.getBooksByUserId(1L)).thenReturn(List.of(new BookDto(10L, 1L, "a", "author", 100L)));
+
+        //When
+        bookService.getBooksByUserId(1L);
+        List<Long> ids = bookService.getBooksIdsByUserId(1L);
+
+        //Then
+        assertThat(ids).containsExactly(10L);
+        verify(delegate, times(1)).getBooksByUserId(1L);
+
+        //When
+        when(delegate.createBook(any())).thenReturn(new BookDto(11L, 1L, "b", "author", 200L));
+        when(delegate.getBooksByUserId(1L)).thenReturn(List.of(
+                new BookDto(10L, 1L, "a", "author", 100L),
+                new BookDto(11L, 1L, "b", "author", 200L)));
+        bookService.createBook(new BookDto(null, 1L, "b", "author", 200L));
+
+        //Then
+        assertThat(bookService.getBooksIdsByUserId(1L)).containsExactly(10L, 11L);
+        verify(delegate, times(2)).getBooksByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Перенос книги к другому пользователю сбрасывает списки обоих пользователей.")
+    void updateBookOwner_thenBothListsEvicted() {
+        //Given
+        when(delegate.getBooksByUserId(1L)).thenReturn(List.of(new BookDto(10L, 1L, "a", "author", 100L)));
+        when(delegate.getBooksByUserId(2L)).thenReturn(List.of());
+        bookService.getBooksByUserId(1L);
+        bookService.getBooksByUserId(2L);
+        when(delegate.getBookById(10L)).thenReturn(new BookDto(10L, 1L, "a", "author", 100L));
+        when(delegate.updateBook(any())).thenReturn(new BookDto(10L, 2L, "a", "author", 100L));
+
+        //When
+        bookService.updateBook(new BookDto(10L, 2L, null, null, 0L));
+        bookService.getBooksByUserId(1L);
+        bookService.getBooksByUserId(2L);
+
+        //Then
+        verify(delegate, times(2)).getBooksByUserId(1L);
+        verify(delegate, times(2)).getBooksByUserId(2L);
+    }
+}
@@ -3,6 +3,8 @@ package com.edu.ulab.app.service;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.locking.LockMode;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
 import com.edu.ulab.app.service.impl.BookServiceImpl;
@@ -11,11 +13,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -38,6 +44,10 @@ public class BookServiceImplTest {
     @Mock
     BookMapper bookMapper;
 
+    @Spy
+    UpdateRetryTemplate updateRetryTemplate = new UpdateRetryTemplate(LockMode.PESSIMISTIC,
+            TransactionOperations.withoutTransaction(), 1, Duration.ZERO, Duration.ZERO);
+
     @Test
     @DisplayName("Создание книги. Должно пройти успешно.")
     void saveBook_Test() {
@@ -49,14 +59,14 @@ public class BookServiceImplTest {
         bookDto.setUserId(1L);
         bookDto.setAuthor("test author");
         bookDto.setTitle("test title");
-        bookDto.setPageCount(1000);
+        bookDto.setPageCount(1000L);
 
         BookDto result = new BookDto();
         result.setId(1L);
         result.setUserId(1L);
         result.setAuthor("test author");
         result.setTitle("test title");
-        result.setPageCount(1000);
+        result.setPageCount(1000L);
 
         Book book = new Book();
         book.setPageCount(1000);
@@ -84,6 +94,47 @@ public class BookServiceImplTest {
     }
 
 
+    @Test
+    @DisplayName("Пакетное создание книг. Книги сохраняются одним вызовом saveAll.")
+    void saveBooks_Test() {
+        //given
+        BookDto first = new BookDto();
+        first.setUserId(1L);
+        first.setTitle("first");
+        BookDto second = new BookDto();
+        second.setUserId(1L);
+        second.setTitle("second");
+
+        Book firstBook = new Book();
+        firstBook.setUserId(1L);
+        firstBook.setTitle("first");
+        Book secondBook = new Book();
+        secondBook.setUserId(1L);
+        secondBook.setTitle("second");
+
+        Book savedFirst = new Book();
+        savedFirst.setId(1L);
+        Book savedSecond = new Book();
+        savedSecond.setId(2L);
+
+        BookDto firstResult = new BookDto();
+        firstResult.setId(1L);
+        BookDto secondResult = new BookDto();
+        secondResult.setId(2L);
+
+        //when
+        when(bookMapper.bookDtoToBook(first)).thenReturn(firstBook);
+        when(bookMapper.bookDtoToBook(second)).thenReturn(secondBook);
+        when(bookRepository.saveAll(List.of(firstBook, secondBook))).thenReturn(List.of(savedFirst, savedSecond));
+        when(bookMapper.bookToBookDto(savedFirst)).thenReturn(firstResult);
+        when(bookMapper.bookToBookDto(savedSecond)).thenReturn(secondResult);
+
+        //then
+        List<BookDto> result = bookService.createBooks(List.of(first, second));
+        assertEquals(List.of(1L, 2L), result.stream().map(BookDto::getId).toList());
+        verify(bookRepository, never()).save(any());
+    }
+
     // update
     @Test
     @DisplayName("Обновление полей книги")
@@ -96,14 +147,7 @@ public class BookServiceImplTest {
         bookDtoUpdate.setUserId(1L);
         bookDtoUpdate.setAuthor("Updated author");
         bookDtoUpdate.setTitle("Updated title");
-        bookDtoUpdate.setPageCount(1000);
-
-        Book bookUpdate = new Book();
-        bookUpdate.setId(2L);
-        bookUpdate.setUserId(1L);
-        bookUpdate.setAuthor("Updated author");
-        bookUpdate.setTitle("Updated title");
-        bookUpdate.setPageCount(1000);
+        bookDtoUpdate.setPageCount(1000L);
 
         Book bookFromDb = new Book();
         bookFromDb.setId(2L);
@@ -131,17 +175,16 @@ public class BookServiceImplTest {
         updatedBookDto.setUserId(1L);
         updatedBookDto.setAuthor("Updated author");
         updatedBookDto.setTitle("Updated title");
-        updatedBookDto.setPageCount(1000);
+        updatedBookDto.setPageCount(1000L);
 
         //When
-        when(bookMapper.bookDtoToBook(bookDtoUpdate)).thenReturn(bookUpdate);
         when(bookRepository.findByIdForUpdate(id)).thenReturn(Optional.of(bookFromDb));
         doAnswer(invocation -> {
             Object[] args = invocation.getArguments();
             ((Book) args[1]).setAuthor("Updated author");
             ((Book) args[1]).setTitle("Updated title");
             return null;
-        }).when(bookMapper).updateBook(bookUpdate, bookFromDb);
+        }).when(bookMapper).updateBookFromDto(bookDtoUpdate, bookFromDb);
         when(bookRepository.save(bookFromDb)).thenReturn(savedUpdatedBook);
         when(bookMapper.bookToBookDto(savedUpdatedBook)).thenReturn(updatedBookDto);
 
@@ -172,7 +215,7 @@ public class BookServiceImplTest {
         bookDto.setUserId(202L);
         bookDto.setAuthor("Hugh Jass");
         bookDto.setTitle("Cool book");
-        bookDto.setPageCount(444);
+        bookDto.setPageCount(444L);
 
 
         //When
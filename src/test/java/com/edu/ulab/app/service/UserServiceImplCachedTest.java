@@ -0,0 +1,164 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.cache.UserBookCache;
+import com.edu.ulab.app.cache.UserIdFilter;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.UserServiceImplCached;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserServiceImplCached}.
+ */
+@DisplayName("Testing cached user functionality.")
+public class UserServiceImplCachedTest {
+    private final UserService delegate = mock(UserService.class);
+    private final UserIdFilter userIdFilter = new UserIdFilter(100, 0.001, Duration.ofMinutes(1));
+    private final UserServiceImplCached userService = new UserServiceImplCached(delegate,
+            new UserBookCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), 100, Duration.ofMinutes(10)),
+            userIdFilter);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторное чтение пользователя берётся из кеша, изменение копии не портит кеш.")
+    void getUserById_thenLoadedOnce() {
+        //Given
+        when(delegate.getUserById(1L)).thenReturn(new UserDto(1L, "Test Test", "reader", 20));
+
+        //When
+        UserDto first = userService.getUserById(1L);
+        first.setFullName("Changed");
+        UserDto second = userService.getUserById(1L);
+
+        //Then
+        assertThat(second.getFullName()).isEqualTo("Test Test");
+        assertThat(userService.existsById(1L)).isTrue();
+        verify(delegate, times(1)).getUserById(1L);
+    }
+
+    @Test
+    @DisplayName("Отсутствие пользователя кешируется и сбрасывается при создании.")
+    void getMissingUser_thenNegativeCached() {
+        //Given
+        when(delegate.getUserById(2L)).thenThrow(new NotFoundException("User with id: 2 was not found"));
+
+        //When
+        assertThatThrownBy(() -> userService.getUserById(2L)).isInstanceOf(NotFoundException.class);
+        boolean exists = userService.existsById(2L);
+        Optional<?> books = userService.findBooksIdsByUserId(2L);
+
+        //Then
+        assertThat(exists).isFalse();
+        assertThat(books).isEmpty();
+        verify(delegate, times(1)).getUserById(2L);
+        verify(delegate, never()).findBooksIdsByUserId(2L);
+
+        //When
+        reset(delegate);
+        when(delegate.createUser(any())).thenReturn(new UserDto(2L, "Created", "reader", 30));
+        when(delegate.getUserById(2L)).thenReturn(new UserDto(2L, "Created", "reader", 30));
+        userService.createUser(new UserDto(null, "Created", "reader", 30));
+
+        //Then
+        assertThat(userService.getUserById(2L).getFullName()).isEqualTo("Created");
+    }
+
+    @Test
+    @DisplayName("Обновление внутри транзакции удаляет запись сразу и ещё раз после завершения транзакции.")
+    void updateUserInTransaction_thenEvictedAgainAfterCompletion() {
+        //Given
+        when(delegate.getUserById(3L)).thenReturn(new UserDto(3L, "Before", "reader", 20));
+        userService.getUserById(3L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        //When
+        when(delegate.updateUser(any())).thenReturn(new UserDto(3L, "After", "reader", 20));
+        userService.updateUser(new UserDto(3L, "After", null, null));
+        // параллельное чтение до коммита кладёт в кеш старое значение
+        userService.getUserById(3L);
+        when(delegate.getUserById(3L)).thenReturn(new UserDto(3L, "After", "reader", 20));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        //Then
+        assertThat(userService.getUserById(3L).getFullName()).isEqualTo("After");
+    }
+
+    @Test
+    @DisplayName("Идентификатор, которого нет в фильтре, отсекается без обращения к БД, созданный пользователь проходит.")
+    void filteredOutId_thenNoDatabaseCall() {
+        //Given
+        userIdFilter.rebuild(2, sink -> LongStream.of(1L, 1_000L).forEach(sink));
+        when(delegate.createUser(any())).thenReturn(new UserDto(7L, "Created", "reader", 30));
+        when(delegate.getUserById(7L)).thenReturn(new UserDto(7L, "Created", "reader", 30));
+
+        //When
+        boolean missingExists = userService.existsById(404L);
+        Optional<?> missingBooks = userService.findBooksIdsByUserId(404L);
+        userService.createUser(new UserDto(null, "Created", "reader", 30));
+
+        //Then
+        assertThat(missingExists).isFalse();
+        assertThat(missingBooks).isEmpty();
+        assertThat(userService.existsById(7L)).isTrue();
+        verify(delegate, never()).getUserById(404L);
+        verify(delegate, never()).findBooksIdsByUserId(404L);
+    }
+
+    @Test
+    @DisplayName("Созданный в транзакции пользователь попадает в фильтр только после коммита.")
+    void createUserInTransaction_thenAddedToFilterAfterCommit() {
+        //Given
+        userIdFilter.rebuild(2, sink -> LongStream.of(1L, 1_000L).forEach(sink));
+        when(delegate.createUser(any())).thenReturn(new UserDto(8L, "Created", "reader", 30));
+        when(delegate.getUserById(8L)).thenReturn(new UserDto(8L, "Created", "reader", 30));
+        TransactionSynchronizationManager.initSynchronization();
+
+        //When
+        userService.createUser(new UserDto(null, "Created", "reader", 30));
+        boolean beforeCommit = userIdFilter.mightContain(8L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //Then
+        assertThat(beforeCommit).isFalse();
+        assertThat(userService.existsById(8L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Идентификатор выше прочитанных пересборкой проверяется в БД: его мог создать другой экземпляр.")
+    void idAboveRebuild_thenCheckedInDatabase() {
+        //Given
+        userIdFilter.rebuild(2, sink -> LongStream.of(1L, 1_000L).forEach(sink));
+        when(delegate.getUserById(1_001L)).thenReturn(new UserDto(1_001L, "Elsewhere", "reader", 30));
+        when(delegate.getUsersByIds(List.of(1_001L))).thenReturn(Map.of(1_001L, new UserDto(1_001L, "Elsewhere", "reader", 30)));
+
+        //When
+        boolean exists = userService.existsById(1_001L);
+        Map<Long, UserDto> batch = userService.getUsersByIds(List.of(404L, 1_001L));
+
+        //Then
+        assertThat(exists).isTrue();
+        assertThat(batch).containsOnlyKeys(1_001L);
+        verify(delegate).getUsersByIds(List.of(1_001L));
+    }
+}
@@ -4,7 +4,11 @@ import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.locking.LockMode;
+import com.edu.ulab.app.locking.UpdateRetryTemplate;
 import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.repository.UserBookIdView;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.DisplayName;
@@ -12,12 +16,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +46,10 @@ public class UserServiceImplTest {
     @Mock
     UserMapper userMapper;
 
+    @Spy
+    UpdateRetryTemplate updateRetryTemplate = new UpdateRetryTemplate(LockMode.PESSIMISTIC,
+            TransactionOperations.withoutTransaction(), 1, Duration.ZERO, Duration.ZERO);
+
     @Test
     @DisplayName("Создание пользователя. Должно пройти успешно.")
     void savePerson_Test() {
@@ -169,4 +182,43 @@ public class UserServiceImplTest {
         assertEquals("Eric Shun", userDtoResult.getFullName());
     }
 
+    @Test
+    @DisplayName("Получение идентификаторов книг пользователя одним запросом.")
+    void findBooksIdsByUserId_Test() {
+        //Given
+        Long id = 202L;
+
+        //When
+        when(userRepository.findUserBookIds(id)).thenReturn(List.of(
+                new UserBookIdView(id, 1L),
+                new UserBookIdView(id, 2L)));
+
+        //Then
+        assertEquals(Optional.of(List.of(1L, 2L)), userService.findBooksIdsByUserId(id));
+    }
+
+    @Test
+    @DisplayName("Получение идентификаторов книг: пользователь без книг и несуществующий пользователь.")
+    void findBooksIdsByUserId_whenNoBooksOrNoUser_Test() {
+        //When
+        when(userRepository.findUserBookIds(202L)).thenReturn(List.of(new UserBookIdView(202L, null)));
+        when(userRepository.findUserBookIds(303L)).thenReturn(List.of());
+
+        //Then
+        assertEquals(Optional.of(List.of()), userService.findBooksIdsByUserId(202L));
+        assertEquals(Optional.empty(), userService.findBooksIdsByUserId(303L));
+    }
+
+    // delete
+    @Test
+    @DisplayName("Удаление несуществующего пользователя. Должно выбросить NotFoundException.")
+    void deleteMissingUser_Test() {
+        //When
+        when(userRepository.deletePersonById(404L)).thenReturn(0);
+        when(userRepository.deletePersonById(101L)).thenReturn(1);
+
+        //Then
+        userService.deleteUserById(101L);
+        assertThrows(NotFoundException.class, () -> userService.deleteUserById(404L));
+    }
 }
@@ -0,0 +1,98 @@
+package com.edu.ulab.app.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты {@link ConcurrentLongObjectMap}.
+ */
+@DisplayName("Testing primitive long map.")
+public class ConcurrentLongObjectMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления. Содержимое должно совпадать с HashMap.")
+    void randomOperations_thenMatchHashMap() {
+        //Given
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(4);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                String value = "v" + i;
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+        }
+
+        //Then
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        Map<Long, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Compute с результатом null удаляет ключ.")
+    void computeReturningNull_thenKeyRemoved() {
+        //Given
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+        map.put(-7L, "value");
+
+        //When
+        map.compute(-7L, current -> null);
+
+        //Then
+        assertThat(map.containsKey(-7L)).isFalse();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Параллельные compute по общим ключам не теряют обновлений.")
+    void concurrentCompute_thenNoLostUpdates() throws InterruptedException {
+        //Given
+        ConcurrentLongObjectMap<Integer> map = new ConcurrentLongObjectMap<>();
+        int threads = 8;
+        int iterations = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //When
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    map.compute(i % 100, current -> current == null ? 1 : current + 1);
+                    map.get(i % 100);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        //Then
+        for (long key = 0; key < 100; key++) {
+            assertThat(map.get(key)).isEqualTo(threads * iterations / 100);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.edu.ulab.app.storage.StorageFixtures.book;
+import static com.edu.ulab.app.storage.StorageFixtures.person;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link InMemoryStorage}.
+ */
+@DisplayName("Testing in-memory storage.")
+public class InMemoryStorageTest {
+    private final InMemoryStorage storage = new InMemoryStorage();
+
+    @Test
+    @DisplayName("Сохранение пользователя. Должен сгенерироваться идентификатор.")
+    void createPerson_thenIdGenerated() {
+        //Given
+        Person person = person("Test Test");
+
+        //When
+        Person first = storage.createPerson(person);
+        Person second = storage.createPerson(person);
+
+        //Then
+        assertThat(first.getId()).isNotNull();
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        assertThat(person.getId()).isNull();
+        assertThat(storage.findPerson(first.getId())).get()
+                .extracting(Person::getFullName).isEqualTo("Test Test");
+    }
+
+    @Test
+    @DisplayName("Пакетное создание книг. Индекс пользователя обновляется один раз и остаётся отсортированным.")
+    void createBooksInBatch_thenIndexed() {
+        //Given
+        Person user = storage.createPerson(person("Reader"));
+        Person other = storage.createPerson(person("Other"));
+        Book existing = storage.createBook(book(user.getId(), "existing"));
+
+        //When
+        List<Book> created = storage.createBooks(List.of(
+                book(user.getId(), "first"),
+                book(other.getId(), "foreign"),
+                book(user.getId(), "second")));
+
+        //Then
+        assertThat(created).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(storage.findBooksByUserId(user.getId())).extracting(Book::getTitle)
+                .containsExactly("existing", "first", "second");
+        assertThat(storage.findBookIdsByUserId(other.getId())).containsExactly(created.get(1).getId());
+        assertThat(storage.findBookIdsByUserId(user.getId())[0]).isEqualTo(existing.getId());
+    }
+
+    @Test
+    @DisplayName("Изменение возвращённой копии не меняет хранилище.")
+    void mutateReturnedCopy_thenStorageUnchanged() {
+        //Given
+        Person saved = storage.createPerson(person("Test Test"));
+
+        //When
+        saved.setFullName("Changed");
+
+        //Then
+        assertThat(storage.findPerson(saved.getId())).get()
+                .extracting(Person::getFullName).isEqualTo("Test Test");
+    }
+
+    @Test
+    @DisplayName("Книги пользователя находятся через индекс.")
+    void createBooks_thenFoundByUserId() {
+        //Given
+        Person user = storage.createPerson(person("Reader"));
+        Person other = storage.createPerson(person("Other"));
+
+        //When
+        Book first = storage.createBook(book(user.getId(), "first"));
+        Book second = storage.createBook(book(user.getId(), "second"));
+        storage.createBook(book(other.getId(), "foreign"));
+
+        //Then
+        assertThat(storage.findBookIdsByUserId(user.getId())).containsExactly(first.getId(), second.getId());
+        assertThat(storage.findBooksByUserId(user.getId())).extracting(Book::getTitle)
+                .containsExactly("first", "second");
+        assertThat(storage.findBookIdsByUserId(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Смена владельца книги переносит её в индексе.")
+    void updateBookUser_thenIndexMoved() {
+        //Given
+        Person user = storage.createPerson(person("Reader"));
+        Person other = storage.createPerson(person("Other"));
+        Book book = storage.createBook(book(user.getId(), "book"));
+
+        //When
+        storage.updateBook(book.getId(), b -> b.setUserId(other.getId()));
+
+        //Then
+        assertThat(storage.findBookIdsByUserId(user.getId())).isEmpty();
+        assertThat(storage.findBookIdsByUserId(other.getId())).containsExactly(book.getId());
+    }
+
+    @Test
+    @DisplayName("Удаление книг пользователя. Чужие книги не затрагиваются.")
+    void deleteBooksByUserId_thenOnlyHisBooksDeleted() {
+        //Given
+        Person user = storage.createPerson(person("Reader"));
+        Person other = storage.createPerson(person("Other"));
+        storage.createBook(book(user.getId(), "first"));
+        storage.createBook(book(user.getId(), "second"));
+        Book foreign = storage.createBook(book(other.getId(), "foreign"));
+
+        //When
+        int deleted = storage.deleteBooksByUserId(user.getId());
+
+        //Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(storage.findBooksByUserId(user.getId())).isEmpty();
+        assertThat(storage.findBooksByUserId(other.getId())).extracting(Book::getId)
+                .isEqualTo(List.of(foreign.getId()));
+        assertThat(storage.bookCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Обновление несуществующего пользователя возвращает пустой результат.")
+    void updateMissingPerson_thenEmpty() {
+        assertThat(storage.updatePerson(404L, p -> p.setAge(1))).isEmpty();
+        assertThat(storage.existsPerson(404L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Книга несуществующего пользователя не создаётся и к нему не переносится.")
+    void bookOfMissingUser_thenRejected() {
+        //Given
+        Person user = storage.createPerson(person("Reader"));
+        Book book = storage.createBook(book(user.getId(), "book"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> storage.createBook(book(404L, "orphan")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.createBooks(List.of(book(user.getId(), "kept"), book(404L, "orphan"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.updateBook(book.getId(), b -> b.setUserId(404L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(storage.findBook(book.getId())).get().extracting(Book::getUserId).isEqualTo(user.getId());
+        assertThat(storage.bookCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Страница пользователей. Наименьшие идентификаторы после afterId с заданным рейтингом по порядку.")
+    void findPersonsPage_thenSmallestIdsAfterCursor() {
+        //Given
+        List<Long> rated = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Person person = person("Reader " + i);
+            person.setRating(i % 2 == 0 ? 5 : 3);
+            Person created = storage.createPerson(person);
+            if (i % 2 == 0) {
+                rated.add(created.getId());
+            }
+        }
+        storage.deletePerson(rated.get(1));
+
+        //When
+        List<Person> firstPage = storage.findPersonsPage(5, 0L, 2);
+        List<Person> secondPage = storage.findPersonsPage(5, firstPage.get(1).getId(), 2);
+        List<Person> anyRating = storage.findPersonsPage(null, rated.get(4), 10);
+
+        //Then
+        assertThat(firstPage).extracting(Person::getId).containsExactly(rated.get(0), rated.get(2));
+        assertThat(secondPage).extracting(Person::getId).containsExactly(rated.get(3), rated.get(4));
+        assertThat(anyRating).extracting(Person::getId).containsExactly(rated.get(4) + 1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+/**
+ * Сущности для тестов хранилищ: заполнены все обязательные поля, задаётся только то, что проверяется.
+ */
+public final class StorageFixtures {
+
+    private StorageFixtures() {
+    }
+
+    public static Person person(String fullName) {
+        Person person = new Person();
+        person.setFullName(fullName);
+        person.setTitle("reader");
+        person.setAge(30);
+        person.setRating(1);
+        return person;
+    }
+
+    public static Book book(long userId, String title) {
+        Book book = new Book();
+        book.setUserId(userId);
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,248 @@
+package com.edu.ulab.app.storage.journal;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.InMemoryStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static com.edu.ulab.app.storage.StorageFixtures.book;
+import static com.edu.ulab.app.storage.StorageFixtures.person;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты восстановления {@link JournaledStorage}.
+ */
+@DisplayName("Testing storage journal recovery.")
+public class JournaledStorageTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Все изменения восстанавливаются из журнала после перезапуска.")
+    void reopen_thenStateReplayedFromJournal() throws IOException {
+        //Given
+        long userId;
+        long keptBookId;
+        try (JournaledStorage storage = open()) {
+            Person user = storage.createPerson(person("Reader"));
+            userId = user.getId();
+            keptBookId = storage.createBook(book(userId, "kept")).getId();
+            long deletedBookId = storage.createBook(book(userId, "deleted")).getId();
+            storage.updatePerson(userId, p -> p.setFullName("Updated Reader"));
+            storage.updateBook(keptBookId, b -> b.setPageCount(777));
+            storage.deleteBook(deletedBookId);
+            Person removed = storage.createPerson(person("Removed"));
+            storage.deletePerson(removed.getId());
+        }
+
+        //When
+        InMemoryStorage recovered = new InMemoryStorage();
+        try (JournaledStorage storage = JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO)) {
+
+            //Then
+            assertThat(storage.findPerson(userId)).get().extracting(Person::getFullName).isEqualTo("Updated Reader");
+            assertThat(storage.findBooksByUserId(userId)).extracting(Book::getId).containsExactly(keptBookId);
+            assertThat(storage.findBook(keptBookId)).get().extracting(Book::getPageCount).isEqualTo(777L);
+            assertThat(recovered.personCount()).isEqualTo(1);
+            assertThat(storage.createPerson(person("Next")).getId()).isGreaterThan(keptBookId);
+        }
+    }
+
+    @Test
+    @DisplayName("Снимок удаляет старые сегменты, хвост журнала проигрывается поверх снимка.")
+    void checkpoint_thenSnapshotPlusTailRecovered() throws IOException {
+        //Given
+        long userId;
+        try (JournaledStorage storage = open()) {
+            userId = storage.createPerson(person("Reader")).getId();
+            storage.createBook(book(userId, "before snapshot"));
+            storage.checkpoint();
+            storage.createBook(book(userId, "after snapshot"));
+            storage.deleteBooksByUserId(userId);
+            storage.createBook(book(userId, "after delete"));
+        }
+
+        //When
+        InMemoryStorage recovered = new InMemoryStorage();
+        try (JournaledStorage storage = JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO)) {
+
+            //Then
+            assertThat(WriteAheadLog.segments(directory)).hasSize(2);
+            assertThat(Files.exists(directory.resolve("snapshot.bin"))).isTrue();
+            assertThat(storage.findBooksByUserId(userId)).extracting(Book::getTitle).containsExactly("after delete");
+        }
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала игнорируется.")
+    void tornTail_thenPreviousRecordsRecovered() throws IOException {
+        //Given
+        long userId;
+        try (JournaledStorage storage = open()) {
+            userId = storage.createPerson(person("Reader")).getId();
+        }
+        Path segment = Files.list(directory).filter(p -> p.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        //When
+        InMemoryStorage recovered = new InMemoryStorage();
+        try (JournaledStorage storage = JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO)) {
+            long nextUserId = storage.createPerson(person("Next")).getId();
+
+            //Then
+            assertThat(storage.existsPerson(userId)).isTrue();
+            assertThat(nextUserId).isGreaterThan(userId);
+        }
+        try (JournaledStorage storage = JournaledStorage.open(new InMemoryStorage(), directory, SyncMode.GROUP, Duration.ZERO)) {
+            assertThat(storage.findPerson(userId)).isPresent();
+            assertThat(storage.findPerson(userId + 1)).isPresent();
+        }
+    }
+
+    @Test
+    @DisplayName("Параллельные записи с групповым коммитом не теряются.")
+    void concurrentWrites_thenAllRecovered() throws Exception {
+        //Given
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (JournaledStorage storage = open()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long userId = storage.createPerson(person("Reader")).getId();
+                        storage.createBook(book(userId, "book"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //When
+        InMemoryStorage recovered = new InMemoryStorage();
+        JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO).close();
+
+        //Then
+        assertThat(recovered.personCount()).isEqualTo(threads * perThread);
+        assertThat(recovered.bookCount()).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("Изменения, которые не удалось записать в журнал, откатываются в памяти.")
+    void journalFailure_thenChangesRolledBack() throws IOException {
+        //Given
+        JournaledStorage storage = open();
+        long userId = storage.createPerson(person("Reader")).getId();
+        long bookId = storage.createBook(book(userId, "kept")).getId();
+        // закрытый журнал падает на первом же fsync
+        storage.close();
+
+        //When, Then
+        assertThatThrownBy(() -> storage.updatePerson(userId, p -> p.setFullName("Lost")))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessage("Failed to sync storage journal");
+        assertThatThrownBy(() -> storage.deleteBooksByUserId(userId))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessage("Failed to append to storage journal");
+        assertThatThrownBy(() -> storage.createPerson(person("Lost")))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThat(storage.findPerson(userId)).get().extracting(Person::getFullName).isEqualTo("Reader");
+        assertThat(storage.findBooksByUserId(userId)).extracting(Book::getId).containsExactly(bookId);
+        assertThat(storage.findPerson(bookId + 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Снимок, захвативший изменение, которое не удалось сбросить на диск, не публикуется.")
+    void journalFailsDuringCheckpoint_thenSnapshotDiscarded() throws IOException {
+        //Given
+        JournaledStorage[] storage = new JournaledStorage[1];
+        long[] userId = new long[1];
+        InMemoryStorage delegate = new InMemoryStorage() {
+            private boolean failed;
+
+            @Override
+            public void forEachPerson(Consumer<Person> action) {
+                if (!failed) {
+                    failed = true;
+                    try {
+                        // журнал отказывает, пока снимок обходит хранилище
+                        storage[0].close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    assertThatThrownBy(() -> storage[0].updatePerson(userId[0], p -> p.setFullName("Lost")))
+                            .isInstanceOf(UncheckedIOException.class);
+                }
+                super.forEachPerson(action);
+            }
+        };
+        storage[0] = JournaledStorage.open(delegate, directory, SyncMode.GROUP, Duration.ZERO);
+        userId[0] = storage[0].createPerson(person("Reader")).getId();
+
+        //When
+        assertThatThrownBy(storage[0]::checkpoint).isInstanceOf(IOException.class);
+
+        //Then
+        assertThat(Files.exists(directory.resolve("snapshot.bin"))).isFalse();
+        assertThat(Files.exists(directory.resolve("snapshot.tmp"))).isFalse();
+        InMemoryStorage recovered = new InMemoryStorage();
+        JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO).close();
+        assertThat(recovered.findPerson(userId[0])).get().extracting(Person::getFullName).isEqualTo("Reader");
+    }
+
+    @Test
+    @DisplayName("Параллельные записи с fsync на каждую запись не теряются.")
+    void concurrentWritesPerWriteSync_thenAllRecovered() throws Exception {
+        //Given
+        int threads = 4;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (JournaledStorage storage = JournaledStorage.open(new InMemoryStorage(), directory, SyncMode.PER_WRITE, Duration.ZERO)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        storage.createPerson(person("Reader"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //When
+        InMemoryStorage recovered = new InMemoryStorage();
+        JournaledStorage.open(recovered, directory, SyncMode.GROUP, Duration.ZERO).close();
+
+        //Then
+        assertThat(recovered.personCount()).isEqualTo(threads * perThread);
+    }
+
+    private JournaledStorage open() throws IOException {
+        return JournaledStorage.open(new InMemoryStorage(), directory, SyncMode.GROUP, Duration.ZERO);
+    }
+}
@@ -0,0 +1,127 @@
+package com.edu.ulab.app.storage.mapped;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.edu.ulab.app.storage.StorageFixtures.book;
+import static com.edu.ulab.app.storage.StorageFixtures.person;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты {@link MappedStorage}.
+ */
+@DisplayName("Testing memory-mapped storage.")
+public class MappedStorageTest {
+    private static final int CHUNK_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Данные доступны после повторного открытия файлов.")
+    void reopen_thenRecordsPersisted() throws IOException {
+        //Given
+        long userId;
+        long bookId;
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+            userId = storage.createPerson(person("Иван Иванов")).getId();
+            bookId = storage.createBook(book(userId, "Война и мир")).getId();
+            storage.updatePerson(userId, p -> p.setRating(null));
+        }
+
+        //When
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+
+            //Then
+            Person person = storage.findPerson(userId).orElseThrow();
+            assertThat(person.getFullName()).isEqualTo("Иван Иванов");
+            assertThat(person.getAge()).isEqualTo(30);
+            assertThat(person.getRating()).isNull();
+            assertThat(storage.findBooksByUserId(userId)).extracting(Book::getTitle).containsExactly("Война и мир");
+            assertThat(storage.createBook(book(userId, "next")).getId()).isEqualTo(bookId + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Записи и строки растут за границы нескольких кусков файла.")
+    void manyRecords_thenRegionsGrow() throws IOException {
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+            //Given
+            long userId = storage.createPerson(person("Reader")).getId();
+
+            //When
+            for (int i = 0; i < 1_000; i++) {
+                storage.createBook(book(userId, "title-" + "x".repeat(i % 200) + i));
+            }
+
+            //Then
+            assertThat(storage.findBookIdsByUserId(userId)).hasSize(1_000).isSorted();
+            assertThat(storage.findBook(1_000L)).get().extracting(Book::getTitle)
+                    .isEqualTo("title-" + "x".repeat(999 % 200) + 999);
+        }
+    }
+
+    @Test
+    @DisplayName("Удаление и перенос книг поддерживают список книг пользователя.")
+    void deleteAndMoveBooks_thenListsConsistent() throws IOException {
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+            //Given
+            long userId = storage.createPerson(person("Reader")).getId();
+            long otherId = storage.createPerson(person("Other")).getId();
+            long first = storage.createBook(book(userId, "first")).getId();
+            long second = storage.createBook(book(userId, "second")).getId();
+            long third = storage.createBook(book(userId, "third")).getId();
+            long foreign = storage.createBook(book(otherId, "foreign")).getId();
+
+            //When
+            storage.deleteBook(second);
+            storage.updateBook(first, b -> b.setUserId(otherId));
+
+            //Then
+            assertThat(storage.findBookIdsByUserId(userId)).containsExactly(third);
+            assertThat(storage.findBookIdsByUserId(otherId)).containsExactly(first, foreign);
+            assertThat(storage.deleteBooksByUserId(otherId)).isEqualTo(2);
+            assertThat(storage.findBook(foreign)).isEmpty();
+            assertThat(storage.findBookIdsByUserId(userId)).containsExactly(third);
+        }
+    }
+
+    @Test
+    @DisplayName("Книга несуществующего пользователя не создаётся.")
+    void createBookForMissingUser_thenRejected() throws IOException {
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+            assertThatThrownBy(() -> storage.createBook(book(42L, "orphan")))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(storage.findPerson(42L)).isEmpty();
+            assertThat(storage.deletePerson(42L)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Страница пользователей. Слоты просматриваются по порядку, удалённые и с другим рейтингом пропускаются.")
+    void findPersonsPage_thenLiveIdsAfterCursor() throws IOException {
+        try (MappedStorage storage = MappedStorage.open(directory, CHUNK_SIZE)) {
+            //Given
+            for (int i = 0; i < 6; i++) {
+                Person person = person("Reader " + i);
+                person.setRating(i == 2 ? null : i % 2 == 0 ? 5 : 3);
+                storage.createPerson(person);
+            }
+            storage.deletePerson(1L);
+
+            //When
+            //Then
+            assertThat(storage.findPersonsPage(5, 0L, 10)).extracting(Person::getId).containsExactly(5L);
+            assertThat(storage.findPersonsPage(null, 0L, 3)).extracting(Person::getId).containsExactly(2L, 3L, 4L);
+            assertThat(storage.findPersonsPage(3, 2L, 1)).extracting(Person::getId).containsExactly(4L);
+            assertThat(storage.findPersonsPage(null, 6L, 10)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.edu.ulab.app.trace;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты {@link Tracer}, {@link TraceRingBuffer} и {@link TracesEndpoint}.
+ */
+@DisplayName("Testing request tracer.")
+public class TracerTest {
+
+    @Test
+    @DisplayName("Вложенные участки собираются в дерево.")
+    void nestedSpans_thenTree() {
+        //Given
+        Tracer tracer = new Tracer(new TraceRingBuffer(8), 16);
+        TracingQueryListener jdbc = new TracingQueryListener(tracer);
+        List<QueryInfo> query = List.of(new QueryInfo("select * from ulab_edu.book where user_id = ?"));
+
+        //When
+        tracer.begin("rq-1", "GET", "/app/api/v1/user/getWithBooks/1");
+        tracer.start("facade", "UserDataFacade", "getUserWithBooks");
+        tracer.start("service", "UserServiceImpl", "findBooksIdsByUserId");
+        jdbc.beforeQuery(new ExecutionInfo(), query);
+        jdbc.afterQuery(new ExecutionInfo(), query);
+        tracer.end();
+        tracer.end();
+        tracer.finish();
+
+        //Then
+        List<TracesEndpoint.TraceView> traces = new TracesEndpoint(tracer).slowest(null);
+        assertThat(traces).hasSize(1);
+        TracesEndpoint.TraceView trace = traces.get(0);
+        assertThat(trace.requestId()).isEqualTo("rq-1");
+        TracesEndpoint.SpanView root = trace.spans().get(0);
+        assertThat(root.layer()).isEqualTo("http");
+        TracesEndpoint.SpanView facade = root.children().get(0);
+        assertThat(facade.name()).isEqualTo("UserDataFacade.getUserWithBooks");
+        TracesEndpoint.SpanView service = facade.children().get(0);
+        assertThat(service.children()).extracting(TracesEndpoint.SpanView::layer).containsExactly("jdbc");
+        assertThat(service.durationMillis()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Закрытие SQL-участка без открытия не сбивает вложенность.")
+    void unmatchedJdbcEnd_thenIgnored() {
+        //Given
+        Tracer tracer = new Tracer(new TraceRingBuffer(8), 16);
+        TracingQueryListener jdbc = new TracingQueryListener(tracer);
+
+        //When
+        tracer.begin("rq-1", "GET", "/");
+        tracer.start("facade", "UserDataFacade", "getUser");
+        jdbc.afterQuery(new ExecutionInfo(), List.of());
+        tracer.start("service", "UserServiceImpl", "getUserById");
+        tracer.end();
+        tracer.end();
+        tracer.finish();
+
+        //Then
+        TracesEndpoint.SpanView facade = new TracesEndpoint(tracer).slowest(1).get(0).spans().get(0).children().get(0);
+        assertThat(facade.children()).extracting(TracesEndpoint.SpanView::name)
+                .containsExactly("UserServiceImpl.getUserById");
+    }
+
+    @Test
+    @DisplayName("Участки сверх лимита не сохраняются, но подсчитываются.")
+    void tooManySpans_thenDropped() {
+        //Given
+        Tracer tracer = new Tracer(new TraceRingBuffer(8), 3);
+
+        //When
+        tracer.begin("rq-1", "GET", "/");
+        for (int i = 0; i < 5; i++) {
+            tracer.start("repository", "BookRepository", "findById");
+            tracer.end();
+        }
+        tracer.finish();
+
+        //Then
+        RequestTrace trace = tracer.slowest(1).get(0);
+        assertThat(trace.getSpans()).hasSize(3);
+        assertThat(trace.getDroppedSpans()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Буфер хранит только последние трассы.")
+    void bufferFull_thenOldestOverwritten() {
+        //Given
+        TraceRingBuffer buffer = new TraceRingBuffer(4);
+        Tracer tracer = new Tracer(buffer, 16);
+
+        //When
+        for (int i = 0; i < 6; i++) {
+            tracer.begin("rq-" + i, "GET", "/");
+            tracer.finish();
+        }
+
+        //Then
+        assertThat(buffer.snapshot()).extracting(RequestTrace::getRequestId)
+                .containsExactlyInAnyOrder("rq-2", "rq-3", "rq-4", "rq-5");
+    }
+
+    @Test
+    @DisplayName("Вне запроса трассировщик ничего не записывает.")
+    void outsideRequest_thenNothingRecorded() {
+        //Given
+        TraceRingBuffer buffer = new TraceRingBuffer(4);
+        Tracer tracer = new Tracer(buffer, 16);
+
+        //When
+        tracer.start("service", "UserServiceImpl", "getUserById");
+        tracer.end();
+        tracer.finish();
+
+        //Then
+        assertThat(tracer.isActive()).isFalse();
+        assertThat(buffer.snapshot()).isEmpty();
+    }
+}
@@ -0,0 +1,10 @@
+insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE, RATING)
+select id, 'user ' || id, 'reader ' || id, 18 + id % 60, id % 10
+from generate_series(100001, 110000) as id;
+
+insert into ulab_edu.book (ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT)
+select id, 100001 + id % 10000, 'book ' || id, 'author ' || id % 500, 100 + id % 900
+from generate_series(200001, 300000) as id;
+
+analyze ulab_edu.person;
+analyze ulab_edu.book;